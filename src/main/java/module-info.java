@@ -6,6 +6,7 @@ module Epi {
     
     opens org.epi.view to javafx.fxml, com.jfoenix;
 
+    exports org.epi.model.event;
     exports org.epi.model.human;
     exports org.epi.model.world;
     exports org.epi.model;
@@ -97,7 +97,7 @@ public class MainApp extends Application {
         this.behaviourDistribution = new BehaviourDistribution(50,50, 50);
         this.pathogen = new Pathogen(10,0.1,0.1,0.7,20);
 
-        this.simulator = new Simulator(this.world.reset(), this.behaviourDistribution.copy(), this.pathogen.reproduce());
+        this.simulator = new Simulator(this.world.reset(), this.behaviourDistribution.copy(), this.pathogen.copy());
     }
 
     /**
@@ -1,6 +1,7 @@
 package org.epi.model;
 
 import org.epi.model.human.Behaviour;
+import org.epi.util.Probability;
 
 import org.apache.commons.math3.util.Pair;
 import org.apache.commons.math3.distribution.EnumeratedDistribution;
@@ -53,7 +54,8 @@ public class BehaviourDistribution {
         Pair<Behaviour, Double> socialDistancing = new Pair<>(SOCIAL_DISTANCING, this.socialDistancingProportion.get());
         Pair<Behaviour, Double> contactTracing = new Pair<>(CONTACT_TRACING, this.contactTracingProportion.get());
 
-        this.behaviourDistribution = new EnumeratedDistribution<>(List.of(normal, socialDistancing, contactTracing));
+        this.behaviourDistribution = new EnumeratedDistribution<>(Probability.getRandom(),
+                List.of(normal, socialDistancing, contactTracing));
     }
 
     //---------------------------- Simulator action ----------------------------
@@ -151,7 +153,8 @@ public class BehaviourDistribution {
         Pair<Behaviour, Double> socialDistancing = new Pair<>(SOCIAL_DISTANCING, socialDistancingProportion.get());
         Pair<Behaviour, Double> contactTracing = new Pair<>(CONTACT_TRACING, contactTracingProportion.get());
 
-        this.behaviourDistribution = new EnumeratedDistribution<>(List.of(normal, socialDistancing, contactTracing));
+        this.behaviourDistribution = new EnumeratedDistribution<>(Probability.getRandom(),
+                List.of(normal, socialDistancing, contactTracing));
     }
 
     /**
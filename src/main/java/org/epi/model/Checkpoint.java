@@ -0,0 +1,744 @@
+package org.epi.model;
+
+import org.epi.model.human.Behaviour;
+import org.epi.model.human.Human;
+import org.epi.model.human.ImmuneSystem;
+import org.epi.model.human.Model;
+import org.epi.model.human.Status;
+import org.epi.model.human.StrainRegistry;
+import org.epi.model.world.ContactGraph;
+import org.epi.model.world.ContactHistory;
+import org.epi.model.world.Exposure;
+import org.epi.model.world.Location;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+import org.epi.util.Probability;
+import org.epi.util.Purpose;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Utility class writing and reading checkpoints of a simulator's state, so that a simulation can be resumed exactly
+ * where it was saved.
+ *
+ * A checkpoint file starts with a header of the {@value MAGIC} magic number (int), the format version (int), the flags
+ * (int) and the size of the uncompressed body (int). The body is deflated if the {@value COMPRESSED} flag is set, and
+ * holds the world time (double), the random generator state (int size and bytes), the compartments (int count and
+ * doubles), the strains, the number of locations (int) and the number of humans (int), followed by one record of
+ * {@value RECORD_SIZE} bytes per human, the contact graph, the exposures and the contact history. The strains are their
+ * count (int), followed by the parent (int), lifespan, transmission risk, fatality rate, immunity rate and immunity
+ * duration (doubles) of each strain after the ancestor. A record holds the human's id, location index and origin
+ * district index (ints, -1 if none), position, previous position and velocity (doubles), behaviour and status ordinals
+ * (bytes), pathogen lifetime (double, NaN if not sick), pathogen strain (int, -1 if not sick) and
+ * {@value ImmuneSystem#MEMORY_SIZE} remembered strains (int, -1 if none) with their immunity (double), and the number
+ * of draws made for the human for each {@link Purpose} (longs), so that common random numbers continue where they
+ * were. The contact graph is its node count (int, -1 if there is no graph), the record index of each node (ints), the
+ * edge count (int), the offsets (ints) and the targets (ints). The exposure of each location is its time (double), its
+ * slot count (int), and the keys (longs), doses, thresholds and last contact times (doubles) of every slot. The contact
+ * history is its user count (int), followed by the record index of each user (int), their slot count (int), and the
+ * keys (ints) and last contact times (doubles) of every slot. The tables are saved slot by slot, so that pairs and
+ * contacts are found, reused and traced in the same order after a restore. All values are big-endian.
+ *
+ * Only the state of a simulation is saved. Its parameters, i.e., the world, pathogen, transmission and engine,
+ * are those of the simulator it is restored into. The strains the pathogen mutated into are state, and are restored
+ * under the same ids.
+ */
+public class Checkpoint {
+
+    /** The magic number at the start of every checkpoint file, "EPIC" in ASCII.*/
+    public static final int MAGIC = 0x45504943;
+
+    /** The current version of the format.*/
+    public static final int VERSION = 4;
+
+    /** The flag of a checkpoint whose body is deflated.*/
+    public static final int COMPRESSED = 1;
+
+    /** The size of the header in bytes.*/
+    public static final int HEADER_SIZE = 4 + 4 + 4 + 4;
+
+    /** The size of a record in bytes.*/
+    public static final int RECORD_SIZE = 4 + 4 + 4 + 6 * 8 + 1 + 1 + 8 + 4 + ImmuneSystem.MEMORY_SIZE * (4 + 8)
+            + Purpose.values().length * 8;
+
+    /** The size of a strain after the ancestor in bytes.*/
+    private static final int STRAIN_SIZE = 4 + 5 * 8;
+
+    /** The location index of a deceased human, which is only kept for the contact graph.*/
+    private static final int NONE = -1;
+
+    /** The behaviours by ordinal.*/
+    private static final Behaviour[] BEHAVIOURS = Behaviour.values();
+
+    /** The health statuses by ordinal.*/
+    private static final Status[] STATUSES = Status.values();
+
+    /**
+     * Write a checkpoint of a simulator. The file is written next to the given path first and then moved over it,
+     * so an earlier checkpoint is not lost if writing fails.
+     *
+     * @param simulator a simulator
+     * @param path the path of the checkpoint file
+     * @param compressed whether the body is deflated
+     * @throws NullPointerException if any of the given parameters are null
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Simulator simulator, Path path, boolean compressed) throws IOException {
+        Objects.requireNonNull(simulator, Error.getNullMsg("simulator"));
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+
+        ByteBuffer body = save(simulator);
+        byte[] payload = compressed ? deflate(body.array()) : body.array();
+
+        ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + payload.length)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(compressed ? COMPRESSED : 0)
+                .putInt(body.capacity())
+                .put(payload)
+                .flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            while (file.hasRemaining()) {
+                channel.write(file);
+            }
+            channel.force(false);
+        }
+
+        Files.move(temporary, path, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    /**
+     * Restore a simulator to a checkpoint, replacing its population and contact graph with those of the checkpoint.
+     *
+     * @param simulator a simulator whose world has the same locations as the one the checkpoint was written from
+     * @param path the path of the checkpoint file
+     * @throws NullPointerException if any of the given parameters are null
+     * @throws IOException if the file cannot be read, is not a checkpoint of the current version or does not fit
+     *                     the simulator's world
+     */
+    public static void read(Simulator simulator, Path path) throws IOException {
+        Objects.requireNonNull(simulator, Error.getNullMsg("simulator"));
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+
+        restore(simulator, body(path), false);
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Save the state of a simulator into an uncompressed checkpoint body.
+     *
+     * @param simulator a simulator
+     * @return the body, at position 0
+     */
+    static ByteBuffer save(Simulator simulator) {
+        World world = simulator.getWorld();
+        List<Location> locations = world.getLocations();
+        ContactGraph contactGraph = world.getContactGraph();
+
+        List<Human> humans = new ArrayList<>();
+        locations.forEach(location -> humans.addAll(location.getPopulation()));
+
+        Map<Human, Integer> records = new HashMap<>();
+        for (int i = 0; i < humans.size(); i++) {
+            records.put(humans.get(i), i);
+        }
+
+        List<Human> nodes = contactGraph == null ? List.of() : contactGraph.getHumans();
+        for (Human node : nodes) {
+            if (!records.containsKey(node)) {
+                records.put(node, humans.size());
+                humans.add(node);
+            }
+        }
+
+        byte[] random = Probability.getState(simulator.getRandom());
+        double[] compartments = simulator.getCompartments().getState();
+        int graphSize = contactGraph == null ? 4
+                : 4 + 4 * nodes.size() + 4 + 4 * (nodes.size() + 1) + 4 * contactGraph.getEdgeCount();
+
+        int exposuresSize = 0;
+        for (Location location : locations) {
+            exposuresSize += 8 + 4 + (8 + 3 * 8) * location.getExposure().getKeys().length;
+        }
+
+        ContactHistory contactHistory = world.getContactHistory();
+        List<Human> users = new ArrayList<>(contactHistory.getUsers());
+        users.removeIf(user -> !records.containsKey(user));
+
+        int historySize = 4;
+        for (Human user : users) {
+            historySize += 4 + 4 + (4 + 8) * contactHistory.getKeys(user).length;
+        }
+
+        StrainRegistry strains = simulator.getStrains();
+        int strainsSize = 4 + STRAIN_SIZE * (strains.size() - 1);
+
+        ByteBuffer body = ByteBuffer.allocate(8 + 4 + random.length + 4 + 8 * compartments.length + 4 + 4
+                + RECORD_SIZE * humans.size() + graphSize + strainsSize + exposuresSize + historySize);
+
+        body.putDouble(world.getTotalElapsedSeconds());
+        body.putInt(random.length).put(random);
+        body.putInt(compartments.length);
+        for (double compartment : compartments) {
+            body.putDouble(compartment);
+        }
+
+        body.putInt(strains.size());
+        for (int strain = StrainRegistry.ANCESTOR + 1; strain < strains.size(); strain++) {
+            body.putInt(strains.getParent(strain))
+                    .putDouble(strains.getLifespan(strain))
+                    .putDouble(strains.getTransmissionRisk(strain))
+                    .putDouble(strains.getFatalityRate(strain))
+                    .putDouble(strains.getImmunityRate(strain))
+                    .putDouble(strains.getImmunityDuration(strain));
+        }
+
+        body.putInt(locations.size()).putInt(humans.size());
+        for (Human human : humans) {
+            Model model = human.getModel();
+            Location origin = world.getOrigin(human);
+
+            body.putInt(human.getId())
+                    .putInt(human.getLocation() == null ? NONE : locations.indexOf(human.getLocation()))
+                    .putInt(origin == null ? NONE : locations.indexOf(origin))
+                    .putDouble(model.getCenterX())
+                    .putDouble(model.getCenterY())
+                    .putDouble(model.getPreviousX())
+                    .putDouble(model.getPreviousY())
+                    .putDouble(model.getVelocity().getX())
+                    .putDouble(model.getVelocity().getY())
+                    .put((byte) model.getBehaviour().ordinal())
+                    .put((byte) human.getStatus().ordinal())
+                    .putDouble(human.isSick() ? human.getPathogen().getLifetime() : Double.NaN)
+                    .putInt(human.isSick() ? human.getPathogen().getStrain() : StrainRegistry.NONE);
+
+            ImmuneSystem immuneSystem = human.getImmuneSystem();
+            for (int i = 0; i < ImmuneSystem.MEMORY_SIZE; i++) {
+                boolean isRemembered = i < immuneSystem.getCount();
+                body.putInt(isRemembered ? immuneSystem.getStrain(i) : StrainRegistry.NONE)
+                        .putDouble(isRemembered ? immuneSystem.getImmunityDuration(i) : 0);
+            }
+
+            for (Purpose purpose : Purpose.values()) {
+                body.putLong(human.getDraws(purpose));
+            }
+        }
+
+        if (contactGraph == null) {
+            body.putInt(NONE);
+        } else {
+            body.putInt(nodes.size());
+            nodes.forEach(node -> body.putInt(records.get(node)));
+            body.putInt(contactGraph.getEdgeCount());
+            for (int offset : contactGraph.getOffsets()) {
+                body.putInt(offset);
+            }
+            for (int target : contactGraph.getTargets()) {
+                body.putInt(target);
+            }
+        }
+
+        for (Location location : locations) {
+            Exposure exposure = location.getExposure();
+            long[] keys = exposure.getKeys();
+            body.putDouble(exposure.getTime()).putInt(keys.length);
+            for (long key : keys) {
+                body.putLong(key);
+            }
+            for (double dose : exposure.getDoses()) {
+                body.putDouble(dose);
+            }
+            for (double threshold : exposure.getThresholds()) {
+                body.putDouble(threshold);
+            }
+            for (double seen : exposure.getSeen()) {
+                body.putDouble(seen);
+            }
+        }
+
+        body.putInt(users.size());
+        for (Human user : users) {
+            int[] keys = contactHistory.getKeys(user);
+            body.putInt(records.get(user)).putInt(keys.length);
+            for (int key : keys) {
+                body.putInt(key);
+            }
+            for (double time : contactHistory.getTimes(user)) {
+                body.putDouble(time);
+            }
+        }
+
+        return body.flip();
+    }
+
+    /**
+     * Restore a simulator to a checkpoint body, replacing its population and contact graph with those of the body.
+     * The simulator is given the random generator of the body, so it continues with the same draws as when the body
+     * was saved, after any behaviours drawn again. The whole body is read before the simulator is changed, so a
+     * corrupt body leaves it as it was.
+     *
+     * @param simulator a simulator whose world has the same locations as the one the body was saved from
+     * @param body a checkpoint body at its start
+     * @param redraw whether the behaviours of the humans are drawn again from the simulator's behaviour distribution
+     * @throws IOException if the body is corrupt or does not fit the simulator's world
+     */
+    static void restore(Simulator simulator, ByteBuffer body, boolean redraw) throws IOException {
+        try {
+            World world = simulator.getWorld();
+            List<Location> locations = world.getLocations();
+
+            double time = body.getDouble();
+            byte[] random = new byte[body.getInt()];
+            body.get(random);
+            double[] compartments = new double[body.getInt()];
+            for (int i = 0; i < compartments.length; i++) {
+                compartments[i] = body.getDouble();
+            }
+
+            StrainRegistry strains = new StrainRegistry(simulator.getPathogen());
+            int strainCount = body.getInt();
+            for (int strain = StrainRegistry.ANCESTOR + 1; strain < strainCount; strain++) {
+                strains.add(body.getInt(), body.getDouble(), body.getDouble(), body.getDouble(), body.getDouble(),
+                        body.getDouble());
+            }
+
+            if (body.getInt() != locations.size()) {
+                throw new IOException(Error.ERROR_TAG + " Given checkpoint is of a world with other locations.");
+            }
+
+            // The humans are created in a detached location, and only placed in the world once the body is read.
+            // Behaviours are redrawn with the generator of the body, so every restore of the body redraws the same
+            // behaviours. Otherwise the humans are created with a copy of it, since the draws made while creating them
+            // are overwritten by the records and must not be taken from the generator the simulator continues with.
+            RandomGenerator generator = Probability.fromState(random);
+            RandomGenerator previous = Probability.inUse();
+            Long previousSeed = Probability.inUseCommon();
+            Probability.use(redraw ? generator : Probability.fromState(random));
+            Probability.useCommon(simulator.getCommonSeed());
+
+            Location staging = new Location(Model.HUMAN_DIAMETER, Model.HUMAN_DIAMETER);
+            Record[] records = new Record[body.getInt()];
+            try {
+                for (int i = 0; i < records.length; i++) {
+                    records[i] = record(simulator, strains, staging, body, redraw);
+                }
+            } finally {
+                Probability.use(previous);
+                Probability.useCommon(previousSeed);
+            }
+
+            ContactGraph contactGraph = null;
+            int nodeCount = body.getInt();
+            if (nodeCount != NONE) {
+                List<Human> nodes = new ArrayList<>();
+                for (int i = 0; i < nodeCount; i++) {
+                    nodes.add(records[body.getInt()].human);
+                }
+
+                int[] offsets = new int[nodeCount + 1];
+                int[] targets = new int[body.getInt()];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = body.getInt();
+                }
+                for (int i = 0; i < targets.length; i++) {
+                    targets[i] = body.getInt();
+                }
+
+                contactGraph = new ContactGraph(nodes, offsets, targets);
+            }
+
+            double[] exposureTimes = new double[locations.size()];
+            long[][] exposureKeys = new long[locations.size()][];
+            double[][] doses = new double[locations.size()][];
+            double[][] thresholds = new double[locations.size()][];
+            double[][] seen = new double[locations.size()][];
+            for (int i = 0; i < locations.size(); i++) {
+                exposureTimes[i] = body.getDouble();
+                Error.nonNegativeCheck(exposureTimes[i]);
+                int capacity = capacity(body);
+                exposureKeys[i] = new long[capacity];
+                doses[i] = new double[capacity];
+                thresholds[i] = new double[capacity];
+                seen[i] = new double[capacity];
+                for (int slot = 0; slot < capacity; slot++) {
+                    exposureKeys[i][slot] = body.getLong();
+                }
+                for (int slot = 0; slot < capacity; slot++) {
+                    doses[i][slot] = body.getDouble();
+                }
+                for (int slot = 0; slot < capacity; slot++) {
+                    thresholds[i][slot] = body.getDouble();
+                }
+                for (int slot = 0; slot < capacity; slot++) {
+                    seen[i][slot] = body.getDouble();
+                }
+            }
+
+            Human[] users = new Human[body.getInt()];
+            int[][] contactKeys = new int[users.length][];
+            double[][] contactTimes = new double[users.length][];
+            for (int i = 0; i < users.length; i++) {
+                users[i] = records[body.getInt()].human;
+                int capacity = capacity(body);
+                contactKeys[i] = new int[capacity];
+                contactTimes[i] = new double[capacity];
+                for (int slot = 0; slot < capacity; slot++) {
+                    contactKeys[i][slot] = body.getInt();
+                }
+                for (int slot = 0; slot < capacity; slot++) {
+                    contactTimes[i][slot] = body.getDouble();
+                }
+            }
+
+            Error.nonNegativeCheck(time);
+            int dimension = simulator.getCompartments().getDimension();
+            Error.intervalCheck("compartment count", dimension, dimension, compartments.length);
+
+            simulator.getStrains().clear();
+            for (int strain = StrainRegistry.ANCESTOR + 1; strain < strains.size(); strain++) {
+                simulator.getStrains().add(strains.getParent(strain), strains.getLifespan(strain),
+                        strains.getTransmissionRisk(strain), strains.getFatalityRate(strain),
+                        strains.getImmunityRate(strain), strains.getImmunityDuration(strain));
+            }
+
+            locations.forEach(location -> new ArrayList<>(location.getPopulation())
+                    .forEach(human -> human.setLocation(null)));
+
+            // Entering a location places a human at random, drawing from the generator in use, so the humans are put
+            // back where they were afterwards, and the draws are taken from another copy of the body's generator.
+            Probability.use(Probability.fromState(random));
+            Probability.useCommon(simulator.getCommonSeed());
+            try {
+                for (Record record : records) {
+                    record.place();
+
+                    if (record.origin != null) {
+                        world.setOrigin(record.human, record.origin);
+                    }
+                }
+            } finally {
+                Probability.use(previous);
+                Probability.useCommon(previousSeed);
+            }
+
+            world.setContactGraph(contactGraph);
+            world.setTotalElapsedSeconds(time);
+            for (int i = 0; i < locations.size(); i++) {
+                locations.get(i).getExposure().setState(exposureTimes[i], exposureKeys[i], doses[i], thresholds[i],
+                        seen[i]);
+            }
+
+            ContactHistory contactHistory = world.getContactHistory();
+            contactHistory.clear();
+            for (int i = 0; i < users.length; i++) {
+                contactHistory.setContacts(users[i], contactKeys[i], contactTimes[i]);
+            }
+
+            simulator.getCompartments().setState(compartments);
+            simulator.getStatistics().update();
+            simulator.setRandom(generator);
+        } catch (RuntimeException e) {
+            throw new IOException(Error.ERROR_TAG + " Given checkpoint is corrupt.", e);
+        }
+    }
+
+    /**
+     * Read the next record of a checkpoint body, creating its human in a detached location.
+     *
+     * @param simulator the simulator being restored
+     * @param strains the strains of the body
+     * @param staging the detached location the human is created in
+     * @param body a checkpoint body at a record
+     * @param redraw whether the behaviour of the human is drawn again from the simulator's behaviour distribution
+     * @return the record
+     * @throws IOException if the record is invalid
+     */
+    private static Record record(Simulator simulator, StrainRegistry strains, Location staging, ByteBuffer body,
+                                 boolean redraw) throws IOException {
+        List<Location> locations = simulator.getWorld().getLocations();
+
+        int id = body.getInt();
+        int location = body.getInt();
+        int origin = body.getInt();
+        double x = body.getDouble();
+        double y = body.getDouble();
+        double previousX = body.getDouble();
+        double previousY = body.getDouble();
+        double velocityX = body.getDouble();
+        double velocityY = body.getDouble();
+        Behaviour saved = constant(BEHAVIOURS, body.get());
+        constant(STATUSES, body.get());
+        double lifetime = body.getDouble();
+        int strain = body.getInt();
+        int[] memory = new int[ImmuneSystem.MEMORY_SIZE];
+        double[] immunity = new double[ImmuneSystem.MEMORY_SIZE];
+        for (int i = 0; i < memory.length; i++) {
+            memory[i] = body.getInt();
+            immunity[i] = body.getDouble();
+        }
+        long[] draws = new long[Purpose.values().length];
+        for (int i = 0; i < draws.length; i++) {
+            draws[i] = body.getLong();
+        }
+
+        Behaviour behaviour = redraw ? simulator.getBehaviourDistribution().sample() : saved;
+        Human human = new Human(staging, behaviour, id);
+
+        if (behaviour == saved) {
+            human.getModel().setVelocity(velocityX, velocityY);
+        }
+
+        if (!Double.isNaN(lifetime)) {
+            human.setPathogen(strain == StrainRegistry.ANCESTOR ? simulator.getPathogen().copy()
+                    : strains.create(strain));
+            human.getPathogen().setLifetime(lifetime);
+        }
+
+        for (int i = 0; i < memory.length; i++) {
+            human.getImmuneSystem().remember(memory[i], immunity[i]);
+        }
+        human.status();
+        human.getModel().fill();
+
+        return new Record(human, location == NONE ? null : locations.get(location),
+                origin == NONE ? null : locations.get(origin), x, y, previousX, previousY, draws);
+    }
+
+    /**
+     * Read the number of slots of a table from a checkpoint body.
+     *
+     * @param body a checkpoint body at a table
+     * @return the number of slots
+     * @throws IOException if the number of slots is not a power of two
+     */
+    private static int capacity(ByteBuffer body) throws IOException {
+        int capacity = body.getInt();
+
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IOException(Error.ERROR_TAG + " Given checkpoint has an invalid table size: " + capacity);
+        }
+
+        return capacity;
+    }
+
+    /**
+     * Read the body of a checkpoint file, inflating it if it is compressed.
+     *
+     * @param path the path of the checkpoint file
+     * @return the body
+     * @throws IOException if the file cannot be read or is not a checkpoint of the current version
+     */
+    private static ByteBuffer body(Path path) throws IOException {
+        ByteBuffer file;
+
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(Error.ERROR_TAG + " Given file is not a checkpoint.");
+            }
+
+            file = ByteBuffer.allocate((int) channel.size());
+            while (file.hasRemaining()) {
+                if (channel.read(file) < 0) {
+                    throw new IOException(Error.ERROR_TAG + " Given checkpoint ended early.");
+                }
+            }
+        }
+
+        file.flip();
+
+        if (file.getInt() != MAGIC) {
+            throw new IOException(Error.ERROR_TAG + " Given file is not a checkpoint.");
+        }
+
+        int version = file.getInt();
+        if (version != VERSION) {
+            throw new IOException(Error.ERROR_TAG + " Given checkpoint version is not supported: " + version);
+        }
+
+        boolean isCompressed = (file.getInt() & COMPRESSED) != 0;
+        int size = file.getInt();
+
+        if (!isCompressed) {
+            return file.slice();
+        }
+
+        return ByteBuffer.wrap(inflate(file.array(), file.position(), file.remaining(), size));
+    }
+
+    /**
+     * Inflate a deflated checkpoint body.
+     *
+     * @param data the array with the deflated body
+     * @param offset the position of the deflated body in the array
+     * @param length the size of the deflated body in bytes
+     * @param size the size of the inflated body in bytes
+     * @return the body
+     * @throws IOException if the deflated body is corrupt or shorter than the given size
+     */
+    static byte[] inflate(byte[] data, int offset, int length, int size) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] body = new byte[size];
+            int inflated = 0;
+
+            while (inflated < size && !inflater.finished()) {
+                int count = inflater.inflate(body, inflated, size - inflated);
+
+                if (count == 0 && inflater.needsInput()) {
+                    break;
+                }
+
+                inflated += count;
+            }
+
+            if (inflated != size) {
+                throw new IOException(Error.ERROR_TAG + " Given checkpoint ended early.");
+            }
+
+            return body;
+        } catch (DataFormatException e) {
+            throw new IOException(Error.ERROR_TAG + " Given checkpoint is corrupt.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Deflate a checkpoint body.
+     *
+     * @param body a checkpoint body
+     * @return the deflated body
+     */
+    static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Get the enum constant of an ordinal from a record.
+     *
+     * @param constants the constants of the enum
+     * @param ordinal an ordinal
+     * @param <T> the enum
+     * @return the constant of the ordinal
+     * @throws IOException if the ordinal is not of a constant
+     */
+    private static <T extends Enum<T>> T constant(T[] constants, byte ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= constants.length) {
+            throw new IOException(Error.ERROR_TAG + " Given checkpoint has an invalid ordinal: " + ordinal);
+        }
+
+        return constants[ordinal];
+    }
+
+    /**
+     * A human read from a checkpoint body, with where it is placed once the whole body is read.
+     */
+    private static class Record {
+
+        /** The human, in a detached location until it is placed.*/
+        private final Human human;
+
+        /** The location of the human, or null if the human is deceased.*/
+        private final Location location;
+
+        /** The district the human is sent back to from the quarantine, or null if none.*/
+        private final Location origin;
+
+        /** The horizontal position of the human.*/
+        private final double x;
+
+        /** The vertical position of the human.*/
+        private final double y;
+
+        /** The horizontal position of the human before their last move.*/
+        private final double previousX;
+
+        /** The vertical position of the human before their last move.*/
+        private final double previousY;
+
+        /** The number of draws made for the human, by purpose.*/
+        private final long[] draws;
+
+        /**
+         * Create a record.
+         *
+         * @param human the human, in a detached location
+         * @param location the location of the human, or null if the human is deceased
+         * @param origin the district the human is sent back to from the quarantine, or null if none
+         * @param x the horizontal position of the human
+         * @param y the vertical position of the human
+         * @param previousX the horizontal position of the human before their last move
+         * @param previousY the vertical position of the human before their last move
+         * @param draws the number of draws made for the human, by purpose
+         */
+        private Record(Human human, Location location, Location origin, double x, double y, double previousX,
+                       double previousY, long[] draws) {
+            this.human = human;
+            this.location = location;
+            this.origin = origin;
+            this.x = x;
+            this.y = y;
+            this.previousX = previousX;
+            this.previousY = previousY;
+            this.draws = draws;
+        }
+
+        /**
+         * Move the human to their location, and put them back at their position and number of draws, which entering
+         * the location changes.
+         */
+        private void place() {
+            human.setLocation(location);
+            human.getModel().place(previousX, previousY);
+            human.getModel().moveTo(x, y);
+
+            for (Purpose purpose : Purpose.values()) {
+                human.setDraws(purpose, draws[purpose.ordinal()]);
+            }
+        }
+
+    }
+
+}
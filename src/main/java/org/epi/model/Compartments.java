@@ -0,0 +1,504 @@
+package org.epi.model;
+
+import org.epi.model.human.Pathogen;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+import org.epi.util.Probability;
+
+import org.apache.commons.math3.distribution.BinomialDistribution;
+import org.apache.commons.math3.distribution.PoissonDistribution;
+import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math3.ode.FirstOrderIntegrator;
+import org.apache.commons.math3.ode.nonstiff.DormandPrince54Integrator;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A SEIR model of a world's population, used as an alternative to simulating every human.
+ *
+ * The population is split into susceptible, exposed, infectious, quarantined, recovered and deceased compartments.
+ * Susceptible humans are infected at a rate given by the transmission risk per second of contact and the chance that a
+ * sick human is within the contact area of a susceptible human in the districts, as in mean-field transmission.
+ * Sick humans are detected by testing and quarantined until their pathogen dies. When a pathogen dies the host dies,
+ * becomes immune or becomes susceptible again, as in {@link Pathogen#live(double)}.
+ *
+ * The compartments can either be integrated deterministically, or sampled stochastically as whole humans, which
+ * captures the pathogen dying out by chance early in an outbreak. Stochastic sampling tests periodically as in
+ * {@link World#live(double)} rather than at a continuous detection rate.
+ *
+ * The humans are assumed to be spread evenly over the districts, so the infection rate does not account for humans
+ * clustering or keeping their distance.
+ */
+public class Compartments implements FirstOrderDifferentialEquations {
+
+    /** The index of the susceptible compartment.*/
+    public static final int SUSCEPTIBLE = 0;
+    /** The index of the exposed compartment.*/
+    public static final int EXPOSED = 1;
+    /** The index of the infectious compartment.*/
+    public static final int INFECTIOUS = 2;
+    /** The index of the quarantined compartment.*/
+    public static final int QUARANTINED = 3;
+    /** The index of the recovered compartment.*/
+    public static final int RECOVERED = 4;
+    /** The index of the deceased compartment.*/
+    public static final int DECEASED = 5;
+
+    /** The number of compartments.*/
+    private static final int DIMENSION = 6;
+
+    /** The compartment each stochastic transition moves a human from, by transition index.
+     * The transitions are infection, onset, the end of a pathogen in an infectious or quarantined human by death,
+     * immunity or susceptibility, and the loss of immunity.*/
+    private static final int[] SOURCES = {SUSCEPTIBLE, EXPOSED,
+            INFECTIOUS, INFECTIOUS, INFECTIOUS, QUARANTINED, QUARANTINED, QUARANTINED, RECOVERED};
+    /** The compartment each stochastic transition moves a human to, by transition index.*/
+    private static final int[] TARGETS = {EXPOSED, INFECTIOUS,
+            DECEASED, RECOVERED, SUSCEPTIBLE, DECEASED, RECOVERED, SUSCEPTIBLE, SUSCEPTIBLE};
+
+    /** The largest living population that is sampled one transition at a time.
+     * Larger populations, which a world does not hold but compartments can be created for with
+     * {@link #Compartments(World, BehaviourDistribution, Pathogen, int, int)}, are sampled with tau-leaping.*/
+    public static final int EXACT_LIMIT = 1000;
+    /** The largest expected change, and standard deviation of the change, of a compartment in a tau-leap as a
+     * fraction of the compartment, or of one human if that is more.*/
+    private static final double LEAP_FRACTION = 0.03;
+    /** The fewest expected transitions in a tau-leap, below which a single transition is sampled exactly instead.*/
+    private static final double MIN_LEAP_TRANSITIONS = 10;
+
+    /** The absolute tolerance of the integrator in humans.*/
+    private static final double ABSOLUTE_TOLERANCE = 1e-6;
+    /** The relative tolerance of the integrator.*/
+    private static final double RELATIVE_TOLERANCE = 1e-6;
+
+    /** The integrator for the compartments.*/
+    private final FirstOrderIntegrator integrator;
+
+    /** The number of humans in each compartment.*/
+    private final double[] state;
+
+    /** The rate at which a sick human infects each susceptible human per second, i.e., the rate of transmissions
+     * per second of contact times the chance that the two are in contact.*/
+    private final double infectionRate;
+
+    /** The rate at which sick humans stop being sick per second.*/
+    private final double recoveryRate;
+
+    /** The probability that a human dies when their pathogen dies.*/
+    private final double fatalityRate;
+
+    /** The probability that a surviving human becomes immune.*/
+    private final double immunityRate;
+
+    /** The rate at which immune humans lose their immunity per second.*/
+    private final double immunityLossRate;
+
+    /** The rate at which infectious humans are detected by testing per second.*/
+    private final double detectionRate;
+
+    /** The probability of an infectious human being detected in a testing.*/
+    private final double detectionProbability;
+
+    /** The maximum number of humans in quarantine.*/
+    private final double quarantineCapacity;
+
+    /** The incubation period of the pathogen in seconds, or 0 if the infected are infectious at once.*/
+    private final DoubleProperty incubationPeriod;
+
+    /** The random generator for stochastic sampling.*/
+    private final RandomGenerator random;
+
+    /** The rate of each stochastic transition per second, by transition index.*/
+    private final double[] propensities;
+
+    /** The expected change of each compartment per second, by compartment index.*/
+    private final double[] drifts;
+
+    /** The variance of the change of each compartment per second, by compartment index.*/
+    private final double[] variances;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create compartments for a world, where the sick total of the world starts infectious.
+     *
+     * @param world a world
+     * @param behaviourDistribution the distribution of behaviours in the population
+     * @param pathogen the simulated pathogen
+     * @throws NullPointerException if the given parameters are null
+     */
+    public Compartments(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen) {
+        this(world, behaviourDistribution, pathogen, Objects.requireNonNull(world, Error.getNullMsg("world"))
+                .getPopulationTotal(), world.getSickTotal());
+    }
+
+    /**
+     * Create compartments for the given number of humans in a world scaled to hold them, where the given number of
+     * sick humans start infectious. The districts and the quarantine of the world are scaled by the ratio of the
+     * given population total to the world's, so that the density of the humans and the share of them that fits in
+     * quarantine are those of the world. This allows populations larger than {@value World#MAX_POPULATION}.
+     *
+     * @param world a world
+     * @param behaviourDistribution the distribution of behaviours in the population
+     * @param pathogen the simulated pathogen
+     * @param populationTotal the number of humans
+     * @param sickTotal the number of humans that start infectious
+     * @throws NullPointerException if the given parameters are null
+     * @throws IllegalArgumentException if the population total is not positive, or if the sick total is negative or
+     *                                  larger than the population total
+     */
+    public Compartments(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen,
+                        int populationTotal, int sickTotal) {
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+        Objects.requireNonNull(behaviourDistribution, Error.getNullMsg("behaviour distribution"));
+        Objects.requireNonNull(pathogen, Error.getNullMsg("pathogen"));
+        Error.intervalCheck("population total", 1, Integer.MAX_VALUE, populationTotal);
+        Error.intervalCheck("sick total", 0, populationTotal, sickTotal);
+
+        this.integrator = new DormandPrince54Integrator(Stepper.MIN_STEP / 10, Stepper.MAX_STEP,
+                ABSOLUTE_TOLERANCE, RELATIVE_TOLERANCE);
+
+        this.state = new double[DIMENSION];
+        this.state[SUSCEPTIBLE] = populationTotal - sickTotal;
+        this.state[INFECTIOUS] = sickTotal;
+
+        double scale = (double) populationTotal / world.getPopulationTotal();
+        double area = scale * world.getDistricts().stream()
+                .mapToDouble(district -> district.getArea().getPrefWidth() * district.getArea().getPrefHeight())
+                .sum();
+
+        this.infectionRate = -Math.log1p(-pathogen.getTransmissionRisk()) * Transmission.CONTACT_AREA / area;
+        this.recoveryRate = 1 / Math.max(pathogen.getLifespan(), Stepper.MIN_STEP);
+        this.fatalityRate = pathogen.getFatalityRate();
+        this.immunityRate = pathogen.getImmunityDuration() > 0 ? pathogen.getImmunityRate() : 0;
+        this.immunityLossRate = 1 / Math.max(pathogen.getImmunityDuration(), Stepper.MIN_STEP);
+        this.detectionRate = world.getDetectionRate() / Math.max(world.getTestingFrequency(), Stepper.MIN_STEP);
+        this.detectionProbability = world.getDetectionRate();
+        this.quarantineCapacity = Math.round(scale * world.getQuarantineCapacity());
+        this.incubationPeriod = new SimpleDoubleProperty(0);
+        this.random = Probability.getRandom();
+        this.propensities = new double[SOURCES.length];
+        this.drifts = new double[DIMENSION];
+        this.variances = new double[DIMENSION];
+    }
+
+    //---------------------------- Simulator actions ----------------------------
+
+    /**
+     * Integrate the compartments over the given number of seconds.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since the compartments were last updated
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void integrate(double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
+
+        if (elapsedSeconds > 0) {
+            integrator.integrate(this, 0, state, elapsedSeconds, state);
+        }
+    }
+
+    /**
+     * Sample the transitions of whole humans between the compartments over the given number of seconds.
+     * Populations of up to {@value EXACT_LIMIT} living humans are sampled exactly one transition at a time, and larger
+     * populations are sampled with tau-leaping, drawing the number of each transition in a leap from a Poisson
+     * distribution. A leap falls back to a single exact transition when too few transitions are expected in it.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since the compartments were last updated
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void sample(double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
+
+        double time = 0;
+
+        while (time < elapsedSeconds) {
+            double total = computePropensities();
+
+            if (total == 0) {
+                return;
+            }
+
+            double leap = getLiving() > EXACT_LIMIT ? computeLeap(elapsedSeconds - time) : 0;
+
+            if (leap * total < MIN_LEAP_TRANSITIONS) {
+                time += -Math.log(1 - random.nextDouble()) / total;
+
+                if (time < elapsedSeconds) {
+                    transition(pick(total), 1);
+                }
+            } else {
+                for (int i = 0; i < propensities.length; i++) {
+                    if (propensities[i] > 0) {
+                        transition(i, poisson(propensities[i] * leap));
+                    }
+                }
+
+                time += leap;
+            }
+        }
+    }
+
+    /**
+     * Test the infectious humans as in {@link World#live(double)}, sending those detected to the quarantine
+     * until it is full.
+     */
+    public void test() {
+        double space = Math.max(0, quarantineCapacity - state[QUARANTINED]);
+
+        if (state[INFECTIOUS] == 0 || space == 0) {
+            return;
+        }
+
+        int detected = new BinomialDistribution(random, (int) state[INFECTIOUS], detectionProbability).sample();
+        double quarantined = Math.min(detected, space);
+
+        state[INFECTIOUS] -= quarantined;
+        state[QUARANTINED] += quarantined;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getDimension() {
+        return DIMENSION;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Quarantined humans do not infect the districts, and the quarantine fills more slowly as it reaches capacity.
+     */
+    @Override
+    public void computeDerivatives(double t, double[] y, double[] yDot) {
+        double infections = infectionRate * y[INFECTIOUS] * y[SUSCEPTIBLE];
+        double onset = incubationPeriod.get() > 0 ? y[EXPOSED] / incubationPeriod.get() : infections;
+        double space = quarantineCapacity > 0 ? Math.max(0, 1 - y[QUARANTINED] / quarantineCapacity) : 0;
+        double detections = detectionRate * space * y[INFECTIOUS];
+
+        double infectiousEnd = recoveryRate * y[INFECTIOUS];
+        double quarantinedEnd = recoveryRate * y[QUARANTINED];
+        double ends = infectiousEnd + quarantinedEnd;
+        double immunityLoss = immunityLossRate * y[RECOVERED];
+
+        yDot[SUSCEPTIBLE] = -infections + (1 - fatalityRate) * (1 - immunityRate) * ends + immunityLoss;
+        yDot[EXPOSED] = incubationPeriod.get() > 0 ? infections - onset : 0;
+        yDot[INFECTIOUS] = onset - detections - infectiousEnd;
+        yDot[QUARANTINED] = detections - quarantinedEnd;
+        yDot[RECOVERED] = (1 - fatalityRate) * immunityRate * ends - immunityLoss;
+        yDot[DECEASED] = fatalityRate * ends;
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Compute the rate of each stochastic transition from the current compartments.
+     *
+     * @return the total rate of all transitions per second
+     */
+    private double computePropensities() {
+        double survival = 1 - fatalityRate;
+
+        propensities[0] = infectionRate * state[INFECTIOUS] * state[SUSCEPTIBLE];
+        propensities[1] = incubationPeriod.get() > 0 ? state[EXPOSED] / incubationPeriod.get() : 0;
+
+        for (int i = 0; i < 2; i++) {
+            double sick = state[i == 0 ? INFECTIOUS : QUARANTINED];
+            propensities[2 + 3 * i] = recoveryRate * fatalityRate * sick;
+            propensities[3 + 3 * i] = recoveryRate * survival * immunityRate * sick;
+            propensities[4 + 3 * i] = recoveryRate * survival * (1 - immunityRate) * sick;
+        }
+
+        propensities[8] = immunityLossRate * state[RECOVERED];
+
+        double total = 0;
+        for (double propensity : propensities) {
+            total += propensity;
+        }
+        return total;
+    }
+
+    /**
+     * Compute the length of a tau-leap from the current rates, such that the expected change and the standard
+     * deviation of the change of every compartment are at most {@value LEAP_FRACTION} of the compartment, or of one
+     * human if that is more, as in the step size selection of Cao, Gillespie and Petzold.
+     *
+     * @param remainingSeconds the number of seconds left to sample
+     * @return the length of the leap in seconds, at most the remaining seconds
+     */
+    private double computeLeap(double remainingSeconds) {
+        Arrays.fill(drifts, 0);
+        Arrays.fill(variances, 0);
+
+        for (int i = 0; i < propensities.length; i++) {
+            drifts[SOURCES[i]] -= propensities[i];
+            drifts[getTarget(i)] += propensities[i];
+            variances[SOURCES[i]] += propensities[i];
+            variances[getTarget(i)] += propensities[i];
+        }
+
+        double leap = remainingSeconds;
+
+        for (int i = 0; i < DIMENSION; i++) {
+            double bound = Math.max(LEAP_FRACTION * state[i], 1);
+
+            if (drifts[i] != 0) {
+                leap = Math.min(leap, bound / Math.abs(drifts[i]));
+            }
+            if (variances[i] > 0) {
+                leap = Math.min(leap, bound * bound / variances[i]);
+            }
+        }
+
+        return leap;
+    }
+
+    /**
+     * Draw a Poisson number with the given mean from the random generator. Large means are drawn by rejection in
+     * constant time, so the cost of a tau-leap does not grow with the population.
+     *
+     * @param mean the mean of the draw
+     * @return the number drawn, or 0 if the mean is not positive
+     */
+    private int poisson(double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+
+        return new PoissonDistribution(random, mean, PoissonDistribution.DEFAULT_EPSILON,
+                PoissonDistribution.DEFAULT_MAX_ITERATIONS).sample();
+    }
+
+    /**
+     * Pick a transition with probability proportional to its rate.
+     *
+     * @param total the total rate of all transitions per second
+     * @return the index of the transition
+     */
+    private int pick(double total) {
+        double threshold = random.nextDouble() * total;
+        int last = 0;
+
+        for (int i = 0; i < propensities.length; i++) {
+            if (propensities[i] > 0) {
+                last = i;
+                threshold -= propensities[i];
+
+                if (threshold < 0) {
+                    return i;
+                }
+            }
+        }
+
+        return last;
+    }
+
+    /**
+     * Move humans between the compartments of a transition, without moving more humans than are in the source.
+     *
+     * @param transition the index of the transition
+     * @param count the number of humans to move
+     */
+    private void transition(int transition, double count) {
+        int source = SOURCES[transition];
+        int target = getTarget(transition);
+        double moved = Math.min(count, state[source]);
+
+        state[source] -= moved;
+        state[target] += moved;
+    }
+
+    /**
+     * Get the compartment a transition moves humans to. Infected humans are infectious at once if there is no
+     * incubation period.
+     *
+     * @param transition the index of the transition
+     * @return the index of the target compartment
+     */
+    private int getTarget(int transition) {
+        return TARGETS[transition] == EXPOSED && incubationPeriod.get() == 0 ? INFECTIOUS : TARGETS[transition];
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Get the number of humans in a compartment.
+     *
+     * @param compartment the index of a compartment, i.e., {@link #SUSCEPTIBLE} or {@link #INFECTIOUS} etc.
+     * @return the number of humans in the compartment
+     * @throws IndexOutOfBoundsException if the given index is not a compartment
+     */
+    public double get(int compartment) {
+        return state[compartment];
+    }
+
+    /**
+     * Get the number of humans in every compartment.
+     *
+     * @return a copy of the compartments, by compartment index
+     */
+    public double[] getState() {
+        return state.clone();
+    }
+
+    /**
+     * Set the number of humans in every compartment.
+     *
+     * @param state the compartments, by compartment index
+     * @throws NullPointerException if the given state is null
+     * @throws IllegalArgumentException if the given state does not have {@value DIMENSION} compartments
+     */
+    public void setState(double[] state) {
+        Objects.requireNonNull(state, Error.getNullMsg("state"));
+        Error.intervalCheck("compartment count", DIMENSION, DIMENSION, state.length);
+        System.arraycopy(state, 0, this.state, 0, DIMENSION);
+    }
+
+    /**
+     * Get the number of sick humans, i.e., those exposed, infectious or quarantined.
+     *
+     * @return the number of sick humans
+     */
+    public double getSick() {
+        return state[EXPOSED] + state[INFECTIOUS] + state[QUARANTINED];
+    }
+
+    /**
+     * Get the number of living humans, i.e., those in any compartment but {@link #DECEASED}.
+     *
+     * @return the number of living humans
+     */
+    public double getLiving() {
+        return state[SUSCEPTIBLE] + getSick() + state[RECOVERED];
+    }
+
+    /**
+     * Getter for {@link #incubationPeriod}.
+     *
+     * @return {@link #incubationPeriod}
+     */
+    public double getIncubationPeriod() {
+        return incubationPeriod.get();
+    }
+
+    /**
+     * Setter for {@link #incubationPeriod}. The humans already exposed become infectious at once if set to 0.
+     *
+     * @param incubationPeriod {@link #incubationPeriod}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setIncubationPeriod(double incubationPeriod) {
+        Error.nonNegativeCheck(incubationPeriod);
+
+        if (incubationPeriod == 0) {
+            state[INFECTIOUS] += state[EXPOSED];
+            state[EXPOSED] = 0;
+        }
+
+        this.incubationPeriod.set(incubationPeriod);
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.epi.model;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.SobolSequenceGenerator;
+
+/** The ways in which the design points of a parameter sweep are spread over the unit cube of its parameters.*/
+public enum Design {
+    GRID {
+
+        /**
+         * {@inheritDoc}
+         * Each parameter has the same number of levels, evenly spaced from 0 to 1, which is the most that keeps the
+         * number of points, the levels to the power of the dimensions, within the count. The first parameter varies
+         * slowest, and a single level is at 0.5.
+         */
+        @Override
+        public double[][] sample(int dimensions, int count, RandomGenerator random) {
+            int levels = dimensions > 0 ? (int) Math.pow(count, 1.0 / dimensions) : 1;
+            while (levels > 1 && power(levels, dimensions) > count) {
+                levels--;
+            }
+            while (dimensions > 0 && power(levels + 1, dimensions) <= count) {
+                levels++;
+            }
+
+            int total = (int) power(levels, dimensions);
+            double[][] points = new double[total][dimensions];
+
+            for (int point = 0; point < total; point++) {
+                int rest = point;
+
+                for (int dimension = dimensions - 1; dimension >= 0; dimension--) {
+                    int level = rest % levels;
+                    rest /= levels;
+                    points[point][dimension] = levels > 1 ? (double) level / (levels - 1) : 0.5;
+                }
+            }
+
+            return points;
+        }
+
+        /**
+         * Raise a number of levels to the power of the dimensions, stopping once it is larger than any count.
+         *
+         * @param levels the number of levels of each parameter
+         * @param dimensions the number of swept parameters
+         * @return the number of points of the grid, or a number larger than {@link Integer#MAX_VALUE} if there are more
+         */
+        private long power(int levels, int dimensions) {
+            long total = 1;
+
+            for (int dimension = 0; dimension < dimensions && total <= Integer.MAX_VALUE; dimension++) {
+                total *= levels;
+            }
+
+            return total;
+        }
+
+    },
+    LATIN_HYPERCUBE {
+
+        /**
+         * {@inheritDoc}
+         * Each parameter's range is split into count strata of equal width, and every stratum holds exactly one point,
+         * at a random position within it. The strata are matched up between the parameters by random permutations.
+         */
+        @Override
+        public double[][] sample(int dimensions, int count, RandomGenerator random) {
+            double[][] points = new double[count][dimensions];
+            int[] strata = new int[count];
+
+            for (int dimension = 0; dimension < dimensions; dimension++) {
+                for (int i = 0; i < count; i++) {
+                    strata[i] = i;
+                }
+
+                for (int i = count - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int stratum = strata[i];
+                    strata[i] = strata[j];
+                    strata[j] = stratum;
+                }
+
+                for (int point = 0; point < count; point++) {
+                    points[point][dimension] = (strata[point] + random.nextDouble()) / count;
+                }
+            }
+
+            return points;
+        }
+
+    },
+    SOBOL {
+
+        /**
+         * {@inheritDoc}
+         * The points are the first count points of a Sobol sequence after its origin, so they fill the unit cube
+         * evenly however many are taken. The random generator is not used.
+         */
+        @Override
+        public double[][] sample(int dimensions, int count, RandomGenerator random) {
+            SobolSequenceGenerator sequence = new SobolSequenceGenerator(dimensions);
+            sequence.skipTo(1);
+
+            double[][] points = new double[count][];
+            for (int point = 0; point < count; point++) {
+                points[point] = sequence.nextVector();
+            }
+
+            return points;
+        }
+
+    };
+
+    /**
+     * Sample the design points in the unit cube.
+     *
+     * @param dimensions the number of swept parameters
+     * @param count the number of points, of which a grid may use fewer to give every parameter the same levels
+     * @param random the random generator of the sweep
+     * @return the points, each with a coordinate from 0 to 1 per parameter
+     */
+    public abstract double[][] sample(int dimensions, int count, RandomGenerator random);
+
+}
@@ -0,0 +1,114 @@
+package org.epi.model;
+
+/** The ways in which a simulator can advance its world.*/
+public enum Engine {
+    AGENT {
+
+        /**
+         * {@inheritDoc}
+         * Every human is simulated, so the step is picked by the simulator's {@link Stepper}.
+         */
+        @Override
+        public double next(Simulator simulator) {
+            return simulator.getStepper().next();
+        }
+
+        /**
+         * {@inheritDoc}
+         * Every human lives, moves and spreads the pathogen in their location.
+         */
+        @Override
+        public void update(Simulator simulator, double elapsedSeconds) {
+            simulator.agents(elapsedSeconds);
+            simulator.getStatistics().update();
+        }
+
+    },
+    SEIR {
+
+        /**
+         * {@inheritDoc}
+         * The integrator refines its own steps, so the step only sets how often the statistics are recorded.
+         */
+        @Override
+        public double next(Simulator simulator) {
+            return Stepper.MAX_STEP;
+        }
+
+        /**
+         * {@inheritDoc}
+         * The humans of the world stand still, and the statistics follow the simulator's {@link Compartments}.
+         */
+        @Override
+        public void update(Simulator simulator, double elapsedSeconds) {
+            simulator.getCompartments().integrate(elapsedSeconds);
+            simulator.getWorld().elapse(elapsedSeconds);
+            record(simulator);
+        }
+
+    },
+    STOCHASTIC {
+
+        /**
+         * {@inheritDoc}
+         * The step never passes a testing, so that testing happens at the same times as in the world.
+         */
+        @Override
+        public double next(Simulator simulator) {
+            return Math.max(Math.min(Stepper.MAX_STEP, simulator.getWorld().getTimeToTest()), Stepper.MIN_STEP);
+        }
+
+        /**
+         * {@inheritDoc}
+         * The humans of the world stand still, and the statistics follow the simulator's {@link Compartments},
+         * which move whole humans at random.
+         */
+        @Override
+        public void update(Simulator simulator, double elapsedSeconds) {
+            Compartments compartments = simulator.getCompartments();
+            boolean isTesting = simulator.getWorld().isTesting(elapsedSeconds);
+
+            compartments.sample(elapsedSeconds);
+
+            if (isTesting) {
+                compartments.test();
+            }
+
+            simulator.getWorld().elapse(elapsedSeconds);
+            record(simulator);
+        }
+
+    };
+
+    /**
+     * Get the number of seconds for the next update of the given simulator.
+     *
+     * @param simulator a simulator using this engine
+     * @return the number of seconds for the next update
+     */
+    public abstract double next(Simulator simulator);
+
+    /**
+     * Advance the given simulator and record its statistics.
+     *
+     * @param simulator a simulator using this engine
+     * @param elapsedSeconds the number of seconds elapsed since the simulator was last updated
+     * @throws IllegalArgumentException if the given number of seconds is negative
+     */
+    public abstract void update(Simulator simulator, double elapsedSeconds);
+
+    /**
+     * Record the counts of the given simulator's {@link Compartments} in its statistics.
+     *
+     * @param simulator a simulator
+     */
+    private static void record(Simulator simulator) {
+        Compartments compartments = simulator.getCompartments();
+
+        int healthy = (int) Math.round(compartments.get(Compartments.SUSCEPTIBLE));
+        int sick = (int) Math.round(compartments.getSick());
+        int recovered = (int) Math.round(compartments.get(Compartments.RECOVERED));
+        simulator.getStatistics().record(healthy, sick, recovered);
+    }
+
+}
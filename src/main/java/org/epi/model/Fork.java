@@ -0,0 +1,166 @@
+package org.epi.model;
+
+import org.epi.model.world.World;
+import org.epi.util.Error;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Branches of a running simulation, for comparing interventions from the same state of an epidemic.
+ *
+ * The state of the simulation is saved once, when the fork is created, into a read-only checkpoint body that every
+ * branch is restored from, so forking does not depend on the number of branches. Each branch gets its own humans,
+ * since humans are mutable nodes of their location's view, and continues with the random draws of the simulation
+ * at the fork, so that the branches only differ by their interventions until they diverge. The branches are headless,
+ * i.e., they have no {@link Player} and are only advanced by {@link #advance(double)}.
+ */
+public class Fork {
+
+    /** The simulator the branches are forked from.*/
+    private final Simulator origin;
+
+    /** The state of the origin at the fork.*/
+    private final ByteBuffer snapshot;
+
+    /** The branches of the fork.*/
+    private final List<Simulator> branches;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Fork a simulation at its current state.
+     *
+     * @param origin the simulator to fork
+     * @throws NullPointerException if the given simulator is null
+     */
+    public Fork(Simulator origin) {
+        Objects.requireNonNull(origin, Error.getNullMsg("origin"));
+
+        this.origin = origin;
+        this.snapshot = Checkpoint.save(origin).asReadOnlyBuffer();
+        this.branches = new ArrayList<>();
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Create a branch whose world differs from the origin's by an intervention, e.g. a larger quarantine capacity or
+     * a higher detection rate.
+     *
+     * @param intervention the intervention, applied to a copy of the origin's world before the branch is created
+     * @return the branch
+     * @throws NullPointerException if the given intervention is null
+     */
+    public Simulator branch(Consumer<World> intervention) {
+        return branch(origin.getBehaviourDistribution(), intervention);
+    }
+
+    /**
+     * Create a branch whose humans behave by the given behaviour distribution, and whose world differs from the
+     * origin's by an intervention. If the distribution is not the origin's, every human's behaviour is drawn again.
+     *
+     * @param behaviourDistribution the distribution of behaviours in the branch
+     * @param intervention the intervention, applied to a copy of the origin's world before the branch is created
+     * @return the branch
+     * @throws NullPointerException if any of the given parameters are null
+     */
+    public Simulator branch(BehaviourDistribution behaviourDistribution, Consumer<World> intervention) {
+        Objects.requireNonNull(behaviourDistribution, Error.getNullMsg("behaviour distribution"));
+        Objects.requireNonNull(intervention, Error.getNullMsg("intervention"));
+
+        World world = origin.getWorld().reset();
+        intervention.accept(world);
+
+        Simulator branch;
+
+        try {
+            branch = origin.branch(world, behaviourDistribution, snapshot.duplicate(),
+                    behaviourDistribution != origin.getBehaviourDistribution());
+        } catch (IOException e) {
+            throw new IllegalStateException(Error.ERROR_TAG + " Fork state cannot be restored.", e);
+        }
+
+        branches.add(branch);
+        return branch;
+    }
+
+    /**
+     * Advance every branch by the given number of seconds, each on its own thread.
+     *
+     * @param elapsedSeconds the number of seconds to advance each branch by
+     * @throws IllegalArgumentException if the given parameter is negative
+     * @throws IllegalStateException if a branch fails to advance
+     */
+    public void advance(double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
+
+        if (branches.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(branches.size(), Runtime.getRuntime().availableProcessors()));
+
+        try {
+            List<Callable<Void>> tasks = branches.stream()
+                    .map(branch -> (Callable<Void>) () -> {
+                        branch.advance(elapsedSeconds);
+                        return null;
+                    })
+                    .collect(Collectors.toList());
+
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(Error.ERROR_TAG + " A branch failed to advance.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(Error.ERROR_TAG + " Advancing the branches was interrupted.", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Getter for {@link #origin}.
+     *
+     * @return {@link #origin}
+     */
+    public Simulator getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Getter for {@link #branches}.
+     *
+     * @return an unmodifiable view of {@link #branches}
+     */
+    public List<Simulator> getBranches() {
+        return Collections.unmodifiableList(branches);
+    }
+
+    /**
+     * Get the statistics of every branch, in the order the branches were created.
+     *
+     * @return the statistics of the branches
+     */
+    public List<Statistics> getStatistics() {
+        return branches.stream().map(Simulator::getStatistics).collect(Collectors.toList());
+    }
+
+}
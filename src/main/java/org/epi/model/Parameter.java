@@ -0,0 +1,168 @@
+package org.epi.model;
+
+import org.epi.model.human.Pathogen;
+import org.epi.model.world.World;
+
+/**
+ * The parameters of a simulation that can be swept, i.e., those behind the sliders of the simulator's view, in the
+ * units of the model: probabilities rather than percentages, and seconds.
+ *
+ * Setting a parameter is checked like its setter. The parameters are applied in their order here, so the population
+ * total is set before the sick total.
+ */
+public enum Parameter {
+    POPULATION_TOTAL(true) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            world.setPopulationTotal((int) value);
+        }
+
+    },
+    SICK_TOTAL(true) {
+
+        /**
+         * {@inheritDoc}
+         * The sick total is at most the population total, so that both can be swept together.
+         */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            world.setSickTotal(Math.min((int) value, world.getPopulationTotal()));
+        }
+
+    },
+    QUARANTINE_CAPACITY(true) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            world.setQuarantineCapacity((int) value);
+        }
+
+    },
+    TESTING_FREQUENCY(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            world.setTestingFrequency(value);
+        }
+
+    },
+    DETECTION_RATE(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            world.setDetectionRate(value);
+        }
+
+    },
+    NORMAL_PROPORTION(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            behaviourDistribution.setNormalProportion(value);
+        }
+
+    },
+    SOCIAL_DISTANCING_PROPORTION(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            behaviourDistribution.setSocialDistancingProportion(value);
+        }
+
+    },
+    CONTACT_TRACING_PROPORTION(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            behaviourDistribution.setContactTracingProportion(value);
+        }
+
+    },
+    LIFESPAN(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            pathogen.setLifespan(value);
+        }
+
+    },
+    IMMUNITY_DURATION(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            pathogen.setImmunityDuration(value);
+        }
+
+    },
+    IMMUNITY_RATE(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            pathogen.setImmunityRate(value);
+        }
+
+    },
+    TRANSMISSION_RISK(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            pathogen.setTransmissionRisk(value);
+        }
+
+    },
+    FATALITY_RATE(false) {
+
+        /** {@inheritDoc} */
+        @Override
+        public void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, double value) {
+            pathogen.setFatalityRate(value);
+        }
+
+    };
+
+    /** Whether the parameter only takes whole values.*/
+    private final boolean isInteger;
+
+    /**
+     * Create a parameter.
+     *
+     * @param isInteger whether the parameter only takes whole values
+     */
+    Parameter(boolean isInteger) {
+        this.isInteger = isInteger;
+    }
+
+    /**
+     * Set this parameter of a simulation.
+     *
+     * @param world the world of the simulation
+     * @param behaviourDistribution the behaviour distribution of the simulation
+     * @param pathogen the pathogen of the simulation
+     * @param value the value of the parameter, which is whole if the parameter is an integer
+     * @throws IllegalArgumentException if the value is not valid for the parameter
+     */
+    public abstract void apply(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen,
+                               double value);
+
+    /**
+     * Getter for {@link #isInteger}.
+     *
+     * @return {@link #isInteger}
+     */
+    public boolean isInteger() {
+        return isInteger;
+    }
+
+}
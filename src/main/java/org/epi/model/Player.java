@@ -48,7 +48,7 @@ public class Player extends AnimationTimer {
 
         if (simRunning && timeChanged) {
             double elapsedSeconds = (timestamp - lastUpdateTime.get()) * NANO;
-            simulator.update(elapsedSeconds);
+            simulator.advance(elapsedSeconds);
 
             if (simulator.ended()) {
                 simulator.update(0);
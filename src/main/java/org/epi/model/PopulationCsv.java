@@ -0,0 +1,123 @@
+package org.epi.model;
+
+import org.epi.model.human.Behaviour;
+import org.epi.model.human.Status;
+import org.epi.util.Error;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Utility class converting CSV population files to binary population files, so that hand-made or external populations
+ * can be loaded without parsing text on every load.
+ *
+ * A CSV population file starts with the {@value HEADER} header row, followed by one row per human. Behaviours and
+ * statuses are given by their names, and an empty velocity is unset. The file is read twice, once to count the rows
+ * and once to convert them, so that it never has to be held in memory.
+ */
+public class PopulationCsv {
+
+    /** The header row of a CSV population file.*/
+    public static final String HEADER = "x,y,velocity_x,velocity_y,behaviour,status,household,lifetime,immunity";
+
+    /** The separator of the columns.*/
+    private static final String SEPARATOR = ",";
+
+    /** The number of columns.*/
+    private static final int COLUMNS = 9;
+
+    /**
+     * Convert a CSV population file to a binary population file.
+     *
+     * @param csv the path of the CSV population file
+     * @param population the path of the binary population file
+     * @param width the width of the area the positions are in, in pixels
+     * @param height the height of the area the positions are in, in pixels
+     * @throws NullPointerException if any of the given paths are null
+     * @throws IllegalArgumentException if the given width or height is negative
+     * @throws IOException if a file cannot be read or written, or the CSV file is not a CSV population file
+     */
+    public static void convert(Path csv, Path population, double width, double height) throws IOException {
+        Objects.requireNonNull(csv, Error.getNullMsg("CSV path"));
+        Objects.requireNonNull(population, Error.getNullMsg("population path"));
+
+        long count;
+        try (BufferedReader reader = Files.newBufferedReader(csv)) {
+            headerCheck(reader.readLine());
+            count = reader.lines().filter(line -> !line.isBlank()).count();
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(csv);
+             PopulationWriter writer = new PopulationWriter(population, width, height, count)) {
+            reader.readLine();
+
+            String line;
+            long row = 1;
+            while ((line = reader.readLine()) != null) {
+                row++;
+
+                if (!line.isBlank()) {
+                    write(writer, line, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that the given line is the header row of a CSV population file.
+     *
+     * @param line the first line of a file
+     * @throws IOException if the line is not {@value HEADER}
+     */
+    private static void headerCheck(String line) throws IOException {
+        if (line == null || !line.strip().equals(HEADER)) {
+            throw new IOException(Error.ERROR_TAG + " Given CSV file does not start with the header: " + HEADER);
+        }
+    }
+
+    /**
+     * Write the human of a row to a population file.
+     *
+     * @param writer the writer of the population file
+     * @param line the row
+     * @param row the number of the row in the CSV file
+     * @throws IOException if the row is invalid or the population file cannot be written
+     */
+    private static void write(PopulationWriter writer, String line, long row) throws IOException {
+        String[] values = line.split(SEPARATOR, -1);
+
+        if (values.length != COLUMNS) {
+            throw new IOException(Error.ERROR_TAG + " Row " + row + " does not have " + COLUMNS + " columns.");
+        }
+
+        try {
+            writer.write(
+                    Double.parseDouble(values[0].strip()),
+                    Double.parseDouble(values[1].strip()),
+                    velocity(values[2]),
+                    velocity(values[3]),
+                    Behaviour.valueOf(values[4].strip()),
+                    Status.valueOf(values[5].strip()),
+                    Integer.parseInt(values[6].strip()),
+                    Double.parseDouble(values[7].strip()),
+                    Double.parseDouble(values[8].strip()));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(Error.ERROR_TAG + " Row " + row + " is invalid: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse a velocity value.
+     *
+     * @param value a velocity value
+     * @return the velocity, or NaN if the value is empty
+     * @throws NumberFormatException if the value is not a number
+     */
+    private static double velocity(String value) {
+        return value.isBlank() ? Double.NaN : Double.parseDouble(value.strip());
+    }
+
+}
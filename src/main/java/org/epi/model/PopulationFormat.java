@@ -0,0 +1,114 @@
+package org.epi.model;
+
+import org.epi.util.Error;
+
+import java.io.IOException;
+
+/**
+ * Utility class describing the binary population file format.
+ *
+ * A population file starts with a header of the {@value MAGIC} magic number (int), the format version (int), the width
+ * and height of the area the positions are in (doubles) and the number of humans (long). It is followed by one record
+ * of {@value RECORD_SIZE} bytes per human, where humans of the same household are stored next to each other.
+ * A record holds, at the given offsets:
+ * <ul>
+ *     <li>{@value X}: the horizontal position in pixels (double)</li>
+ *     <li>{@value Y}: the vertical position in pixels (double)</li>
+ *     <li>{@value VELOCITY_X}: the horizontal velocity in pixels per second (double), NaN if it is unset</li>
+ *     <li>{@value VELOCITY_Y}: the vertical velocity in pixels per second (double), NaN if it is unset</li>
+ *     <li>{@value BEHAVIOUR}: the {@link org.epi.model.human.Behaviour} ordinal (byte)</li>
+ *     <li>{@value STATUS}: the {@link org.epi.model.human.Status} ordinal (byte)</li>
+ *     <li>{@value HOUSEHOLD}: the household (int)</li>
+ *     <li>{@value LIFETIME}: the lifetime of the human's pathogen in seconds if the human is sick (double)</li>
+ *     <li>{@value IMMUNITY}: the remaining immunity in seconds if the human is recovered (double)</li>
+ * </ul>
+ * All values are big-endian. Humans with an unset velocity get the initial velocity of their behaviour.
+ *
+ * Version 1 files, which only held the position, behaviour, status and household, are no longer supported.
+ */
+public class PopulationFormat {
+
+    /** The magic number at the start of every population file, "EPIP" in ASCII.*/
+    public static final int MAGIC = 0x45504950;
+
+    /** The current version of the format.*/
+    public static final int VERSION = 2;
+
+    /** The size of the header in bytes.*/
+    public static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8;
+
+    /** The offset of the horizontal position in a record.*/
+    public static final int X = 0;
+    /** The offset of the vertical position in a record.*/
+    public static final int Y = 8;
+    /** The offset of the horizontal velocity in a record.*/
+    public static final int VELOCITY_X = 16;
+    /** The offset of the vertical velocity in a record.*/
+    public static final int VELOCITY_Y = 24;
+    /** The offset of the behaviour ordinal in a record.*/
+    public static final int BEHAVIOUR = 32;
+    /** The offset of the status ordinal in a record.*/
+    public static final int STATUS = 33;
+    /** The offset of the household in a record.*/
+    public static final int HOUSEHOLD = 34;
+    /** The offset of the pathogen lifetime in a record.*/
+    public static final int LIFETIME = 38;
+    /** The offset of the remaining immunity in a record.*/
+    public static final int IMMUNITY = 46;
+
+    /** The size of a record in bytes.*/
+    public static final int RECORD_SIZE = 54;
+
+    /** The number of records in each memory-mapped segment of a file, such that a segment fits in a buffer.*/
+    public static final long SEGMENT_RECORDS = Integer.MAX_VALUE / RECORD_SIZE;
+
+    /**
+     * Check that the given magic number and version are of a population file that can be read.
+     *
+     * @param magic the magic number of a file
+     * @param version the format version of a file
+     * @throws IOException if the magic number is not {@value MAGIC} or the version is not {@value VERSION}
+     */
+    public static void headerCheck(int magic, int version) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException(Error.ERROR_TAG + " Given file is not a population file.");
+        }
+
+        if (version != VERSION) {
+            throw new IOException(Error.ERROR_TAG + " Given population file version is not supported: " + version);
+        }
+    }
+
+    /**
+     * Get the position in a file of the segment holding the given record.
+     *
+     * @param record the index of a record
+     * @return the position of the segment in bytes
+     */
+    public static long segmentPosition(long record) {
+        return HEADER_SIZE + (record / SEGMENT_RECORDS) * SEGMENT_RECORDS * RECORD_SIZE;
+    }
+
+    /**
+     * Get the position in its segment of the given record.
+     *
+     * @param record the index of a record
+     * @return the position of the record in its segment in bytes
+     */
+    public static int recordPosition(long record) {
+        return (int) (record % SEGMENT_RECORDS) * RECORD_SIZE;
+    }
+
+    /**
+     * Get the size of the segment holding the given record.
+     *
+     * @param record the index of a record
+     * @param count the number of records in the file
+     * @return the size of the segment in bytes
+     */
+    public static long segmentSize(long record, long count) {
+        long first = (record / SEGMENT_RECORDS) * SEGMENT_RECORDS;
+        return Math.min(SEGMENT_RECORDS, count - first) * RECORD_SIZE;
+    }
+
+}
@@ -0,0 +1,207 @@
+package org.epi.model;
+
+import org.epi.model.human.Behaviour;
+import org.epi.model.human.Status;
+import org.epi.util.Error;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static org.epi.model.human.Model.HUMAN_RADIUS;
+
+/**
+ * Generates synthetic populations into population files, one household at a time, so that the memory used does not
+ * grow with the size of the population.
+ *
+ * Households are placed uniformly over the area, and their members are scattered normally around the household.
+ * Each human's behaviour is sampled from a behaviour distribution, and the initially sick humans are picked uniformly
+ * from the whole population.
+ */
+public class PopulationGenerator {
+
+    /** The default largest household size.*/
+    public static final int DEF_HOUSEHOLD_SIZE = 4;
+    /** The default standard deviation of a household member's distance from their household in pixels.*/
+    public static final double DEF_HOUSEHOLD_SPREAD = 5;
+
+    /** The width of the area in pixels.*/
+    private final double width;
+
+    /** The height of the area in pixels.*/
+    private final double height;
+
+    /** The distribution of behaviours in the generated populations.*/
+    private final BehaviourDistribution behaviourDistribution;
+
+    /** The random generator for the populations.*/
+    private final RandomGenerator random;
+
+    /** The largest household size. Household sizes are uniform between one and this size.*/
+    private final IntegerProperty householdSize;
+
+    /** The standard deviation of a household member's distance from their household in pixels.*/
+    private final DoubleProperty householdSpread;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a population generator for an area.
+     *
+     * @param width the width of the area in pixels
+     * @param height the height of the area in pixels
+     * @param behaviourDistribution the distribution of behaviours in the generated populations
+     * @throws NullPointerException if the given behaviour distribution is null
+     * @throws IllegalArgumentException if the given width or height is negative
+     */
+    public PopulationGenerator(double width, double height, BehaviourDistribution behaviourDistribution) {
+        Error.nonNegativeCheck(width);
+        Error.nonNegativeCheck(height);
+        Objects.requireNonNull(behaviourDistribution, Error.getNullMsg("behaviour distribution"));
+
+        this.width = width;
+        this.height = height;
+        this.behaviourDistribution = behaviourDistribution;
+        this.random = new Well19937c();
+        this.householdSize = new SimpleIntegerProperty(DEF_HOUSEHOLD_SIZE);
+        this.householdSpread = new SimpleDoubleProperty(DEF_HOUSEHOLD_SPREAD);
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Generate a population into a population file.
+     *
+     * @param path the path of the population file
+     * @param count the number of humans
+     * @param sickCount the number of initially sick humans
+     * @throws NullPointerException if the given path is null
+     * @throws IllegalArgumentException if the count is negative or the sick count is negative or more than the count
+     * @throws IOException if the file cannot be written
+     */
+    public void generate(Path path, long count, long sickCount) throws IOException {
+        Error.nonNegativeCheck(count);
+        Error.intervalCheck("sick count", 0, count, sickCount);
+
+        try (PopulationWriter writer = new PopulationWriter(path, width, height, count)) {
+            long remaining = count;
+            long sickRemaining = sickCount;
+            int household = 0;
+
+            while (remaining > 0) {
+                int size = (int) Math.min(remaining, 1 + random.nextInt(householdSize.get()));
+                double centerX = coordinate(random.nextDouble() * width, width);
+                double centerY = coordinate(random.nextDouble() * height, height);
+
+                for (int i = 0; i < size; i++) {
+                    boolean isSick = random.nextDouble() * remaining < sickRemaining;
+                    double x = coordinate(centerX + random.nextGaussian() * householdSpread.get(), width);
+                    double y = coordinate(centerY + random.nextGaussian() * householdSpread.get(), height);
+
+                    writer.write(x, y, Double.NaN, Double.NaN, behaviour(), isSick ? Status.SICK : Status.HEALTHY,
+                            household, 0, 0);
+
+                    if (isSick) {
+                        sickRemaining--;
+                    }
+                    remaining--;
+                }
+
+                household++;
+            }
+        }
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Clamp a coordinate such that a human at the coordinate fits in the area.
+     *
+     * @param coordinate a coordinate in pixels
+     * @param length the length of the area along the coordinate's axis in pixels
+     * @return the clamped coordinate
+     */
+    private static double coordinate(double coordinate, double length) {
+        return Math.min(Math.max(coordinate, HUMAN_RADIUS), Math.max(length - HUMAN_RADIUS, HUMAN_RADIUS));
+    }
+
+    /**
+     * Sample a behaviour from the behaviour distribution with this generator's random generator.
+     *
+     * @return a behaviour
+     */
+    private Behaviour behaviour() {
+        double normal = behaviourDistribution.getNormalProportion();
+        double socialDistancing = behaviourDistribution.getSocialDistancingProportion();
+        double total = normal + socialDistancing + behaviourDistribution.getContactTracingProportion();
+        double sample = random.nextDouble() * total;
+
+        if (sample < normal) {
+            return Behaviour.NORMAL;
+        } else if (sample < normal + socialDistancing) {
+            return Behaviour.SOCIAL_DISTANCING;
+        } else {
+            return Behaviour.CONTACT_TRACING;
+        }
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Set the seed of the random generator, so that the same populations are generated again.
+     *
+     * @param seed a seed
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Getter for {@link #householdSize}.
+     *
+     * @return {@link #householdSize}
+     */
+    public int getHouseholdSize() {
+        return householdSize.get();
+    }
+
+    /**
+     * Setter for {@link #householdSize}.
+     *
+     * @param householdSize {@link #householdSize}
+     * @throws IllegalArgumentException if the given parameter is less than 1
+     */
+    public void setHouseholdSize(int householdSize) {
+        Error.intervalCheck("household size", 1, Integer.MAX_VALUE, householdSize);
+        this.householdSize.set(householdSize);
+    }
+
+    /**
+     * Getter for {@link #householdSpread}.
+     *
+     * @return {@link #householdSpread}
+     */
+    public double getHouseholdSpread() {
+        return householdSpread.get();
+    }
+
+    /**
+     * Setter for {@link #householdSpread}.
+     *
+     * @param householdSpread {@link #householdSpread}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setHouseholdSpread(double householdSpread) {
+        Error.nonNegativeCheck(householdSpread);
+        this.householdSpread.set(householdSpread);
+    }
+
+}
@@ -0,0 +1,270 @@
+package org.epi.model;
+
+import org.epi.model.human.Behaviour;
+import org.epi.model.human.Status;
+import org.epi.util.Error;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads a population file through memory-mapped segments. The reader is a cursor over the records, whose values are
+ * read straight from the mapped file when asked for, so opening a file does not read its records and no object is
+ * created per human. Segments are only mapped once a record in them is visited.
+ * See {@link PopulationFormat} for the layout.
+ */
+public class PopulationReader implements Closeable {
+
+    /** The behaviours by ordinal.*/
+    private static final Behaviour[] BEHAVIOURS = Behaviour.values();
+
+    /** The health statuses by ordinal.*/
+    private static final Status[] STATUSES = Status.values();
+
+    /** The channel from the population file.*/
+    private final FileChannel channel;
+
+    /** The width of the area the positions are in, in pixels.*/
+    private final double width;
+
+    /** The height of the area the positions are in, in pixels.*/
+    private final double height;
+
+    /** The number of records in the file.*/
+    private final long count;
+
+    /** The index of the current record, or -1 before the first record.*/
+    private long record;
+
+    /** The mapped segment holding the current record, or null if it is not mapped yet.*/
+    private MappedByteBuffer segment;
+
+    /** The position of the current record in its segment in bytes.*/
+    private int position;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Open a population file and read its header.
+     *
+     * @param path the path of the population file
+     * @throws NullPointerException if the given path is null
+     * @throws IOException if the file cannot be read, is not a population file of the current version or is too short
+     */
+    public PopulationReader(Path path) throws IOException {
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+
+        this.channel = FileChannel.open(path, READ);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(PopulationFormat.HEADER_SIZE);
+
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException(Error.ERROR_TAG + " Given population file has no header.");
+                }
+            }
+
+            header.flip();
+            PopulationFormat.headerCheck(header.getInt(), header.getInt());
+            this.width = header.getDouble();
+            this.height = header.getDouble();
+            this.count = header.getLong();
+
+            if (channel.size() < PopulationFormat.HEADER_SIZE + count * PopulationFormat.RECORD_SIZE) {
+                throw new IOException(Error.ERROR_TAG + " Given population file is missing records.");
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.record = -1;
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Move to the next record.
+     *
+     * @return true if there was a next record, otherwise false
+     * @throws IOException if the segment of the next record cannot be mapped
+     */
+    public boolean next() throws IOException {
+        if (record + 1 == count) {
+            return false;
+        }
+
+        seek(record + 1);
+        return true;
+    }
+
+    /**
+     * Move to the given record.
+     *
+     * @param record the index of a record
+     * @throws IndexOutOfBoundsException if there is no record with the given index
+     * @throws IOException if the segment of the record cannot be mapped
+     */
+    public void seek(long record) throws IOException {
+        if (record < 0 || record >= count) {
+            throw new IndexOutOfBoundsException(Error.ERROR_TAG + " Given record is not in the file: " + record);
+        }
+
+        boolean isSameSegment = segment != null && this.record >= 0
+                && this.record / PopulationFormat.SEGMENT_RECORDS == record / PopulationFormat.SEGMENT_RECORDS;
+
+        if (!isSameSegment) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, PopulationFormat.segmentPosition(record),
+                    PopulationFormat.segmentSize(record, count));
+        }
+
+        this.record = record;
+        this.position = PopulationFormat.recordPosition(record);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Get the enum constant of an ordinal from a record.
+     *
+     * @param constants the constants of the enum
+     * @param ordinal an ordinal
+     * @param <T> the enum
+     * @return the constant of the ordinal
+     * @throws IllegalStateException if the ordinal is not of a constant
+     */
+    private static <T extends Enum<T>> T constant(T[] constants, byte ordinal) {
+        if (ordinal < 0 || ordinal >= constants.length) {
+            throw new IllegalStateException(Error.ERROR_TAG + " Population file has an invalid ordinal: " + ordinal);
+        }
+
+        return constants[ordinal];
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Getter for {@link #width}.
+     *
+     * @return {@link #width}
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter for {@link #height}.
+     *
+     * @return {@link #height}
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Getter for {@link #count}.
+     *
+     * @return {@link #count}
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the horizontal position of the current record.
+     *
+     * @return the horizontal position in pixels
+     */
+    public double getX() {
+        return segment.getDouble(position + PopulationFormat.X);
+    }
+
+    /**
+     * Get the vertical position of the current record.
+     *
+     * @return the vertical position in pixels
+     */
+    public double getY() {
+        return segment.getDouble(position + PopulationFormat.Y);
+    }
+
+    /**
+     * Get the horizontal velocity of the current record.
+     *
+     * @return the horizontal velocity in pixels per second, or NaN if it is unset
+     */
+    public double getVelocityX() {
+        return segment.getDouble(position + PopulationFormat.VELOCITY_X);
+    }
+
+    /**
+     * Get the vertical velocity of the current record.
+     *
+     * @return the vertical velocity in pixels per second, or NaN if it is unset
+     */
+    public double getVelocityY() {
+        return segment.getDouble(position + PopulationFormat.VELOCITY_Y);
+    }
+
+    /**
+     * Get the behaviour of the current record.
+     *
+     * @return the behaviour
+     * @throws IllegalStateException if the record has an invalid behaviour
+     */
+    public Behaviour getBehaviour() {
+        return constant(BEHAVIOURS, segment.get(position + PopulationFormat.BEHAVIOUR));
+    }
+
+    /**
+     * Get the health status of the current record.
+     *
+     * @return the health status
+     * @throws IllegalStateException if the record has an invalid status
+     */
+    public Status getStatus() {
+        return constant(STATUSES, segment.get(position + PopulationFormat.STATUS));
+    }
+
+    /**
+     * Get the household of the current record.
+     *
+     * @return the household
+     */
+    public int getHousehold() {
+        return segment.getInt(position + PopulationFormat.HOUSEHOLD);
+    }
+
+    /**
+     * Get the pathogen lifetime of the current record.
+     *
+     * @return the lifetime of the human's pathogen in seconds
+     */
+    public double getLifetime() {
+        return segment.getDouble(position + PopulationFormat.LIFETIME);
+    }
+
+    /**
+     * Get the remaining immunity of the current record.
+     *
+     * @return the remaining immunity in seconds
+     */
+    public double getImmunity() {
+        return segment.getDouble(position + PopulationFormat.IMMUNITY);
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.epi.model;
+
+import org.epi.model.human.Behaviour;
+import org.epi.model.human.Status;
+import org.epi.util.Error;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes a population file one record at a time through memory-mapped segments, so that a population never has to be
+ * held in memory. See {@link PopulationFormat} for the layout.
+ */
+public class PopulationWriter implements Closeable {
+
+    /** The channel to the population file.*/
+    private final FileChannel channel;
+
+    /** The number of records the header promises.*/
+    private final long count;
+
+    /** The number of records written so far.*/
+    private long written;
+
+    /** The mapped segment holding the next record, or null if it is not mapped yet.*/
+    private MappedByteBuffer segment;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a population file of the given number of records and write its header.
+     *
+     * @param path the path of the population file
+     * @param width the width of the area the positions are in, in pixels
+     * @param height the height of the area the positions are in, in pixels
+     * @param count the number of records that will be written
+     * @throws NullPointerException if the given path is null
+     * @throws IllegalArgumentException if any of the given numbers are negative
+     * @throws IOException if the file cannot be written
+     */
+    public PopulationWriter(Path path, double width, double height, long count) throws IOException {
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+        Error.nonNegativeCheck(width);
+        Error.nonNegativeCheck(height);
+        Error.nonNegativeCheck(count);
+
+        this.channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+        this.count = count;
+        this.written = 0;
+
+        ByteBuffer header = ByteBuffer.allocate(PopulationFormat.HEADER_SIZE)
+                .putInt(PopulationFormat.MAGIC)
+                .putInt(PopulationFormat.VERSION)
+                .putDouble(width)
+                .putDouble(height)
+                .putLong(count)
+                .flip();
+
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Write the record of a human.
+     *
+     * @param x the horizontal position in pixels
+     * @param y the vertical position in pixels
+     * @param velocityX the horizontal velocity in pixels per second, or NaN if it is unset
+     * @param velocityY the vertical velocity in pixels per second, or NaN if it is unset
+     * @param behaviour the behaviour
+     * @param status the health status
+     * @param household the household
+     * @param lifetime the lifetime of the human's pathogen in seconds, or 0 if the human is not sick
+     * @param immunity the remaining immunity in seconds, or 0 if the human is not recovered
+     * @throws NullPointerException if the given behaviour or status is null
+     * @throws IllegalStateException if all promised records have been written
+     * @throws IOException if the file cannot be written
+     */
+    public void write(double x, double y, double velocityX, double velocityY, Behaviour behaviour, Status status,
+                      int household, double lifetime, double immunity) throws IOException {
+        Behaviour.requireNonNull(behaviour);
+        Objects.requireNonNull(status, Error.getNullMsg("status"));
+
+        if (written == count) {
+            throw new IllegalStateException(Error.ERROR_TAG + " All " + count + " records have been written.");
+        }
+
+        if (segment == null || PopulationFormat.recordPosition(written) == 0) {
+            if (segment != null) {
+                segment.force();
+            }
+
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, PopulationFormat.segmentPosition(written),
+                    PopulationFormat.segmentSize(written, count));
+        }
+
+        int position = PopulationFormat.recordPosition(written);
+        segment.putDouble(position + PopulationFormat.X, x);
+        segment.putDouble(position + PopulationFormat.Y, y);
+        segment.putDouble(position + PopulationFormat.VELOCITY_X, velocityX);
+        segment.putDouble(position + PopulationFormat.VELOCITY_Y, velocityY);
+        segment.put(position + PopulationFormat.BEHAVIOUR, (byte) behaviour.ordinal());
+        segment.put(position + PopulationFormat.STATUS, (byte) status.ordinal());
+        segment.putInt(position + PopulationFormat.HOUSEHOLD, household);
+        segment.putDouble(position + PopulationFormat.LIFETIME, lifetime);
+        segment.putDouble(position + PopulationFormat.IMMUNITY, immunity);
+        written++;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if fewer records were written than promised
+     */
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+
+        channel.close();
+
+        if (written != count) {
+            throw new IllegalStateException(
+                    Error.ERROR_TAG + " Only " + written + " of " + count + " records were written.");
+        }
+    }
+
+}
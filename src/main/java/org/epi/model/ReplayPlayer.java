@@ -0,0 +1,151 @@
+package org.epi.model;
+
+import org.epi.util.Error;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/** Timer for a trajectory replay, which shows the frames at the pace they were recorded at.*/
+public class ReplayPlayer extends AnimationTimer {
+
+    /** The order magnitude of nano units.*/
+    private static final double NANO = 1 / 1000_000_000.00;
+
+    /** The replay shown by this player.*/
+    private final TrajectoryReplay replay;
+
+    /** Whether the replay is playing.*/
+    private final BooleanProperty playing = new SimpleBooleanProperty(false);
+
+    /** Last time the replay was updated.*/
+    private long lastUpdateTime;
+
+    /** The world time of the replay in seconds.*/
+    private double time;
+
+    /** The number of world seconds shown per real second.*/
+    private double speed;
+
+    /**
+     * Create a paused replay player at the start of a replay.
+     *
+     * @param replay the replay for this player
+     * @throws NullPointerException if the given parameter is null
+     */
+    public ReplayPlayer(TrajectoryReplay replay) {
+        Objects.requireNonNull(replay, Error.getNullMsg("replay"));
+        this.replay = replay;
+        this.time = replay.getTime(0);
+        this.speed = 1;
+        this.start();
+    }
+
+    /**
+     * Handles all actions that happen in each frame.
+     *
+     * @param timestamp The timestamp of the current frame given in nanoseconds. This value will be the same for all
+     *                  AnimationTimers called during one frame.
+     * @throws UncheckedIOException if the replay cannot be read
+     */
+    @Override
+    public void handle(long timestamp) {
+        if (playing.get() && lastUpdateTime > 0) {
+            seekTime(time + (timestamp - lastUpdateTime) * NANO * speed);
+
+            if (time >= replay.getEndTime()) {
+                playing.set(false);
+            }
+        }
+
+        lastUpdateTime = timestamp;
+    }
+
+    /**
+     * Show the replay at a world time, e.g. when scrubbing.
+     *
+     * @param time a world time in seconds
+     * @throws UncheckedIOException if the replay cannot be read
+     */
+    public void seekTime(double time) {
+        this.time = Math.max(replay.getTime(0), Math.min(replay.getEndTime(), time));
+
+        try {
+            replay.seekTime(this.time);
+        } catch (IOException e) {
+            throw new UncheckedIOException(Error.ERROR_TAG + " Replay cannot be read.", e);
+        }
+    }
+
+    /**
+     * Play the replay, from the start if it has ended.
+     */
+    public void play() {
+        if (time >= replay.getEndTime()) {
+            seekTime(replay.getTime(0));
+        }
+
+        playing.set(true);
+    }
+
+    /**
+     * Pause the replay.
+     */
+    public void pause() {
+        playing.set(false);
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Getter for {@link #replay}.
+     *
+     * @return {@link #replay}
+     */
+    public TrajectoryReplay getReplay() {
+        return replay;
+    }
+
+    /**
+     * Getter for {@link #playing}.
+     *
+     * @return {@link #playing}
+     */
+    public BooleanProperty getPlayingProperty() {
+        return playing;
+    }
+
+    /**
+     * Getter for {@link #time}.
+     *
+     * @return {@link #time}
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Getter for {@link #speed}.
+     *
+     * @return {@link #speed}
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Setter for {@link #speed}.
+     *
+     * @param speed {@link #speed}
+     * @throws IllegalArgumentException if the given speed is negative
+     */
+    public void setSpeed(double speed) {
+        Error.nonNegativeCheck(speed);
+        this.speed = speed;
+    }
+
+}
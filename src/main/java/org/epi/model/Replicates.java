@@ -0,0 +1,603 @@
+package org.epi.model;
+
+import org.epi.model.human.Pathogen;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+import org.epi.util.Probability;
+
+import org.apache.commons.math3.random.Well19937c;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A headless runner of Monte Carlo replicates of one simulation, i.e., of a world, behaviour distribution and
+ * pathogen, each with its own seed.
+ *
+ * The replicates run on a pool of their own threads, with at most one replicate per thread in flight, so memory does
+ * not grow with the number of seeds. As each replicate ends, its summary is appended to the {@value SUMMARY_FILE}
+ * file, and its population counts, sampled at fixed intervals and held at their final values once the replicate has
+ * ended, are added to a histogram of the counts at each sample time. The histograms hold at most
+ * {@link World#MAX_POPULATION} + 1 counts per sample time whatever the number of replicates, and give the mean and
+ * quantile bands of the counts, which are written to the {@value BANDS_FILE} file when all replicates have ended.
+ * A replicate only depends on its seed, so the results do not depend on the number of threads. With common random
+ * numbers, the seed also keys the draws made for each human, see {@link Probability}, so that runs of different
+ * interventions with the same seeds can be compared replicate by replicate.
+ */
+public class Replicates {
+
+    /** The name of the file of the replicate summaries.*/
+    public static final String SUMMARY_FILE = "summaries.csv";
+
+    /** The name of the file of the time-series bands.*/
+    public static final String BANDS_FILE = "bands.csv";
+
+    /** The header row of the replicate summaries.*/
+    public static final String SUMMARY_HEADER =
+            "seed,peak_sick,peak_time,final_deceased,final_recovered,duration,ended";
+
+    /** The default longest simulated time of a replicate in seconds.*/
+    public static final double DEF_DURATION = 600;
+
+    /** The default number of seconds between the samples of the population counts.*/
+    public static final double DEF_INTERVAL = 1;
+
+    /** The names of the sampled population counts.*/
+    private static final String[] SERIES = {"healthy", "sick", "recovered", "deceased"};
+
+    /** The quantiles of the bands, in percent.*/
+    private static final int[] QUANTILES = {5, 25, 50, 75, 95};
+
+    /** The separator of the columns.*/
+    private static final String SEPARATOR = ",";
+
+    /** The world every replicate starts from a reset copy of.*/
+    private final World world;
+
+    /** The behaviour distribution of every replicate.*/
+    private final BehaviourDistribution behaviourDistribution;
+
+    /** The pathogen of every replicate.*/
+    private final Pathogen pathogen;
+
+    /** The way the pathogen is transmitted in every replicate.*/
+    private Transmission transmission;
+
+    /** The way every replicate advances its world.*/
+    private Engine engine;
+
+    /** The longest simulated time of a replicate in seconds.*/
+    private double duration;
+
+    /** The number of seconds between the samples of the population counts.*/
+    private double interval;
+
+    /** The number of threads the replicates run on.*/
+    private int threads;
+
+    /** Whether the draws for the humans of a replicate are common random numbers keyed by its seed.*/
+    private boolean isCommon;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a runner of replicates of a simulation.
+     *
+     * @param world the world every replicate starts from a reset copy of
+     * @param behaviourDistribution the behaviour distribution of every replicate
+     * @param pathogen the pathogen of every replicate
+     * @throws NullPointerException if any of the given parameters are null
+     */
+    public Replicates(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen) {
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+        Objects.requireNonNull(behaviourDistribution, Error.getNullMsg("behaviour distribution"));
+        Objects.requireNonNull(pathogen, Error.getNullMsg("pathogen"));
+
+        this.world = world;
+        this.behaviourDistribution = behaviourDistribution;
+        this.pathogen = pathogen.copy();
+        this.transmission = Transmission.CONTACT;
+        this.engine = Engine.AGENT;
+        this.duration = DEF_DURATION;
+        this.interval = DEF_INTERVAL;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.isCommon = true;
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Run a replicate for each of the given seeds, and write the summaries and bands into the given directory.
+     *
+     * @param seeds the seeds of the replicates
+     * @param directory the directory of the output files, which is created if it does not exist
+     * @throws NullPointerException if any of the given parameters are null
+     * @throws IOException if the output files cannot be written
+     * @throws IllegalStateException if a replicate fails or running the replicates is interrupted
+     */
+    public void run(long[] seeds, Path directory) throws IOException {
+        Objects.requireNonNull(seeds, Error.getNullMsg("seeds"));
+        Objects.requireNonNull(directory, Error.getNullMsg("directory"));
+
+        Files.createDirectories(directory);
+
+        int samples = getSampleCount();
+        int[][][] histograms = new int[SERIES.length][samples][World.MAX_POPULATION + 1];
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, seeds.length)));
+        CompletionService<Replicate> completions = new ExecutorCompletionService<>(executor);
+
+        try (BufferedWriter summaries = Files.newBufferedWriter(directory.resolve(SUMMARY_FILE))) {
+            summaries.write(SUMMARY_HEADER);
+            summaries.newLine();
+            summaries.flush();
+
+            int submitted = 0;
+            for (; submitted < Math.min(threads, seeds.length); submitted++) {
+                long seed = seeds[submitted];
+                completions.submit(() -> run(seed));
+            }
+
+            for (int completed = 0; completed < seeds.length; completed++) {
+                Replicate replicate = completions.take().get();
+
+                if (submitted < seeds.length) {
+                    long seed = seeds[submitted++];
+                    completions.submit(() -> run(seed));
+                }
+
+                summaries.write(replicate.toString());
+                summaries.newLine();
+                summaries.flush();
+
+                for (int series = 0; series < SERIES.length; series++) {
+                    for (int sample = 0; sample < samples; sample++) {
+                        histograms[series][sample][replicate.samples[series][sample]]++;
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(Error.ERROR_TAG + " A replicate failed to run.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(Error.ERROR_TAG + " Running the replicates was interrupted.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        writeBands(directory.resolve(BANDS_FILE), histograms, seeds.length);
+    }
+
+    /**
+     * Run a single replicate on the current thread, until the pathogen or the population is gone, or until the
+     * longest simulated time has passed.
+     *
+     * @param seed the seed of the replicate
+     * @return the summary and sampled population counts of the replicate
+     */
+    public Replicate run(long seed) {
+        Simulator simulator = new Simulator(world.reset(), behaviourDistribution.copy(), pathogen,
+                new Well19937c(seed), isCommon ? seed : null, true, true);
+        simulator.getWorld().copyContactGraph(world);
+        simulator.setTransmission(transmission);
+        simulator.setEngine(engine);
+
+        Statistics statistics = simulator.getStatistics();
+        double start = simulator.getWorld().getTotalElapsedSeconds();
+        double elapsed = 0;
+
+        Replicate replicate = new Replicate(seed, getSampleCount());
+        replicate.peakSick = statistics.getSick();
+
+        int next = 0;
+        while (next < replicate.samples[0].length && !simulator.ended()) {
+            short[] counts = counts(statistics);
+
+            simulator.step();
+            elapsed = simulator.getWorld().getTotalElapsedSeconds() - start;
+
+            // The counts before the step hold until the end of the step.
+            for (; next < replicate.samples[0].length && next * interval < elapsed; next++) {
+                replicate.setSample(next, counts);
+            }
+
+            if (statistics.getSick() > replicate.peakSick) {
+                replicate.peakSick = statistics.getSick();
+                replicate.peakTime = elapsed;
+            }
+        }
+
+        short[] counts = counts(statistics);
+        for (; next < replicate.samples[0].length; next++) {
+            replicate.setSample(next, counts);
+        }
+
+        replicate.finalDeceased = statistics.getDeceased();
+        replicate.finalRecovered = statistics.getRecovered();
+        replicate.duration = elapsed;
+        replicate.isEnded = simulator.ended();
+
+        return replicate;
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Get the current population counts of a simulation.
+     *
+     * @param statistics the statistics of the simulation
+     * @return the counts, in the order of {@link #SERIES}
+     */
+    private static short[] counts(Statistics statistics) {
+        return new short[] {
+                clamp(statistics.getHealthy()),
+                clamp(statistics.getSick()),
+                clamp(statistics.getRecovered()),
+                clamp(statistics.getDeceased())
+        };
+    }
+
+    /**
+     * Clamp a population count into the range of the histograms.
+     *
+     * @param count a population count
+     * @return the count, at least 0 and at most {@link World#MAX_POPULATION}
+     */
+    private static short clamp(int count) {
+        return (short) Math.max(0, Math.min(World.MAX_POPULATION, count));
+    }
+
+    /**
+     * Write the mean and quantile bands of the population counts at each sample time.
+     *
+     * @param path the path of the bands file
+     * @param histograms the number of replicates with each count, by series and sample
+     * @param replicates the number of replicates
+     * @throws IOException if the file cannot be written
+     */
+    private void writeBands(Path path, int[][][] histograms, int replicates) throws IOException {
+        try (BufferedWriter bands = Files.newBufferedWriter(path)) {
+            StringBuilder header = new StringBuilder("time");
+            for (String series : SERIES) {
+                header.append(SEPARATOR).append(series).append("_mean");
+                for (int quantile : QUANTILES) {
+                    header.append(SEPARATOR).append(series).append("_p").append(quantile);
+                }
+            }
+            bands.write(header.toString());
+            bands.newLine();
+
+            for (int sample = 0; sample < getSampleCount(); sample++) {
+                StringBuilder row = new StringBuilder(Double.toString(sample * interval));
+
+                for (int[][] histogram : histograms) {
+                    row.append(SEPARATOR).append(mean(histogram[sample], replicates));
+                    for (int quantile : QUANTILES) {
+                        row.append(SEPARATOR).append(quantile(histogram[sample], replicates, quantile));
+                    }
+                }
+
+                bands.write(row.toString());
+                bands.newLine();
+            }
+        }
+    }
+
+    /**
+     * Get the mean of a histogram of counts.
+     *
+     * @param histogram the number of replicates with each count
+     * @param replicates the number of replicates
+     * @return the mean count, or NaN if there are no replicates
+     */
+    private static double mean(int[] histogram, int replicates) {
+        double sum = 0;
+        for (int count = 0; count < histogram.length; count++) {
+            sum += (double) count * histogram[count];
+        }
+
+        return replicates > 0 ? sum / replicates : Double.NaN;
+    }
+
+    /**
+     * Get a quantile of a histogram of counts, i.e., the least count of which at least the given percentage of the
+     * replicates have at most.
+     *
+     * @param histogram the number of replicates with each count
+     * @param replicates the number of replicates
+     * @param percent the quantile in percent
+     * @return the quantile, or 0 if there are no replicates
+     */
+    private static int quantile(int[] histogram, int replicates, int percent) {
+        long rank = Math.max(1, (replicates * (long) percent + 99) / 100);
+        long cumulative = 0;
+
+        for (int count = 0; count < histogram.length; count++) {
+            cumulative += histogram[count];
+
+            if (cumulative >= rank) {
+                return count;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Get the number of samples of each replicate.
+     *
+     * @return the number of sample times from 0 to the longest simulated time
+     */
+    private int getSampleCount() {
+        return (int) Math.floor(duration / interval) + 1;
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Getter for {@link #transmission}.
+     *
+     * @return {@link #transmission}
+     */
+    public Transmission getTransmission() {
+        return transmission;
+    }
+
+    /**
+     * Setter for {@link #transmission}.
+     *
+     * @param transmission {@link #transmission}
+     * @throws NullPointerException if the given parameter is null
+     */
+    public void setTransmission(Transmission transmission) {
+        Objects.requireNonNull(transmission, Error.getNullMsg("transmission"));
+        this.transmission = transmission;
+    }
+
+    /**
+     * Getter for {@link #engine}.
+     *
+     * @return {@link #engine}
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Setter for {@link #engine}.
+     *
+     * @param engine {@link #engine}
+     * @throws NullPointerException if the given parameter is null
+     */
+    public void setEngine(Engine engine) {
+        Objects.requireNonNull(engine, Error.getNullMsg("engine"));
+        this.engine = engine;
+    }
+
+    /**
+     * Getter for {@link #duration}.
+     *
+     * @return {@link #duration}
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * Setter for {@link #duration}.
+     *
+     * @param duration {@link #duration}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setDuration(double duration) {
+        Error.nonNegativeCheck(duration);
+        this.duration = duration;
+    }
+
+    /**
+     * Getter for {@link #interval}.
+     *
+     * @return {@link #interval}
+     */
+    public double getInterval() {
+        return interval;
+    }
+
+    /**
+     * Setter for {@link #interval}.
+     *
+     * @param interval {@link #interval}
+     * @throws IllegalArgumentException if the given parameter is not positive
+     */
+    public void setInterval(double interval) {
+        Error.intervalCheck("interval", Double.MIN_VALUE, Double.MAX_VALUE, interval);
+        this.interval = interval;
+    }
+
+    /**
+     * Getter for {@link #threads}.
+     *
+     * @return {@link #threads}
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Setter for {@link #threads}.
+     *
+     * @param threads {@link #threads}
+     * @throws IllegalArgumentException if the given parameter is less than 1
+     */
+    public void setThreads(int threads) {
+        Error.intervalCheck("thread count", 1, Integer.MAX_VALUE, threads);
+        this.threads = threads;
+    }
+
+    /**
+     * Getter for {@link #isCommon}.
+     *
+     * @return {@link #isCommon}
+     */
+    public boolean isCommon() {
+        return isCommon;
+    }
+
+    /**
+     * Setter for {@link #isCommon}.
+     *
+     * @param isCommon {@link #isCommon}
+     */
+    public void setCommon(boolean isCommon) {
+        this.isCommon = isCommon;
+    }
+
+    //---------------------------- Replicate ----------------------------
+
+    /** The summary and sampled population counts of a replicate.*/
+    public static class Replicate {
+
+        /** The seed of the replicate.*/
+        private final long seed;
+
+        /** The population counts at each sample time, in the order of {@link #SERIES}.*/
+        private final short[][] samples;
+
+        /** The largest number of sick humans at once.*/
+        private int peakSick;
+
+        /** The time of {@link #peakSick} in seconds from the start.*/
+        private double peakTime;
+
+        /** The number of deceased humans at the end.*/
+        private int finalDeceased;
+
+        /** The number of recovered humans at the end.*/
+        private int finalRecovered;
+
+        /** The simulated time in seconds.*/
+        private double duration;
+
+        /** Whether the pathogen or the population was gone at the end.*/
+        private boolean isEnded;
+
+        /**
+         * Create an empty replicate summary.
+         *
+         * @param seed the seed of the replicate
+         * @param samples the number of sample times
+         */
+        private Replicate(long seed, int samples) {
+            this.seed = seed;
+            this.samples = new short[SERIES.length][samples];
+        }
+
+        /**
+         * Set the population counts at a sample time.
+         *
+         * @param sample the index of the sample time
+         * @param counts the counts, in the order of {@link #SERIES}
+         */
+        private void setSample(int sample, short[] counts) {
+            for (int series = 0; series < SERIES.length; series++) {
+                samples[series][sample] = counts[series];
+            }
+        }
+
+        /**
+         * Get the summary row of this replicate.
+         *
+         * @return the columns of {@value SUMMARY_HEADER}
+         */
+        @Override
+        public String toString() {
+            return String.join(SEPARATOR, Long.toString(seed), Integer.toString(peakSick), Double.toString(peakTime),
+                    Integer.toString(finalDeceased), Integer.toString(finalRecovered), Double.toString(duration),
+                    Boolean.toString(isEnded));
+        }
+
+        /**
+         * Getter for {@link #seed}.
+         *
+         * @return {@link #seed}
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Getter for {@link #peakSick}.
+         *
+         * @return {@link #peakSick}
+         */
+        public int getPeakSick() {
+            return peakSick;
+        }
+
+        /**
+         * Getter for {@link #peakTime}.
+         *
+         * @return {@link #peakTime}
+         */
+        public double getPeakTime() {
+            return peakTime;
+        }
+
+        /**
+         * Getter for {@link #finalDeceased}.
+         *
+         * @return {@link #finalDeceased}
+         */
+        public int getFinalDeceased() {
+            return finalDeceased;
+        }
+
+        /**
+         * Getter for {@link #finalRecovered}.
+         *
+         * @return {@link #finalRecovered}
+         */
+        public int getFinalRecovered() {
+            return finalRecovered;
+        }
+
+        /**
+         * Getter for {@link #duration}.
+         *
+         * @return {@link #duration}
+         */
+        public double getDuration() {
+            return duration;
+        }
+
+        /**
+         * Getter for {@link #isEnded}.
+         *
+         * @return {@link #isEnded}
+         */
+        public boolean isEnded() {
+            return isEnded;
+        }
+
+        /**
+         * Get the sampled count of a series.
+         *
+         * @param series the index of the series, in the order healthy, sick, recovered and deceased
+         * @param sample the index of the sample time
+         * @return the count
+         */
+        public int getSample(int series, int sample) {
+            return samples[series][sample];
+        }
+
+    }
+
+}
@@ -0,0 +1,320 @@
+package org.epi.model;
+
+import org.epi.model.event.InfectionTree;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.scene.chart.XYChart;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Live estimates of how the pathogen reproduces, from the infection tree of a simulation.
+ *
+ * Each update only visits the infections added and ended since the previous update. The infections are counted in
+ * intervals of {@value INTERVAL} seconds, the generation intervals, i.e., the times from the infection of an infector
+ * to the infections they cause, are counted in a histogram of the same intervals, and the secondary cases of each
+ * ended infection are counted in the secondary-case distribution. The instantaneous reproduction number R(t) is the
+ * number of infections in the last {@value WINDOW} intervals over the infectiousness of the population in them, which
+ * is the number of earlier infections weighted by the generation interval distribution (Cori et al., 2013), truncated
+ * to the lengths that fit after the first interval and normalised again.
+ */
+public class Reproduction {
+
+    /** The length of the intervals infections are counted in, in seconds.*/
+    public static final double INTERVAL = 1;
+
+    /** The number of intervals R(t) is estimated over.*/
+    public static final int WINDOW = 5;
+
+    /** The initial number of intervals there is room for.*/
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The world of the simulation.*/
+    private final World world;
+
+    /** The infection tree of the simulation.*/
+    private InfectionTree infectionTree;
+
+    /** The time of the first interval in seconds.*/
+    private double start;
+
+    /** The number of infections in each interval.*/
+    private int[] incidence;
+
+    /** The number of generation intervals of each length in intervals, with at least 1 interval.*/
+    private int[] generationIntervals;
+
+    /** The number of ended infections by their number of secondary infections.*/
+    private int[] secondaryCases;
+
+    /** The sum of the generation intervals in seconds.*/
+    private double generationIntervalSum;
+
+    /** The number of generation intervals.*/
+    private int generationIntervalCount;
+
+    /** The number of infections of the tree visited.*/
+    private int infections;
+
+    /** The number of ended infections of the tree visited.*/
+    private int ended;
+
+    /** The instantaneous reproduction number, NaN if it cannot be estimated yet.*/
+    private final DoubleProperty reproductionNumber;
+
+    /** {@link #reproductionNumber} data series.*/
+    private final XYChart.Series<Double, Double> dataSeriesReproductionNumber;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create the estimates for the simulation of a world, with its sick humans as the roots of the infection tree.
+     *
+     * @param world the world of the simulation
+     * @throws NullPointerException if the given world is null
+     */
+    public Reproduction(World world) {
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+
+        this.world = world;
+        this.reproductionNumber = new SimpleDoubleProperty(Double.NaN);
+        this.dataSeriesReproductionNumber = new XYChart.Series<>();
+
+        reset();
+    }
+
+    //---------------------------- Simulator actions ----------------------------
+
+    /**
+     * Visit the infections added and ended since the last update, and estimate R(t) at the current time.
+     */
+    public void update() {
+        for (; infections < infectionTree.size(); infections++) {
+            double time = infectionTree.getTime(infections);
+
+            if (Double.isNaN(time)) {
+                continue;
+            }
+
+            int interval = interval(time);
+            incidence = grow(incidence, interval);
+            incidence[interval]++;
+
+            int infector = infectionTree.getInfector(infections);
+            if (infector != InfectionTree.ROOT && !Double.isNaN(infectionTree.getTime(infector))) {
+                double generationInterval = time - infectionTree.getTime(infector);
+                int length = Math.max(1, (int) Math.ceil(generationInterval / INTERVAL));
+
+                generationIntervals = grow(generationIntervals, length);
+                generationIntervals[length]++;
+                generationIntervalSum += generationInterval;
+                generationIntervalCount++;
+            }
+        }
+
+        for (; ended < infectionTree.getEndedCount(); ended++) {
+            int secondary = infectionTree.getSecondary(infectionTree.getEnded(ended));
+            secondaryCases = grow(secondaryCases, secondary);
+            secondaryCases[secondary]++;
+        }
+
+        double time = world.getTotalElapsedSeconds();
+        reproductionNumber.set(estimate(interval(time)));
+
+        if (!Double.isNaN(reproductionNumber.get())) {
+            dataSeriesReproductionNumber.getData().add(new XYChart.Data<>(time, reproductionNumber.get()));
+        }
+    }
+
+    /**
+     * Remove the infections after the given time from the infection tree and the estimates,
+     * e.g. when a simulation is rewound to the time and takes another course from there.
+     *
+     * @param time a world time in seconds
+     */
+    public void truncate(double time) {
+        infectionTree.truncate(time);
+        dataSeriesReproductionNumber.getData().removeIf(data -> data.getXValue() > time);
+        clear();
+        update();
+    }
+
+    /**
+     * Start a new infection tree with the sick humans of the world as its roots, e.g. when the population of the
+     * world is replaced.
+     */
+    public void reset() {
+        infectionTree = new InfectionTree(world);
+        start = world.getTotalElapsedSeconds();
+        dataSeriesReproductionNumber.getData().clear();
+        clear();
+        update();
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Clear the estimates, so that the next update visits the whole infection tree.
+     */
+    private void clear() {
+        incidence = new int[INITIAL_CAPACITY];
+        generationIntervals = new int[INITIAL_CAPACITY];
+        secondaryCases = new int[INITIAL_CAPACITY];
+        generationIntervalSum = 0;
+        generationIntervalCount = 0;
+        infections = 0;
+        ended = 0;
+    }
+
+    /**
+     * Estimate R(t) over the window ending with the given interval.
+     *
+     * @param last the index of the last interval of the window
+     * @return the estimate, or NaN if there is no infectiousness in the window
+     */
+    private double estimate(int last) {
+        if (generationIntervalCount == 0) {
+            return Double.NaN;
+        }
+
+        double infected = 0;
+        double infectiousness = 0;
+
+        for (int t = Math.max(0, last - WINDOW + 1); t <= last; t++) {
+            infected += t < incidence.length ? incidence[t] : 0;
+
+            // The weights are normalised over the lengths that fit before the interval, so that they sum to 1.
+            int used = 0;
+            double weighted = 0;
+            for (int s = 1; s < generationIntervals.length && s <= t; s++) {
+                used += generationIntervals[s];
+                weighted += (t - s < incidence.length ? incidence[t - s] : 0) * (double) generationIntervals[s];
+            }
+
+            if (used > 0) {
+                infectiousness += weighted / used;
+            }
+        }
+
+        return infectiousness > 0 ? infected / infectiousness : Double.NaN;
+    }
+
+    /**
+     * Get the interval of a time.
+     *
+     * @param time a world time in seconds
+     * @return the index of the interval
+     */
+    private int interval(double time) {
+        return Math.max(0, (int) ((time - start) / INTERVAL));
+    }
+
+    /**
+     * Grow an array of counts so that it has the given index.
+     *
+     * @param counts an array of counts
+     * @param index an index
+     * @return the array, or a larger copy of it
+     */
+    private static int[] grow(int[] counts, int index) {
+        return index < counts.length ? counts : Arrays.copyOf(counts, Math.max(2 * counts.length, index + 1));
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Getter for {@link #infectionTree}.
+     *
+     * @return {@link #infectionTree}
+     */
+    public InfectionTree getInfectionTree() {
+        return infectionTree;
+    }
+
+    /**
+     * Getter for {@link #reproductionNumber}.
+     *
+     * @return {@link #reproductionNumber}
+     */
+    public double getReproductionNumber() {
+        return reproductionNumber.get();
+    }
+
+    /**
+     * Getter for {@link #reproductionNumber} {@link DoubleProperty}.
+     *
+     * @return {@link #reproductionNumber}
+     */
+    public DoubleProperty reproductionNumberProperty() {
+        return reproductionNumber;
+    }
+
+    /**
+     * Getter for {@link #dataSeriesReproductionNumber}.
+     *
+     * @return {@link #dataSeriesReproductionNumber}
+     */
+    public XYChart.Series<Double, Double> getDataSeriesReproductionNumber() {
+        return dataSeriesReproductionNumber;
+    }
+
+    /**
+     * Get the secondary-case distribution of the ended infections.
+     *
+     * @return the number of ended infections with each number of secondary infections, by number
+     */
+    public int[] getSecondaryCases() {
+        int length = secondaryCases.length;
+        while (length > 0 && secondaryCases[length - 1] == 0) {
+            length--;
+        }
+
+        return Arrays.copyOf(secondaryCases, length);
+    }
+
+    /**
+     * Get the mean number of secondary infections of the ended infections.
+     *
+     * @return the mean number of secondary infections, NaN if no infection has ended
+     */
+    public double getMeanSecondaryCases() {
+        int count = 0;
+        int sum = 0;
+
+        for (int secondary = 0; secondary < secondaryCases.length; secondary++) {
+            count += secondaryCases[secondary];
+            sum += secondary * secondaryCases[secondary];
+        }
+
+        return count > 0 ? (double) sum / count : Double.NaN;
+    }
+
+    /**
+     * Get the generation interval histogram.
+     *
+     * @return the number of generation intervals of each length in intervals of {@value INTERVAL} seconds,
+     *         rounded up to at least 1 interval, by length
+     */
+    public int[] getGenerationIntervals() {
+        int length = generationIntervals.length;
+        while (length > 0 && generationIntervals[length - 1] == 0) {
+            length--;
+        }
+
+        return Arrays.copyOf(generationIntervals, length);
+    }
+
+    /**
+     * Get the mean generation interval.
+     *
+     * @return the mean generation interval in seconds, NaN if no generation interval is known
+     */
+    public double getMeanGenerationInterval() {
+        return generationIntervalCount > 0 ? generationIntervalSum / generationIntervalCount : Double.NaN;
+    }
+
+}
@@ -1,15 +1,35 @@
 package org.epi.model;
 
+import org.epi.model.event.EventLog;
+import org.epi.model.event.InfectionTree;
 import org.epi.model.human.Human;
+import org.epi.model.human.Model;
 import org.epi.model.human.Pathogen;
+import org.epi.model.human.Status;
+import org.epi.model.human.StrainRegistry;
+import org.epi.model.world.ContactGraph;
+import org.epi.model.world.Location;
 import org.epi.model.world.World;
 import org.epi.util.Error;
+import org.epi.util.Probability;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 
 import javafx.beans.property.Property;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.layout.Pane;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import static org.epi.model.SimulationState.ENDED;
 import static org.epi.model.SimulationState.PAUSE;
@@ -20,12 +40,18 @@ public class Simulator {
     /** The state of the simulator.*/
     private final Property<SimulationState> simulationState;
 
-    /** The simulator player.*/
+    /** The simulator player, or null if this simulator is headless, i.e., only advanced by its caller.*/
     private final Player player;
 
+    /** The adaptive time stepper.*/
+    private final Stepper stepper;
+
     /** The world's statistics.*/
     private final Statistics statistics;
 
+    /** The estimates of how the pathogen reproduces in the world.*/
+    private final Reproduction reproduction;
+
     /** The world.*/
     private final World world;
 
@@ -35,10 +61,40 @@ public class Simulator {
     /** The pathogen for this simulator.*/
     private final Pathogen pathogen;
 
+    /** The strains the pathogen mutates into in this simulator, the first of which is the pathogen.*/
+    private final StrainRegistry strains;
+
+    /** The way the pathogen is transmitted in this simulator.*/
+    private Transmission transmission;
+
+    /** The way this simulator advances its world.*/
+    private Engine engine;
+
+    /** The compartmental model of the world, used by the {@link Engine#SEIR} engine.*/
+    private final Compartments compartments;
+
+    /** The random generator all of this simulator's draws are made with.*/
+    private RandomGenerator random;
+
+    /** The seed of the common random numbers the draws for the humans are made with, or null if they are made with
+     * {@link #random}, see {@link Probability}.*/
+    private Long commonSeed;
+
+    /** The recorder of this simulator's updates, if any.*/
+    private TrajectoryRecorder recorder;
+
+    /** The history of this simulator's updates, if any.*/
+    private Timeline timeline;
+
+    /** The log of this simulator's events, if any.*/
+    private EventLog eventLog;
+
     //---------------------------- Constructor ----------------------------
 
     /**
-     * Initialise a simulator.
+     * Initialise a simulator. If the world has no humans yet, the population is created from the world's population
+     * and sick totals and the behaviour distribution, with the simulator's own random generator, which is only bound to
+     * the current thread while the population is created.
      *
      * @param world the simulated world
      * @param behaviourDistribution distribution of behaviours in the population
@@ -46,6 +102,38 @@ public class Simulator {
      * @throws NullPointerException if the given parameters are null
      */
     public Simulator(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen) {
+        this(world, behaviourDistribution, pathogen, new Well19937c(), null, false, true);
+    }
+
+    /**
+     * Initialise a simulator whose random generator is seeded with the given seed, so that the population and every
+     * update are the same for the same seed.
+     *
+     * @param world the simulated world
+     * @param behaviourDistribution distribution of behaviours in the population
+     * @param pathogen the simulated pathogen
+     * @param seed the seed of the random generator
+     * @throws NullPointerException if the given parameters are null
+     */
+    public Simulator(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, long seed) {
+        this(world, behaviourDistribution, pathogen, new Well19937c(seed), null, false, true);
+    }
+
+    /**
+     * Initialise a simulator with the given random generator and common random numbers. A headless simulator has no
+     * {@link Player}, so it holds no animation timer and is only advanced by its caller, e.g. a replicate or a branch.
+     *
+     * @param world the simulated world
+     * @param behaviourDistribution distribution of behaviours in the population
+     * @param pathogen the simulated pathogen
+     * @param random the random generator all of the simulator's draws are made with
+     * @param commonSeed the seed of the common random numbers of the humans, or null for none
+     * @param isHeadless whether the simulator has no player
+     * @param isPopulated whether the population is created if the world has no humans yet
+     * @throws NullPointerException if the given world, behaviour distribution, pathogen or generator is null
+     */
+    Simulator(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen, RandomGenerator random,
+              Long commonSeed, boolean isHeadless, boolean isPopulated) {
         Objects.requireNonNull(world, Error.getNullMsg("world"));
         Objects.requireNonNull(behaviourDistribution, Error.getNullMsg("behaviour distribution"));
         Objects.requireNonNull(pathogen, Error.getNullMsg("pathogen"));
@@ -53,54 +141,301 @@ public class Simulator {
         this.world = world;
         this.behaviourDistribution = behaviourDistribution;
         this.pathogen = pathogen;
+        this.strains = new StrainRegistry(pathogen);
+        this.transmission = Transmission.CONTACT;
+        this.engine = Engine.AGENT;
+        this.compartments = new Compartments(world, behaviourDistribution, pathogen);
+        this.random = random;
+        this.commonSeed = commonSeed;
+
+        if (isPopulated && world.getLocations().stream().allMatch(location -> location.getPopulation().isEmpty())) {
+            RandomGenerator generator = Probability.inUse();
+            Long seed = Probability.inUseCommon();
+            Probability.use(random);
+            Probability.useCommon(commonSeed);
+
+            try {
+                populate();
+            } finally {
+                Probability.use(generator);
+                Probability.useCommon(seed);
+            }
+        }
 
-        for (int i = 0; i < world.getSickTotal(); i++) {
-            Human sick = new Human(world.getCity(), behaviourDistribution.sample());
-            sick.setPathogen(pathogen.reproduce());
-            sick.status();
-            sick.getModel().fill();
+        this.stepper = new Stepper(this);
+        this.statistics = new Statistics(world);
+        this.reproduction = new Reproduction(world);
+        this.simulationState = new SimpleObjectProperty<>(PAUSE);
+        this.player = isHeadless ? null : new Player(this);
+    }
+
+    /**
+     * Create a simulator with the population of a population file, placed in the city of the given world.
+     * The positions are scaled from the area of the file to the city, the population and sick totals of the world are
+     * set to those of the file, and the households of the file become the world's contact graph.
+     * Sick humans get the given pathogen at their lifetime, and recovered humans are immune to it for their remaining
+     * immunity.
+     *
+     * @param world the simulated world, with no humans
+     * @param behaviourDistribution distribution of behaviours in the population
+     * @param pathogen the simulated pathogen
+     * @param population the path of a population file
+     * @return a simulator with the population of the file
+     * @throws NullPointerException if the given parameters are null
+     * @throws IllegalArgumentException if the file has more than {@value World#MAX_POPULATION} humans or no sick
+     * @throws IOException if the file cannot be read or is not a population file
+     */
+    public static Simulator load(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen,
+                                 Path population) throws IOException {
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+        Objects.requireNonNull(pathogen, Error.getNullMsg("pathogen"));
+
+        List<Human> humans = new ArrayList<>();
+        Map<Integer, List<Human>> households = new HashMap<>();
+        int sickTotal = 0;
+
+        try (PopulationReader reader = new PopulationReader(population)) {
+            world.setPopulationTotal((int) Math.min(reader.getCount(), Integer.MAX_VALUE));
+
+            Pane city = world.getCity().getArea();
+            double scaleX = reader.getWidth() > 0 ? city.getPrefWidth() / reader.getWidth() : 1;
+            double scaleY = reader.getHeight() > 0 ? city.getPrefHeight() / reader.getHeight() : 1;
+
+            while (reader.next()) {
+                Human human = new Human(world.getCity(), reader.getBehaviour(), humans.size());
+                human.getModel().place(reader.getX() * scaleX, reader.getY() * scaleY);
+
+                if (!Double.isNaN(reader.getVelocityX()) && !Double.isNaN(reader.getVelocityY())) {
+                    human.getModel().setVelocity(reader.getVelocityX(), reader.getVelocityY());
+                }
+
+                if (reader.getStatus() == Status.SICK) {
+                    human.setPathogen(pathogen.copy());
+                    human.getPathogen().setLifetime(reader.getLifetime());
+                    sickTotal++;
+                } else if (reader.getStatus() == Status.RECOVERED) {
+                    human.getImmuneSystem().remember(pathogen, reader.getImmunity());
+                }
+
+                human.status();
+                human.getModel().fill();
+
+                humans.add(human);
+                households.computeIfAbsent(reader.getHousehold(), household -> new ArrayList<>()).add(human);
+            }
         }
 
-        for (int i = 0; i < world.getPopulationTotal() - world.getSickTotal(); i++) {
-            new Human(world.getCity(), behaviourDistribution.sample());
+        world.setSickTotal(sickTotal);
+        world.setContactGraph(ContactGraph.fromGroups(humans, households.values()));
+
+        return new Simulator(world, behaviourDistribution, pathogen);
+    }
+
+    /**
+     * Write the living population of the world to a population file, with the positions scaled from the area of each
+     * human's location to the area of the city, as they are placed in the city when the file is loaded.
+     * The households are the connected components of the world's contact graph, see
+     * {@link ContactGraph#getComponents()}, so a graph made from households is loaded back as the same graph.
+     * Humans outside the contact graph are written as their own household.
+     *
+     * @param population the path of the population file
+     * @throws NullPointerException if the given path is null
+     * @throws IOException if the file cannot be written
+     */
+    public void export(Path population) throws IOException {
+        Pane city = world.getCity().getArea();
+        List<Human> humans = world.getLocations().stream()
+                .flatMap(location -> location.getPopulation().stream())
+                .collect(Collectors.toList());
+
+        ContactGraph contactGraph = world.getContactGraph();
+        Map<Human, Integer> households = new HashMap<>();
+        // The components are numbered below the node count, so the single households are numbered from it.
+        int singles = 0;
+
+        if (contactGraph != null) {
+            List<Human> nodes = contactGraph.getHumans();
+            int[] components = contactGraph.getComponents();
+
+            for (int node = 0; node < nodes.size(); node++) {
+                households.put(nodes.get(node), components[node]);
+            }
+
+            singles = nodes.size();
         }
 
-        this.statistics = new Statistics(world);
-        this.simulationState = new SimpleObjectProperty<>(PAUSE);
-        this.player = new Player(this);
+        try (PopulationWriter writer = new PopulationWriter(population, city.getPrefWidth(), city.getPrefHeight(),
+                humans.size())) {
+            for (int i = 0; i < humans.size(); i++) {
+                Human human = humans.get(i);
+                Model model = human.getModel();
+                Pane area = human.getLocation().getArea();
+
+                writer.write(model.getCenterX() * city.getPrefWidth() / area.getPrefWidth(),
+                        model.getCenterY() * city.getPrefHeight() / area.getPrefHeight(),
+                        model.getVelocity().getX(), model.getVelocity().getY(),
+                        model.getBehaviour(), human.getStatus(), households.getOrDefault(human, singles + i),
+                        human.isSick() ? human.getPathogen().getLifetime() : 0,
+                        human.getImmuneSystem().getImmunityDuration());
+            }
+        }
+    }
+
+    /**
+     * Write a checkpoint of this simulator's state, i.e., the world time, the population, the contact graph,
+     * the compartments and the random generator. See {@link Checkpoint} for the format.
+     *
+     * @param checkpoint the path of the checkpoint file
+     * @param compressed whether the checkpoint is deflated
+     * @throws NullPointerException if the given path is null
+     * @throws IOException if the file cannot be written
+     */
+    public void checkpoint(Path checkpoint, boolean compressed) throws IOException {
+        Checkpoint.write(this, checkpoint, compressed);
+    }
+
+    /**
+     * Restore this simulator to a checkpoint, after which it makes the same updates as the simulator the checkpoint
+     * was written from, given the same parameters and elapsed seconds.
+     *
+     * @param checkpoint the path of the checkpoint file
+     * @throws NullPointerException if the given path is null
+     * @throws IOException if the file cannot be read or is not a checkpoint of this simulator's world
+     */
+    public void restore(Path checkpoint) throws IOException {
+        Checkpoint.read(this, checkpoint);
+        reproduction.reset();
     }
 
     //---------------------------- Simulator actions ----------------------------
 
     /**
-     * Perform all updates for the simulator given the elapsed seconds.
+     * Perform all updates for the simulator given the elapsed seconds. The simulator's generator, strains and logs are
+     * bound to the current thread for the update, and the bindings from before are bound again after it, so that
+     * simulators updated in turn on the same thread do not draw from or record into each other.
      *
      * @param elapsedSeconds the number of seconds elapsed since the world was last updated.
+     * @throws UncheckedIOException if the update cannot be recorded
      */
     public void update(double elapsedSeconds) {
+        RandomGenerator generator = Probability.inUse();
+        Long seed = Probability.inUseCommon();
+        EventLog log = EventLog.inUse();
+        StrainRegistry registry = StrainRegistry.inUse();
+        InfectionTree tree = InfectionTree.inUse();
+
+        Probability.use(random);
+        Probability.useCommon(commonSeed);
+        EventLog.use(eventLog);
+        StrainRegistry.use(strains);
+        InfectionTree.use(reproduction.getInfectionTree());
+
+        try {
+            if (timeline != null) {
+                timeline.truncate();
+            }
+
+            engine.update(this, elapsedSeconds);
+            reproduction.update();
+
+            if (timeline != null) {
+                timeline.update();
+            }
+
+            if (recorder != null) {
+                try {
+                    recorder.record();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(Error.ERROR_TAG + " Update cannot be recorded.", e);
+                }
+            }
+        } finally {
+            Probability.use(generator);
+            Probability.useCommon(seed);
+            EventLog.use(log);
+            StrainRegistry.use(registry);
+            InfectionTree.use(tree);
+        }
+    }
+
+    /**
+     * Perform a single update with the number of seconds picked by the {@link #engine}.
+     *
+     * @return the number of seconds elapsed in the update
+     */
+    public double step() {
+        double elapsedSeconds = engine.next(this);
+        update(elapsedSeconds);
+        return elapsedSeconds;
+    }
+
+    /**
+     * Perform updates for the given elapsed seconds, using as many steps as the {@link #engine} requires.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since the world was last updated
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void advance(double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
+
+        double remainingSeconds = elapsedSeconds;
+
+        while (remainingSeconds > 0 && !ended()) {
+            double step = Math.min(engine.next(this), remainingSeconds);
+            update(step);
+            remainingSeconds -= step;
+        }
+    }
+
+    /**
+     * Perform all agent-based updates for the world given the elapsed seconds, without recording the statistics.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since the world was last updated
+     */
+    void agents(double elapsedSeconds) {
         worldBefore(elapsedSeconds);
         pathogen(elapsedSeconds);
         immuneSystem(elapsedSeconds);
         model(elapsedSeconds);
         worldAfter();
-
-        statistics.update();
     }
 
     //---------------------------- Helper methods ----------------------------
 
+    /**
+     * Create the population from the world's population and sick totals and the behaviour distribution.
+     * The sick start in the city, and the rest are spread evenly over the districts.
+     */
+    private void populate() {
+        for (int i = 0; i < world.getSickTotal(); i++) {
+            Human sick = new Human(world.getCity(), behaviourDistribution.sample(), i);
+            sick.setPathogen(pathogen.copy());
+            sick.status();
+            sick.getModel().fill();
+        }
+
+        List<Location> districts = world.getDistricts();
+
+        for (int i = 0; i < world.getPopulationTotal() - world.getSickTotal(); i++) {
+            new Human(districts.get(i % districts.size()), behaviourDistribution.sample(), world.getSickTotal() + i);
+        }
+    }
+
     /**
      * Perform all initial world changes in the elapsed seconds.
+     * Travel between districts happens here, before the locations are stepped independently.
      *
      * @param elapsedSeconds the number of seconds elapsed since the world was last updated
      */
     private void worldBefore(double elapsedSeconds) {
         world.live(elapsedSeconds);
-        world.collisions();
+        world.travel(elapsedSeconds);
+        world.spatialHash();
     }
 
     /**
      * Changes that happen after human and pathogen behaviour.
+     * Wall collisions are resolved as the humans move, so that no human is shown past a wall.
      */
     private void worldAfter() {
         world.contactNetwork();
@@ -112,20 +447,19 @@ public class Simulator {
      * @param elapsedSeconds the number of seconds elapsed since the pathogen was last updated
      */
     private void pathogen(double elapsedSeconds) {
-        new ArrayList<>(world.getCity().getPopulation()).stream().filter(Human::isSick).
-                forEach(human -> human.pathogen(elapsedSeconds));
-        new ArrayList<>(world.getQuarantine().getPopulation()).stream().filter(Human::isSick).
-                forEach(human -> human.pathogen(elapsedSeconds));
+        world.getLocations().forEach(location -> transmission.spread(location, elapsedSeconds));
     }
 
     /**
-     * Perform all immune system changes in the elapsed seconds.
+     * Perform all immune system changes in the elapsed seconds. The immune systems are updated on the updating thread,
+     * since they record events with the bindings of {@link #update(double)}, which are
+     * bound to that thread only.
      *
      * @param elapsedSeconds the number of seconds elapsed since the human immune systems were last updated
      */
     private void immuneSystem(double elapsedSeconds) {
-        world.getCity().getPopulation().parallelStream().forEach(human -> human.immuneSystem(elapsedSeconds));
-        world.getQuarantine().getPopulation().parallelStream().forEach(human -> human.immuneSystem(elapsedSeconds));
+        world.getLocations().forEach(location ->
+                location.getPopulation().forEach(human -> human.immuneSystem(elapsedSeconds)));
     }
 
     /**
@@ -134,8 +468,9 @@ public class Simulator {
      * @param elapsedSeconds the number of seconds elapsed since the human models were last updated
      */
     private void model(double elapsedSeconds) {
-        world.getCity().getPopulation().forEach(human -> human.model(elapsedSeconds));
-        world.getQuarantine().getPopulation().forEach(human -> human.model(elapsedSeconds));
+        world.getLocations().forEach(location -> location.getPopulation().forEach(Human::model));
+        world.adjust();
+        world.move(elapsedSeconds);
     }
 
     /**
@@ -154,12 +489,61 @@ public class Simulator {
      * @return a reset version of this simulator
      */
     public Simulator reset() {
-        World world = new World(this.world.getPopulationTotal(),
-                this.world.getSickTotal(),
-                this.world.getQuarantineCapacity(),
-                this.world.getDetectionRate(),
-                this.world.getTestingFrequency());
-        return new Simulator(world, behaviourDistribution, pathogen);
+        return copy(world.reset(), behaviourDistribution);
+    }
+
+    /**
+     * Create a simulator of the given world with the same pathogen and settings as this simulator.
+     * The contact graph of this simulator's world is carried over to the humans with the same ids.
+     *
+     * @param world the simulated world
+     * @param behaviourDistribution distribution of behaviours in the population
+     * @return a new simulator
+     */
+    Simulator copy(World world, BehaviourDistribution behaviourDistribution) {
+        Simulator simulator = new Simulator(world, behaviourDistribution, pathogen, new Well19937c(), commonSeed,
+                false, true);
+        world.copyContactGraph(this.world);
+        return settings(simulator);
+    }
+
+    /**
+     * Create a headless simulator of the given world with the same pathogen and settings as this simulator, restored
+     * to a checkpoint body saved from this simulator. No population is created for the world, since it gets the
+     * population, contact graph and random generator of the body.
+     *
+     * @param world the simulated world, with no humans
+     * @param behaviourDistribution distribution of behaviours in the population
+     * @param body a checkpoint body at its start
+     * @param redraw whether the behaviours of the humans are drawn again from the given behaviour distribution
+     * @return a new simulator
+     * @throws IOException if the body is corrupt or does not fit the given world
+     */
+    Simulator branch(World world, BehaviourDistribution behaviourDistribution, ByteBuffer body, boolean redraw)
+            throws IOException {
+        Simulator simulator = new Simulator(world, behaviourDistribution, pathogen, new Well19937c(), commonSeed,
+                true, false);
+        Checkpoint.restore(simulator, body, redraw);
+        simulator.getReproduction().reset();
+        return settings(simulator);
+    }
+
+    /**
+     * Give a simulator the settings of this simulator, i.e., its transmission, engine, incubation period, tolerance
+     * and mutations.
+     *
+     * @param simulator a simulator of a world with a contact graph if this simulator's world has one
+     * @return the given simulator
+     */
+    private Simulator settings(Simulator simulator) {
+        simulator.setTransmission(transmission);
+        simulator.setEngine(engine);
+        simulator.getCompartments().setIncubationPeriod(compartments.getIncubationPeriod());
+        simulator.getStepper().setTolerance(stepper.getTolerance());
+        simulator.getStrains().setMutationRate(strains.getMutationRate());
+        simulator.getStrains().setMutationSize(strains.getMutationSize());
+        simulator.getStrains().setCrossImmunity(strains.getCrossImmunity());
+        return simulator;
     }
 
     //---------------------------- Getters & Setters ----------------------------
@@ -201,12 +585,21 @@ public class Simulator {
     /**
      * Getter for {@link #player}.
      *
-     * @return {@link #player}
+     * @return {@link #player}, or null if this simulator is headless
      */
     public Player getPlayer() {
         return player;
     }
 
+    /**
+     * Getter for {@link #stepper}.
+     *
+     * @return {@link #stepper}
+     */
+    public Stepper getStepper() {
+        return stepper;
+    }
+
     /**
      * Getter for {@link #statistics}.
      *
@@ -216,6 +609,24 @@ public class Simulator {
         return statistics;
     }
 
+    /**
+     * Getter for {@link #strains}.
+     *
+     * @return {@link #strains}
+     */
+    public StrainRegistry getStrains() {
+        return strains;
+    }
+
+    /**
+     * Getter for {@link #reproduction}.
+     *
+     * @return {@link #reproduction}
+     */
+    public Reproduction getReproduction() {
+        return reproduction;
+    }
+
     /**
      * Getter for {@link #world}.
      *
@@ -243,5 +654,167 @@ public class Simulator {
         return pathogen;
     }
 
-}
+    /**
+     * Getter for {@link #transmission}.
+     *
+     * @return {@link #transmission}
+     */
+    public Transmission getTransmission() {
+        return transmission;
+    }
+
+    /**
+     * Setter for {@link #transmission}.
+     *
+     * @param transmission {@link #transmission}
+     * @throws NullPointerException if the given parameter is null
+     * @throws IllegalStateException if the given transmission is {@link Transmission#NETWORK} and the world has no
+     *                               contact graph
+     */
+    public void setTransmission(Transmission transmission) {
+        Objects.requireNonNull(transmission, Error.getNullMsg("transmission"));
 
+        if (transmission == Transmission.NETWORK && world.getContactGraph() == null) {
+            throw new IllegalStateException(Error.ERROR_TAG + " Network transmission needs a contact graph.");
+        }
+
+        this.transmission = transmission;
+    }
+
+    /**
+     * Getter for {@link #engine}.
+     *
+     * @return {@link #engine}
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Setter for {@link #engine}.
+     *
+     * @param engine {@link #engine}
+     * @throws NullPointerException if the given parameter is null
+     */
+    public void setEngine(Engine engine) {
+        Objects.requireNonNull(engine, Error.getNullMsg("engine"));
+        this.engine = engine;
+    }
+
+    /**
+     * Getter for {@link #compartments}.
+     *
+     * @return {@link #compartments}
+     */
+    public Compartments getCompartments() {
+        return compartments;
+    }
+
+    /**
+     * Getter for {@link #random}.
+     *
+     * @return {@link #random}
+     */
+    public RandomGenerator getRandom() {
+        return random;
+    }
+
+    /**
+     * Setter for {@link #random}. The generator is used from the next update.
+     *
+     * @param random {@link #random}
+     * @throws NullPointerException if the given parameter is null
+     */
+    public void setRandom(RandomGenerator random) {
+        Objects.requireNonNull(random, Error.getNullMsg("random generator"));
+        this.random = random;
+    }
+
+    /**
+     * Getter for {@link #commonSeed}.
+     *
+     * @return {@link #commonSeed}, or null if the draws for the humans are made with {@link #random}
+     */
+    public Long getCommonSeed() {
+        return commonSeed;
+    }
+
+    /**
+     * Setter for {@link #commonSeed}. The common random numbers are used from the next update.
+     *
+     * @param commonSeed {@link #commonSeed}, or null to make the draws for the humans with {@link #random}
+     */
+    public void setCommonSeed(Long commonSeed) {
+        this.commonSeed = commonSeed;
+    }
+
+    /**
+     * Seed {@link #random}, so that the same updates are made again from the same state.
+     *
+     * @param seed a seed
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Getter for {@link #recorder}.
+     *
+     * @return {@link #recorder}, or null if the updates are not recorded
+     */
+    public TrajectoryRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Setter for {@link #recorder}. Every update from then on is recorded as a frame.
+     *
+     * @param recorder {@link #recorder}, or null to stop recording
+     */
+    public void setRecorder(TrajectoryRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Getter for {@link #timeline}.
+     *
+     * @return {@link #timeline}, or null if the updates are not kept
+     */
+    public Timeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Setter for {@link #timeline}. The updates from then on are kept as frames of the timeline,
+     * at most once per {@link Timeline#getInterval()} of world time.
+     *
+     * @param timeline {@link #timeline}, or null to stop keeping the updates
+     * @throws IllegalArgumentException if the given timeline is of another simulator
+     */
+    public void setTimeline(Timeline timeline) {
+        if (timeline != null && timeline.getSimulator() != this) {
+            throw new IllegalArgumentException(Error.ERROR_TAG + " Given timeline is of another simulator.");
+        }
+
+        this.timeline = timeline;
+    }
+
+    /**
+     * Getter for {@link #eventLog}.
+     *
+     * @return {@link #eventLog}, or null if the events are not logged
+     */
+    public EventLog getEventLog() {
+        return eventLog;
+    }
+
+    /**
+     * Setter for {@link #eventLog}. The events of every update from then on are appended to the log.
+     *
+     * @param eventLog {@link #eventLog}, or null to stop logging
+     */
+    public void setEventLog(EventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+}
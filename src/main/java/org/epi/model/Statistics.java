@@ -81,10 +81,9 @@ public class Statistics {
      * @return the number of humans in the world with the given status
      */
     private int getStatusCount(Status status) {
-        int cityCount = world.getCity().getPopulation().filtered(human -> human.getStatus() == status).size();
-        int quarantineCount = world.getQuarantine().getPopulation().filtered(human -> human.getStatus() == status).size();
-
-        return cityCount + quarantineCount;
+        return world.getLocations().stream()
+                .mapToInt(location -> location.getPopulation().filtered(human -> human.getStatus() == status).size())
+                .sum();
     }
 
     //---------------------------- Simulator actions ----------------------------
@@ -95,19 +94,42 @@ public class Statistics {
      * @throws NullPointerException if the given parameters is null
      */
     public void update() {
-        healthy.set(getStatusCount(Status.HEALTHY));
-        sick.set(getStatusCount(Status.SICK));
-        recovered.set(getStatusCount(Status.RECOVERED));
-        deceased.set(world.getPopulationTotal() - healthy.get() - sick.get() - recovered.get());
+        record(getStatusCount(Status.HEALTHY), getStatusCount(Status.SICK), getStatusCount(Status.RECOVERED));
+    }
+
+    /**
+     * Record the given population counts at the current time of the world. The rest of the population is deceased.
+     *
+     * @param healthy the number of healthy humans
+     * @param sick the number of sick humans
+     * @param recovered the number of recovered humans
+     */
+    public void record(int healthy, int sick, int recovered) {
+        this.healthy.set(healthy);
+        this.sick.set(sick);
+        this.recovered.set(recovered);
+        this.deceased.set(world.getPopulationTotal() - healthy - sick - recovered);
 
         double time = world.getTotalElapsedSeconds();
 
-        dataSeriesHealthy.getData().add(new XYChart.Data<>(time, healthy.get()));
-        dataSeriesSick.getData().add(new XYChart.Data<>(time, sick.get()));
-        dataSeriesRecovered.getData().add(new XYChart.Data<>(time, recovered.get()));
+        dataSeriesHealthy.getData().add(new XYChart.Data<>(time, healthy));
+        dataSeriesSick.getData().add(new XYChart.Data<>(time, sick));
+        dataSeriesRecovered.getData().add(new XYChart.Data<>(time, recovered));
         dataSeriesDeceased.getData().add(new XYChart.Data<>(time, deceased.get()));
     }
 
+    /**
+     * Remove the recorded population counts from the given time on, e.g. when the world is rewound to that time.
+     *
+     * @param time a world time in seconds
+     */
+    public void truncate(double time) {
+        dataSeriesHealthy.getData().removeIf(data -> data.getXValue() >= time);
+        dataSeriesSick.getData().removeIf(data -> data.getXValue() >= time);
+        dataSeriesRecovered.getData().removeIf(data -> data.getXValue() >= time);
+        dataSeriesDeceased.getData().removeIf(data -> data.getXValue() >= time);
+    }
+
     //---------------------------- Getters & Setters ----------------------------
 
     /**
@@ -0,0 +1,147 @@
+package org.epi.model;
+
+import org.epi.model.human.Human;
+import org.epi.model.world.Location;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+
+import java.util.Objects;
+
+import static org.epi.model.human.Model.HUMAN_DIAMETER;
+
+/** Adaptive time stepper for a simulator.
+ * Picks the number of seconds for each update from the speed of the humans and the upcoming events in the world.*/
+public class Stepper {
+
+    /** The default distance a human may move in a single update during an outbreak, in human diameters.*/
+    public static final double DEF_TOLERANCE = 0.25;
+    /** The shortest step in seconds.*/
+    public static final double MIN_STEP = 1 / 1000.0;
+    /** The longest step in seconds, taken when the pathogen cannot spread.*/
+    public static final double MAX_STEP = 5;
+
+    /** Backreference to the simulator for this stepper.*/
+    private final Simulator simulator;
+
+    /** The distance a human may move in a single update during an outbreak, in human diameters.*/
+    private final DoubleProperty tolerance;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a stepper for a simulator.
+     *
+     * @param simulator the simulator for this stepper
+     * @throws NullPointerException if the given parameter is null
+     */
+    public Stepper(Simulator simulator) {
+        Objects.requireNonNull(simulator, Error.getNullMsg("simulator"));
+        this.simulator = simulator;
+        this.tolerance = new SimpleDoubleProperty(DEF_TOLERANCE);
+    }
+
+    //---------------------------- Simulator actions ----------------------------
+
+    /**
+     * Get the number of seconds for the next update of the simulator.
+     * The step never passes a testing, the end of a pathogen's lifespan or the end of an immunity. While the pathogen
+     * can spread in a location, the step is refined so that no human in that location moves further than the
+     * tolerance. Otherwise, the humans only need to be updated for the upcoming events.
+     *
+     * @return the number of seconds for the next update
+     */
+    public double next() {
+        World world = simulator.getWorld();
+        double step = Math.min(MAX_STEP, world.getTimeToTest());
+
+        for (Location location : world.getLocations()) {
+            step = Math.min(step, nextEvent(location));
+
+            if (isSpreading(location)) {
+                double speed = maxSpeed(location);
+
+                if (speed > 0) {
+                    step = Math.min(step, tolerance.get() * HUMAN_DIAMETER / speed);
+                }
+            }
+        }
+
+        return Math.max(step, MIN_STEP);
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Get the number of seconds until a pathogen dies or an immunity is lost in the given location.
+     *
+     * @param location a location
+     * @return the number of seconds until the next pathogen or immune system event, or {@value MAX_STEP} if there is none
+     */
+    private static double nextEvent(Location location) {
+        double result = MAX_STEP;
+
+        for (Human human : location.getPopulation()) {
+            if (human.isSick()) {
+                result = Math.min(result, human.getPathogen().getLifespan() - human.getPathogen().getLifetime());
+            }
+
+            if (human.getImmuneSystem().isImmune()) {
+                result = Math.min(result, human.getImmuneSystem().getImmunityDuration());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Check if the pathogen can spread in the given location, which requires both sick and non-sick humans.
+     *
+     * @param location a location
+     * @return true if the location has both sick and non-sick humans, otherwise false
+     */
+    private static boolean isSpreading(Location location) {
+        boolean hasSick = location.getPopulation().stream().anyMatch(Human::isSick);
+        boolean hasNonSick = location.getPopulation().stream().anyMatch(human -> !human.isSick());
+
+        return hasSick && hasNonSick;
+    }
+
+    /**
+     * Get the highest speed of the humans in the given location.
+     *
+     * @param location a location
+     * @return the highest speed in pixels per second
+     */
+    private static double maxSpeed(Location location) {
+        return location.getPopulation().stream()
+                .mapToDouble(human -> human.getModel().getVelocity().magnitude())
+                .max()
+                .orElse(0);
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Getter for {@link #tolerance}.
+     *
+     * @return {@link #tolerance}
+     */
+    public double getTolerance() {
+        return tolerance.get();
+    }
+
+    /**
+     * Setter for {@link #tolerance}.
+     *
+     * @param tolerance {@link #tolerance}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setTolerance(double tolerance) {
+        Error.nonNegativeCheck(tolerance);
+        this.tolerance.set(tolerance);
+    }
+
+}
@@ -0,0 +1,543 @@
+package org.epi.model;
+
+import org.epi.model.human.Pathogen;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+
+import org.apache.commons.math3.random.Well19937c;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * A headless sweep of the parameters of a simulation, i.e., of a world, behaviour distribution and pathogen, over
+ * their ranges.
+ *
+ * The design points are spread over the ranges by a {@link Design}, and at each point the simulation is run as
+ * {@link Replicates} with the same seeds and, by default, common random numbers, so that the differences between
+ * points are not masked by different draws.
+ * The points are scheduled on a work-stealing pool, since their run times vary widely with the parameters, and the
+ * summary of each point is appended to the results table as soon as the point is done. The points only depend on the
+ * design and the seed of the sweep, so an interrupted sweep resumes by running again into the same table: the points
+ * already in the table are skipped, after checking that they are the points of this sweep.
+ */
+public class Sweep {
+
+    /** The default number of design points.*/
+    public static final int DEF_POINTS = 64;
+
+    /** The default number of replicates at each design point.*/
+    public static final int DEF_REPLICATES = 10;
+
+    /** The names of the columns after the parameters, which are the means over the replicates but the first.*/
+    private static final String[] STATISTICS = {"replicates", "peak_sick", "peak_time", "final_deceased",
+            "final_recovered", "duration", "ended"};
+
+    /** The separator of the columns.*/
+    private static final String SEPARATOR = ",";
+
+    /** The world every design point starts from a reset copy of, with a copy of its contact graph if it has one.*/
+    private final World world;
+
+    /** The behaviour distribution every design point starts from a copy of.*/
+    private final BehaviourDistribution behaviourDistribution;
+
+    /** The pathogen every design point starts from a copy of.*/
+    private final Pathogen pathogen;
+
+    /** The smallest and largest value of each swept parameter, in the order the parameters are applied.*/
+    private final Map<Parameter, double[]> ranges;
+
+    /** The way the design points are spread over the ranges.*/
+    private Design design;
+
+    /** The number of design points, of which a grid may use fewer, see {@link Design#GRID}.*/
+    private int points;
+
+    /** The number of replicates at each design point.*/
+    private int replicates;
+
+    /** The seed of the design and of the first replicate at each point.*/
+    private long seed;
+
+    /** The way the pathogen is transmitted in every replicate.*/
+    private Transmission transmission;
+
+    /** The way every replicate advances its world.*/
+    private Engine engine;
+
+    /** The longest simulated time of a replicate in seconds.*/
+    private double duration;
+
+    /** The number of threads the design points run on.*/
+    private int threads;
+
+    /** Whether the draws for the humans of a replicate are common random numbers keyed by its seed.*/
+    private boolean isCommon;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a sweep of a simulation with no swept parameters.
+     *
+     * @param world the world every design point starts from a reset copy of, with a copy of its contact graph
+     * @param behaviourDistribution the behaviour distribution every design point starts from a copy of
+     * @param pathogen the pathogen every design point starts from a copy of
+     * @throws NullPointerException if any of the given parameters are null
+     */
+    public Sweep(World world, BehaviourDistribution behaviourDistribution, Pathogen pathogen) {
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+        Objects.requireNonNull(behaviourDistribution, Error.getNullMsg("behaviour distribution"));
+        Objects.requireNonNull(pathogen, Error.getNullMsg("pathogen"));
+
+        this.world = world;
+        this.behaviourDistribution = behaviourDistribution.copy();
+        this.pathogen = pathogen.copy();
+        this.ranges = new EnumMap<>(Parameter.class);
+        this.design = Design.LATIN_HYPERCUBE;
+        this.points = DEF_POINTS;
+        this.replicates = DEF_REPLICATES;
+        this.transmission = Transmission.CONTACT;
+        this.engine = Engine.AGENT;
+        this.duration = Replicates.DEF_DURATION;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.isCommon = true;
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Sweep a parameter over a range. An integer parameter is rounded to whole values.
+     *
+     * @param parameter the parameter
+     * @param min the smallest value of the parameter
+     * @param max the largest value of the parameter
+     * @throws NullPointerException if the given parameter is null
+     * @throws IllegalArgumentException if the largest value is less than the smallest
+     */
+    public void sweep(Parameter parameter, double min, double max) {
+        Objects.requireNonNull(parameter, Error.getNullMsg("parameter"));
+        Error.intervalCheck("largest value", min, Double.MAX_VALUE, max);
+
+        ranges.put(parameter, new double[] {min, max});
+    }
+
+    /**
+     * Run the replicates of every design point that is not yet in the given results table, and append their
+     * summaries to it as they are done.
+     *
+     * @param path the path of the results table, which is created if it does not exist
+     * @throws NullPointerException if the given path is null
+     * @throws IOException if the table cannot be read or written, or it holds the results of another sweep
+     * @throws IllegalStateException if no parameter is swept, the population total is swept below the population of
+     *                               the world's contact graph, a design point fails or the sweep is interrupted
+     */
+    public void run(Path path) throws IOException {
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+
+        if (ranges.isEmpty()) {
+            throw new IllegalStateException(Error.ERROR_TAG + " No parameter is swept.");
+        }
+
+        if (world.getContactGraph() != null && ranges.containsKey(Parameter.POPULATION_TOTAL)
+                && Math.round(ranges.get(Parameter.POPULATION_TOTAL)[0]) < world.getPopulationTotal()) {
+            throw new IllegalStateException(Error.ERROR_TAG
+                    + " The population total is swept below the population of the contact graph.");
+        }
+
+        double[][] values = getPoints();
+        String header = header();
+        BitSet done = resume(path, header, values);
+
+        ExecutorService executor = Executors.newWorkStealingPool(threads);
+        CompletionService<String> completions = new ExecutorCompletionService<>(executor);
+
+        try (BufferedWriter results = Files.newBufferedWriter(path, CREATE, APPEND)) {
+            if (Files.size(path) == 0) {
+                results.write(header);
+                results.newLine();
+                results.flush();
+            }
+
+            int submitted = 0;
+            for (int point = done.nextClearBit(0); point < values.length; point = done.nextClearBit(point + 1)) {
+                int index = point;
+                completions.submit(() -> run(index, values[index]));
+                submitted++;
+            }
+
+            for (int completed = 0; completed < submitted; completed++) {
+                results.write(completions.take().get());
+                results.newLine();
+                results.flush();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(Error.ERROR_TAG + " A design point failed to run.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(Error.ERROR_TAG + " Running the sweep was interrupted.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the values of the swept parameters at every design point.
+     *
+     * @return the values of each point, in the order the parameters are applied
+     */
+    public double[][] getPoints() {
+        double[][] unit = design.sample(ranges.size(), points, new Well19937c(seed));
+        double[][] values = new double[unit.length][ranges.size()];
+
+        for (int point = 0; point < unit.length; point++) {
+            int dimension = 0;
+
+            for (Map.Entry<Parameter, double[]> range : ranges.entrySet()) {
+                double min = range.getValue()[0];
+                double value = min + unit[point][dimension] * (range.getValue()[1] - min);
+                values[point][dimension++] = range.getKey().isInteger() ? Math.round(value) : value;
+            }
+        }
+
+        return values;
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Run the replicates of a design point on the current thread.
+     *
+     * @param point the index of the design point
+     * @param values the values of the swept parameters at the point
+     * @return the row of the point in the results table
+     */
+    private String run(int point, double[] values) {
+        // The reset world has no population of its own, so it holds the contact graph of this sweep's world, which
+        // each replicate copies over to its population by the ids of the humans.
+        World world = this.world.reset();
+        world.setContactGraph(this.world.getContactGraph());
+        BehaviourDistribution behaviourDistribution = this.behaviourDistribution.copy();
+        Pathogen pathogen = this.pathogen.copy();
+
+        int dimension = 0;
+        for (Parameter parameter : ranges.keySet()) {
+            parameter.apply(world, behaviourDistribution, pathogen, values[dimension++]);
+        }
+
+        Replicates replicates = new Replicates(world, behaviourDistribution, pathogen);
+        replicates.setTransmission(transmission);
+        replicates.setEngine(engine);
+        replicates.setDuration(duration);
+        replicates.setCommon(isCommon);
+
+        double[] sums = new double[STATISTICS.length - 1];
+        for (int i = 0; i < this.replicates; i++) {
+            Replicates.Replicate replicate = replicates.run(seed + i);
+
+            sums[0] += replicate.getPeakSick();
+            sums[1] += replicate.getPeakTime();
+            sums[2] += replicate.getFinalDeceased();
+            sums[3] += replicate.getFinalRecovered();
+            sums[4] += replicate.getDuration();
+            sums[5] += replicate.isEnded() ? 1 : 0;
+        }
+
+        StringBuilder row = new StringBuilder(prefix(point, values));
+        row.append(SEPARATOR).append(this.replicates);
+        for (double sum : sums) {
+            row.append(SEPARATOR).append(sum / this.replicates);
+        }
+
+        return row.toString();
+    }
+
+    /**
+     * Get the header row of the results table.
+     *
+     * @return the point index, the swept parameters and {@link #STATISTICS}
+     */
+    private String header() {
+        StringBuilder header = new StringBuilder("point");
+
+        for (Parameter parameter : ranges.keySet()) {
+            header.append(SEPARATOR).append(parameter.name().toLowerCase(Locale.ROOT));
+        }
+        for (String statistic : STATISTICS) {
+            header.append(SEPARATOR).append(statistic);
+        }
+
+        return header.toString();
+    }
+
+    /**
+     * Get the columns of a row of the results table that identify its design point.
+     *
+     * @param point the index of the design point
+     * @param values the values of the swept parameters at the point
+     * @return the point index and the values of the swept parameters
+     */
+    private static String prefix(int point, double[] values) {
+        StringBuilder prefix = new StringBuilder(Integer.toString(point));
+
+        for (double value : values) {
+            prefix.append(SEPARATOR).append(value);
+        }
+
+        return prefix.toString();
+    }
+
+    /**
+     * Find the design points already in a results table. A row cut short by an interrupted write is dropped from the
+     * table, so that the rows appended on resuming start on a line of their own.
+     *
+     * @param path the path of the results table
+     * @param header the header row of this sweep
+     * @param values the values of the swept parameters at every design point
+     * @return the indices of the design points in the table
+     * @throws IOException if the table cannot be read or written, or it holds the results of another sweep
+     */
+    private static BitSet resume(Path path, String header, double[][] values) throws IOException {
+        BitSet done = new BitSet(values.length);
+
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return done;
+        }
+
+        String table = Files.readString(path);
+        List<String> lines = table.lines().collect(Collectors.toCollection(ArrayList::new));
+        boolean isCut = !table.endsWith("\n");
+
+        if (isCut) {
+            lines.remove(lines.size() - 1);
+        }
+
+        if (lines.isEmpty()) {
+            lines.add(header);
+        } else if (!lines.get(0).equals(header)) {
+            throw new IOException(Error.ERROR_TAG + " Given results table is not of this sweep's parameters.");
+        }
+
+        for (String line : lines.subList(1, lines.size())) {
+            int point;
+            try {
+                point = Integer.parseInt(line.substring(0, Math.max(0, line.indexOf(SEPARATOR))));
+            } catch (NumberFormatException e) {
+                throw new IOException(Error.ERROR_TAG + " Given results table has an invalid row: " + line, e);
+            }
+
+            if (point < 0 || point >= values.length || !line.startsWith(prefix(point, values[point]) + SEPARATOR)) {
+                throw new IOException(Error.ERROR_TAG + " Given results table is not of this sweep's points.");
+            }
+
+            done.set(point);
+        }
+
+        if (isCut) {
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temporary, lines);
+            Files.move(temporary, path, REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+
+        return done;
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Getter for {@link #design}.
+     *
+     * @return {@link #design}
+     */
+    public Design getDesign() {
+        return design;
+    }
+
+    /**
+     * Setter for {@link #design}.
+     *
+     * @param design {@link #design}
+     * @throws NullPointerException if the given parameter is null
+     */
+    public void setDesign(Design design) {
+        Objects.requireNonNull(design, Error.getNullMsg("design"));
+        this.design = design;
+    }
+
+    /**
+     * Getter for {@link #points}.
+     *
+     * @return {@link #points}
+     */
+    public int getPointCount() {
+        return points;
+    }
+
+    /**
+     * Setter for {@link #points}.
+     *
+     * @param points {@link #points}
+     * @throws IllegalArgumentException if the given parameter is less than 1
+     */
+    public void setPointCount(int points) {
+        Error.intervalCheck("point count", 1, Integer.MAX_VALUE, points);
+        this.points = points;
+    }
+
+    /**
+     * Getter for {@link #replicates}.
+     *
+     * @return {@link #replicates}
+     */
+    public int getReplicates() {
+        return replicates;
+    }
+
+    /**
+     * Setter for {@link #replicates}.
+     *
+     * @param replicates {@link #replicates}
+     * @throws IllegalArgumentException if the given parameter is less than 1
+     */
+    public void setReplicates(int replicates) {
+        Error.intervalCheck("replicate count", 1, Integer.MAX_VALUE, replicates);
+        this.replicates = replicates;
+    }
+
+    /**
+     * Getter for {@link #seed}.
+     *
+     * @return {@link #seed}
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Setter for {@link #seed}.
+     *
+     * @param seed {@link #seed}
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Getter for {@link #transmission}.
+     *
+     * @return {@link #transmission}
+     */
+    public Transmission getTransmission() {
+        return transmission;
+    }
+
+    /**
+     * Setter for {@link #transmission}.
+     *
+     * @param transmission {@link #transmission}
+     * @throws NullPointerException if the given parameter is null
+     */
+    public void setTransmission(Transmission transmission) {
+        Objects.requireNonNull(transmission, Error.getNullMsg("transmission"));
+        this.transmission = transmission;
+    }
+
+    /**
+     * Getter for {@link #engine}.
+     *
+     * @return {@link #engine}
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Setter for {@link #engine}.
+     *
+     * @param engine {@link #engine}
+     * @throws NullPointerException if the given parameter is null
+     */
+    public void setEngine(Engine engine) {
+        Objects.requireNonNull(engine, Error.getNullMsg("engine"));
+        this.engine = engine;
+    }
+
+    /**
+     * Getter for {@link #duration}.
+     *
+     * @return {@link #duration}
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * Setter for {@link #duration}.
+     *
+     * @param duration {@link #duration}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setDuration(double duration) {
+        Error.nonNegativeCheck(duration);
+        this.duration = duration;
+    }
+
+    /**
+     * Getter for {@link #threads}.
+     *
+     * @return {@link #threads}
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Setter for {@link #threads}.
+     *
+     * @param threads {@link #threads}
+     * @throws IllegalArgumentException if the given parameter is less than 1
+     */
+    public void setThreads(int threads) {
+        Error.intervalCheck("thread count", 1, Integer.MAX_VALUE, threads);
+        this.threads = threads;
+    }
+
+    /**
+     * Getter for {@link #isCommon}.
+     *
+     * @return {@link #isCommon}
+     */
+    public boolean isCommon() {
+        return isCommon;
+    }
+
+    /**
+     * Setter for {@link #isCommon}.
+     *
+     * @param isCommon {@link #isCommon}
+     */
+    public void setCommon(boolean isCommon) {
+        this.isCommon = isCommon;
+    }
+
+}
@@ -0,0 +1,500 @@
+package org.epi.model;
+
+import org.epi.model.event.EventLog;
+import org.epi.util.Error;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The history of a simulation, which it can be rewound and fast-forwarded through.
+ *
+ * The simulator is kept as a frame at most once per {@link #interval} of world time, so that saving its state does not
+ * slow down every update. Every {@value KEYFRAME_INTERVAL}th frame is a keyframe with the
+ * deflated checkpoint body of the simulator's state, and every other frame is a delta with the deflated difference of
+ * its checkpoint body from the one of the frame before it. Seeking a frame restores the keyframe before it and applies
+ * at most {@value KEYFRAME_INTERVAL} deltas. When the frames take more memory than the budget, the oldest keyframe and
+ * its deltas are let go, so the memory held stays within the budget plus the frames from the oldest kept keyframe up
+ * to the current frame. Updating the simulator after rewinding it lets go of the frames after the current one, and of
+ * the infections and events recorded after the current frame.
+ */
+public class Timeline {
+
+    /** The number of frames from one keyframe to the next.*/
+    public static final int KEYFRAME_INTERVAL = 64;
+
+    /** The default memory budget in bytes.*/
+    public static final long DEF_BUDGET = 64L * 1024 * 1024;
+
+    /** The default world time between frames in seconds.*/
+    public static final double DEF_INTERVAL = 0.25;
+
+    /** The memory taken by a frame besides its data, in bytes.*/
+    private static final int FRAME_OVERHEAD = 48;
+
+    /** The event log size of a frame kept while the simulator recorded no events.*/
+    private static final long NONE = -1;
+
+    /** The simulator whose history this is.*/
+    private final Simulator simulator;
+
+    /** The kept frames, from the oldest kept keyframe on.*/
+    private final List<Frame> frames;
+
+    /** The memory budget in bytes.*/
+    private long budget;
+
+    /** The least world time between frames in seconds.*/
+    private double interval;
+
+    /** Whether the simulator has been updated since the frame it is at.*/
+    private boolean isAhead;
+
+    /** Whether the simulator has been restored to a frame and not updated since.*/
+    private boolean isRestored;
+
+    /** The memory taken by the kept frames in bytes.*/
+    private long size;
+
+    /** The index of the oldest kept frame.*/
+    private int first;
+
+    /** The index of the frame the simulator is at.*/
+    private int frame;
+
+    /** The checkpoint body of the frame the simulator is at.*/
+    private byte[] body;
+
+    /** The world time of the frame the simulator is at.*/
+    private final DoubleProperty time;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Start the history of a simulation at its current state, with the {@value DEF_BUDGET} byte budget.
+     *
+     * @param simulator the simulator whose history this is
+     * @throws NullPointerException if the given simulator is null
+     */
+    public Timeline(Simulator simulator) {
+        this(simulator, DEF_BUDGET);
+    }
+
+    /**
+     * Start the history of a simulation at its current state.
+     *
+     * @param simulator the simulator whose history this is
+     * @param budget the memory budget in bytes
+     * @throws NullPointerException if the given simulator is null
+     * @throws IllegalArgumentException if the given budget is negative
+     */
+    public Timeline(Simulator simulator, long budget) {
+        Objects.requireNonNull(simulator, Error.getNullMsg("simulator"));
+        Error.nonNegativeCheck(budget);
+
+        this.simulator = simulator;
+        this.budget = budget;
+        this.interval = DEF_INTERVAL;
+        this.frames = new ArrayList<>();
+        this.time = new SimpleDoubleProperty();
+        this.frame = -1;
+
+        record();
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Add the current state of the simulator as a frame if at least {@link #interval} of world time has passed since
+     * the current frame, otherwise only note that the simulator is ahead of the current frame.
+     */
+    public void update() {
+        if (simulator.getWorld().getTotalElapsedSeconds() - time.get() >= interval) {
+            record();
+        } else {
+            isAhead = true;
+        }
+    }
+
+    /**
+     * Add the current state of the simulator as a frame if it has been updated since the current frame,
+     * e.g. when it is paused, so that the newest frame is the state it was paused at.
+     */
+    public void flush() {
+        if (isAhead) {
+            record();
+        }
+    }
+
+    /**
+     * Add the current state of the simulator as the frame after the current one,
+     * letting go of any frames after the current one.
+     */
+    public void record() {
+        truncate();
+
+        byte[] body = Checkpoint.save(simulator).array();
+        long events = simulator.getEventLog() != null ? simulator.getEventLog().getSize() : NONE;
+        frame++;
+
+        Frame next;
+        if (frame % KEYFRAME_INTERVAL == 0) {
+            next = new Frame(simulator.getWorld().getTotalElapsedSeconds(), true, body.length, events,
+                    Checkpoint.deflate(body));
+        } else {
+            next = new Frame(simulator.getWorld().getTotalElapsedSeconds(), false, body.length, events,
+                    Checkpoint.deflate(difference(this.body, body)));
+        }
+
+        frames.add(next);
+        size += next.getSize();
+        this.body = body;
+        isAhead = false;
+        time.set(next.time);
+
+        evict();
+    }
+
+    /**
+     * Let go of the frames after the current one, of the infections after it in the simulator's {@link Reproduction}
+     * and of the events recorded after it in the simulator's {@link EventLog}, before the simulator takes another
+     * course from the current frame it was restored to. Nothing is let go if it has not been restored.
+     * The events are those recorded since the frame was kept, so no events are let go if the simulator did not record
+     * into the same log then.
+     *
+     * @throws UncheckedIOException if the event log cannot be truncated
+     */
+    public void truncate() {
+        if (!isRestored) {
+            return;
+        }
+
+        isRestored = false;
+
+        while (getEndFrame() > frame) {
+            size -= frames.remove(frames.size() - 1).getSize();
+        }
+
+        simulator.getReproduction().truncate(time.get());
+
+        EventLog eventLog = simulator.getEventLog();
+        long events = get(frame).events;
+
+        if (eventLog != null && events != NONE) {
+            try {
+                eventLog.truncate(Math.min(events, eventLog.getSize()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(Error.ERROR_TAG + " Event log cannot be truncated.", e);
+            }
+        }
+    }
+
+    /**
+     * Restore the simulator to a kept frame.
+     *
+     * @param frame the index of a kept frame
+     * @throws IllegalArgumentException if the frame is not kept
+     */
+    public void seek(int frame) {
+        Error.intervalCheck("frame", first, getEndFrame(), frame);
+
+        if (frame == this.frame && !isAhead) {
+            return;
+        }
+
+        int keyframe = frame;
+        while (!get(keyframe).isKeyframe) {
+            keyframe--;
+        }
+
+        try {
+            byte[] body;
+            int next;
+
+            if (this.frame >= keyframe && this.frame < frame) {
+                body = this.body;
+                next = this.frame + 1;
+            } else {
+                Frame key = get(keyframe);
+                body = Checkpoint.inflate(key.data, 0, key.data.length, key.bodySize);
+                next = keyframe + 1;
+            }
+
+            for (int i = next; i <= frame; i++) {
+                Frame delta = get(i);
+                body = difference(body, Checkpoint.inflate(delta.data, 0, delta.data.length, delta.bodySize));
+            }
+
+            simulator.getStatistics().truncate(get(frame).time);
+            Checkpoint.restore(simulator, ByteBuffer.wrap(body), false);
+
+            this.body = body;
+            this.frame = frame;
+            isAhead = false;
+            isRestored = true;
+            time.set(get(frame).time);
+        } catch (IOException e) {
+            throw new IllegalStateException(Error.ERROR_TAG + " Timeline frame cannot be restored: " + frame, e);
+        }
+    }
+
+    /**
+     * Restore the simulator to the last kept frame at or before the given world time,
+     * or the oldest kept frame if there is none.
+     *
+     * @param time a world time in seconds
+     */
+    public void seekTime(double time) {
+        int low = first;
+        int high = getEndFrame();
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (get(middle).time <= time) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        seek(low);
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Let go of the oldest keyframe and its deltas while the kept frames take more memory than the budget,
+     * unless the current frame is one of them. The frames are let go together, so the kept frames are shifted once
+     * per keyframe rather than once per frame.
+     */
+    private void evict() {
+        while (size > budget) {
+            int next = first + 1;
+
+            while (next <= frame && !get(next).isKeyframe) {
+                next++;
+            }
+
+            if (next > frame) {
+                return;
+            }
+
+            List<Frame> evicted = frames.subList(0, next - first);
+            for (Frame evictedFrame : evicted) {
+                size -= evictedFrame.getSize();
+            }
+            evicted.clear();
+
+            first = next;
+        }
+    }
+
+    /**
+     * Get a kept frame.
+     *
+     * @param frame the index of a kept frame
+     * @return the frame
+     */
+    private Frame get(int frame) {
+        return frames.get(frame - first);
+    }
+
+    /**
+     * Get the byte-wise difference of two checkpoint bodies, which is mostly zeros for bodies of consecutive frames
+     * and gives either body from the other.
+     *
+     * @param from a checkpoint body
+     * @param to another checkpoint body, or a difference
+     * @return the difference, as long as the second body
+     */
+    private static byte[] difference(byte[] from, byte[] to) {
+        byte[] difference = to.clone();
+
+        for (int i = 0; i < Math.min(from.length, to.length); i++) {
+            difference[i] ^= from[i];
+        }
+
+        return difference;
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Getter for {@link #simulator}.
+     *
+     * @return {@link #simulator}
+     */
+    public Simulator getSimulator() {
+        return simulator;
+    }
+
+    /**
+     * Getter for {@link #frame}.
+     *
+     * @return {@link #frame}
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Getter for {@link #first}.
+     *
+     * @return {@link #first}
+     */
+    public int getStartFrame() {
+        return first;
+    }
+
+    /**
+     * Get the index of the newest kept frame.
+     *
+     * @return the index of the newest kept frame
+     */
+    public int getEndFrame() {
+        return first + frames.size() - 1;
+    }
+
+    /**
+     * Get the world time of the oldest kept frame.
+     *
+     * @return the world time of the oldest kept frame in seconds
+     */
+    public double getStartTime() {
+        return frames.get(0).time;
+    }
+
+    /**
+     * Get the world time of the newest kept frame.
+     *
+     * @return the world time of the newest kept frame in seconds
+     */
+    public double getEndTime() {
+        return frames.get(frames.size() - 1).time;
+    }
+
+    /**
+     * Getter for {@link #time}.
+     *
+     * @return {@link #time}
+     */
+    public double getTime() {
+        return time.get();
+    }
+
+    /**
+     * Getter for {@link #time} {@link DoubleProperty}.
+     *
+     * @return {@link #time}
+     */
+    public DoubleProperty timeProperty() {
+        return time;
+    }
+
+    /**
+     * Getter for {@link #size}.
+     *
+     * @return {@link #size}
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Getter for {@link #budget}.
+     *
+     * @return {@link #budget}
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Setter for {@link #budget}. Frames are let go right away if they take more memory than the budget.
+     *
+     * @param budget {@link #budget}
+     * @throws IllegalArgumentException if the given budget is negative
+     */
+    public void setBudget(long budget) {
+        Error.nonNegativeCheck(budget);
+        this.budget = budget;
+        evict();
+    }
+
+    /**
+     * Getter for {@link #interval}.
+     *
+     * @return {@link #interval}
+     */
+    public double getInterval() {
+        return interval;
+    }
+
+    /**
+     * Setter for {@link #interval}. An interval of 0 keeps every update of the simulator.
+     *
+     * @param interval {@link #interval}
+     * @throws IllegalArgumentException if the given interval is negative
+     */
+    public void setInterval(double interval) {
+        Error.nonNegativeCheck(interval);
+        this.interval = interval;
+    }
+
+    /**
+     * A kept frame of a timeline.
+     */
+    private static class Frame {
+
+        /** The world time of this frame.*/
+        private final double time;
+
+        /** Whether this frame is a keyframe.*/
+        private final boolean isKeyframe;
+
+        /** The size of the checkpoint body of this frame in bytes.*/
+        private final int bodySize;
+
+        /** The size of the simulator's event log when this frame was kept in bytes, or {@link #NONE} if none.*/
+        private final long events;
+
+        /** The deflated checkpoint body of a keyframe, or deflated difference of a delta.*/
+        private final byte[] data;
+
+        /**
+         * Create a frame.
+         *
+         * @param time the world time of the frame
+         * @param isKeyframe whether the frame is a keyframe
+         * @param bodySize the size of the checkpoint body of the frame in bytes
+         * @param events the size of the simulator's event log when the frame was kept in bytes, or {@link #NONE}
+         * @param data the deflated checkpoint body of a keyframe, or deflated difference of a delta
+         */
+        private Frame(double time, boolean isKeyframe, int bodySize, long events, byte[] data) {
+            this.time = time;
+            this.isKeyframe = isKeyframe;
+            this.bodySize = bodySize;
+            this.events = events;
+            this.data = data;
+        }
+
+        /**
+         * Get the memory taken by this frame.
+         *
+         * @return the memory taken in bytes
+         */
+        private long getSize() {
+            return FRAME_OVERHEAD + data.length;
+        }
+
+    }
+
+}
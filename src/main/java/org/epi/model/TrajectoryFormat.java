@@ -0,0 +1,80 @@
+package org.epi.model;
+
+import org.epi.util.Error;
+
+import java.io.IOException;
+
+/**
+ * Utility class describing the binary trajectory file format, in which a run is recorded frame by frame.
+ *
+ * A trajectory file starts with a header of the {@value MAGIC} magic number (int), the format version (int), the
+ * position quantum in pixels (double), the number of locations (int) and the number of recorded humans (int),
+ * followed by the id (int) and {@link org.epi.model.human.Behaviour} ordinal (byte) of each recorded human.
+ * It is followed by the frames, each of which starts with its size in bytes (int), its type (byte) and the world
+ * time (double), followed by one entry per recorded human in the order of the header:
+ * <ul>
+ *     <li>the location index (byte), {@value DECEASED} if the human is deceased</li>
+ *     <li>the {@link org.epi.model.human.Status} ordinal (byte)</li>
+ *     <li>in a {@value KEYFRAME} frame, the quantised position (ints)</li>
+ *     <li>in a {@value DELTA} frame, the change of the quantised position since the previous frame (shorts),
+ *     or {@value ESCAPE} followed by the quantised position (ints) if the change does not fit in a short</li>
+ * </ul>
+ * Every {@value KEYFRAME_INTERVAL}th frame is a keyframe, so that any frame can be decoded from the keyframe before it.
+ * All values are big-endian.
+ */
+public class TrajectoryFormat {
+
+    /** The magic number at the start of every trajectory file, "EPIT" in ASCII.*/
+    public static final int MAGIC = 0x45504954;
+
+    /** The current version of the format.*/
+    public static final int VERSION = 1;
+
+    /** The default position quantum in pixels.*/
+    public static final double DEF_QUANTUM = 1 / 16.0;
+
+    /** The size of the header, without the recorded humans, in bytes.*/
+    public static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+    /** The size of each recorded human in the header in bytes.*/
+    public static final int HUMAN_SIZE = 4 + 1;
+
+    /** The size of a frame's size, type and time in bytes.*/
+    public static final int FRAME_HEADER_SIZE = 4 + 1 + 8;
+
+    /** The type of a frame with the positions of the humans.*/
+    public static final byte KEYFRAME = 0;
+
+    /** The type of a frame with the changes of the positions of the humans.*/
+    public static final byte DELTA = 1;
+
+    /** The number of frames from one keyframe to the next.*/
+    public static final int KEYFRAME_INTERVAL = 64;
+
+    /** The location index of a deceased human.*/
+    public static final byte DECEASED = -1;
+
+    /** The position change marking that the position follows.*/
+    public static final short ESCAPE = Short.MIN_VALUE;
+
+    /** The largest size of a frame entry in bytes, i.e., of an escaped delta entry.*/
+    public static final int MAX_ENTRY_SIZE = 1 + 1 + 2 + 4 + 4;
+
+    /**
+     * Check that the given magic number and version are of a trajectory file that can be read.
+     *
+     * @param magic the magic number of a file
+     * @param version the format version of a file
+     * @throws IOException if the magic number is not {@value MAGIC} or the version is not {@value VERSION}
+     */
+    public static void headerCheck(int magic, int version) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException(Error.ERROR_TAG + " Given file is not a trajectory file.");
+        }
+
+        if (version != VERSION) {
+            throw new IOException(Error.ERROR_TAG + " Given trajectory file version is not supported: " + version);
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+package org.epi.model;
+
+import org.epi.model.human.Human;
+import org.epi.model.world.Location;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Records the trajectories of a simulator's humans into a trajectory file, appending one frame per update through
+ * memory-mapped regions. The humans recorded are those alive when recording starts.
+ * See {@link TrajectoryFormat} for the layout.
+ */
+public class TrajectoryRecorder implements Closeable {
+
+    /** The size of each memory-mapped region of the file in bytes.*/
+    private static final int REGION_SIZE = 64 * 1024 * 1024;
+
+    /** The channel to the trajectory file.*/
+    private final FileChannel channel;
+
+    /** The world of the recorded humans.*/
+    private final World world;
+
+    /** The recorded humans.*/
+    private final Human[] humans;
+
+    /** The index of each location of the world.*/
+    private final Map<Location, Byte> locations;
+
+    /** The position quantum in pixels.*/
+    private final double quantum;
+
+    /** The quantised horizontal position of each human in the previous frame.*/
+    private final int[] previousX;
+
+    /** The quantised vertical position of each human in the previous frame.*/
+    private final int[] previousY;
+
+    /** The number of frames recorded.*/
+    private long frames;
+
+    /** The position in the file of the next frame.*/
+    private long position;
+
+    /** The mapped region the next frame is written into.*/
+    private MappedByteBuffer region;
+
+    /** The position in the file of {@link #region}.*/
+    private long regionPosition;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a trajectory file for the humans of a simulator, and write its header and a first frame of the current
+     * state.
+     *
+     * @param path the path of the trajectory file
+     * @param simulator the simulator whose humans are recorded
+     * @param quantum the position quantum in pixels, e.g. {@link TrajectoryFormat#DEF_QUANTUM}
+     * @throws NullPointerException if any of the given objects are null
+     * @throws IllegalArgumentException if the quantum is not positive or the world has too many locations
+     * @throws IOException if the file cannot be written
+     */
+    public TrajectoryRecorder(Path path, Simulator simulator, double quantum) throws IOException {
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+        Objects.requireNonNull(simulator, Error.getNullMsg("simulator"));
+        Error.intervalCheck("quantum", Double.MIN_VALUE, Double.MAX_VALUE, quantum);
+
+        this.world = simulator.getWorld();
+        List<Location> locations = world.getLocations();
+        Error.intervalCheck("location count", 1, Byte.MAX_VALUE, locations.size());
+
+        this.locations = new HashMap<>();
+        for (int i = 0; i < locations.size(); i++) {
+            this.locations.put(locations.get(i), (byte) i);
+        }
+
+        this.humans = locations.stream()
+                .flatMap(location -> location.getPopulation().stream())
+                .toArray(Human[]::new);
+        this.quantum = quantum;
+        this.previousX = new int[humans.length];
+        this.previousY = new int[humans.length];
+
+        int headerSize = TrajectoryFormat.HEADER_SIZE + humans.length * TrajectoryFormat.HUMAN_SIZE;
+        ByteBuffer header = ByteBuffer.allocate(headerSize)
+                .putInt(TrajectoryFormat.MAGIC)
+                .putInt(TrajectoryFormat.VERSION)
+                .putDouble(quantum)
+                .putInt(locations.size())
+                .putInt(humans.length);
+
+        for (Human human : humans) {
+            header.putInt(human.getId()).put((byte) human.getModel().getBehaviour().ordinal());
+        }
+
+        header.flip();
+
+        this.channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+
+        this.position = header.capacity();
+
+        record();
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Append a frame with the current locations, statuses and positions of the recorded humans.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void record() throws IOException {
+        boolean isKeyframe = frames % TrajectoryFormat.KEYFRAME_INTERVAL == 0;
+        int capacity = TrajectoryFormat.FRAME_HEADER_SIZE + humans.length * TrajectoryFormat.MAX_ENTRY_SIZE;
+
+        map(capacity);
+
+        int start = (int) (position - regionPosition);
+        region.position(start + 4);
+        region.put(isKeyframe ? TrajectoryFormat.KEYFRAME : TrajectoryFormat.DELTA);
+        region.putDouble(world.getTotalElapsedSeconds());
+
+        for (int i = 0; i < humans.length; i++) {
+            Human human = humans[i];
+            int x = (int) Math.round(human.getModel().getCenterX() / quantum);
+            int y = (int) Math.round(human.getModel().getCenterY() / quantum);
+
+            region.put(human.getLocation() == null ? TrajectoryFormat.DECEASED : locations.get(human.getLocation()));
+            region.put((byte) human.getStatus().ordinal());
+
+            if (isKeyframe) {
+                region.putInt(x).putInt(y);
+            } else {
+                int deltaX = x - previousX[i];
+                int deltaY = y - previousY[i];
+
+                if (fits(deltaX) && fits(deltaY)) {
+                    region.putShort((short) deltaX).putShort((short) deltaY);
+                } else {
+                    region.putShort(TrajectoryFormat.ESCAPE).putInt(x).putInt(y);
+                }
+            }
+
+            previousX[i] = x;
+            previousY[i] = y;
+        }
+
+        int size = region.position() - start;
+        region.putInt(start, size);
+
+        position += size;
+        frames++;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The file is cut to the frames recorded.
+     */
+    @Override
+    public void close() throws IOException {
+        if (region != null) {
+            region.force();
+        }
+
+        channel.truncate(position);
+        channel.close();
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Map a region of the file, if the current region does not have enough space left for a frame.
+     *
+     * @param capacity the largest size of the next frame in bytes
+     * @throws IOException if the region cannot be mapped
+     */
+    private void map(int capacity) throws IOException {
+        if (region != null && position + capacity <= regionPosition + region.capacity()) {
+            return;
+        }
+
+        if (region != null) {
+            region.force();
+        }
+
+        regionPosition = position;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionPosition, Math.max(REGION_SIZE, capacity));
+    }
+
+    /**
+     * Check if a position change can be stored as a short.
+     *
+     * @param delta a position change in quanta
+     * @return true if the change fits, otherwise false
+     */
+    private static boolean fits(int delta) {
+        return delta > TrajectoryFormat.ESCAPE && delta <= Short.MAX_VALUE;
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Getter for {@link #frames}.
+     *
+     * @return {@link #frames}
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+}
@@ -0,0 +1,413 @@
+package org.epi.model;
+
+import org.epi.model.human.Behaviour;
+import org.epi.model.human.Human;
+import org.epi.model.human.Model;
+import org.epi.model.human.Status;
+import org.epi.model.world.Location;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Replays a trajectory file in the locations of a world, in place of a simulator.
+ * Each frame is decoded straight from a memory-mapped region of the file into the models of the replayed humans,
+ * and any frame can be shown by decoding from the keyframe before it, so a replay can be scrubbed both ways.
+ * See {@link TrajectoryFormat} for the layout.
+ */
+public class TrajectoryReplay implements Closeable {
+
+    /** The size of each memory-mapped region of the file in bytes.*/
+    private static final int REGION_SIZE = 256 * 1024 * 1024;
+
+    /** The statuses by ordinal.*/
+    private static final Status[] STATUSES = Status.values();
+
+    /** The channel to the trajectory file.*/
+    private final FileChannel channel;
+
+    /** The locations of the world the humans are replayed in.*/
+    private final List<Location> locations;
+
+    /** The replayed humans, in the order of the file.*/
+    private final Human[] humans;
+
+    /** The position quantum in pixels.*/
+    private final double quantum;
+
+    /** The position in the file of each frame.*/
+    private final long[] frames;
+
+    /** The world time of each frame.*/
+    private final double[] times;
+
+    /** The location index of each human in the decoded frame.*/
+    private final byte[] location;
+
+    /** The status ordinal of each human in the decoded frame.*/
+    private final byte[] status;
+
+    /** The quantised horizontal position of each human in the decoded frame.*/
+    private final int[] positionX;
+
+    /** The quantised vertical position of each human in the decoded frame.*/
+    private final int[] positionY;
+
+    /** The index of the decoded frame, or -1 if no frame has been decoded.*/
+    private int frame;
+
+    /** The mapped region frames are decoded from.*/
+    private ByteBuffer region;
+
+    /** The position in the file of {@link #region}.*/
+    private long regionPosition;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Open a trajectory file for replay in the given world, and show its first frame.
+     * The replayed humans are added to the world's locations, which should have no humans of their own.
+     *
+     * @param path the path of the trajectory file
+     * @param world the world to replay the file in, with as many locations as the recorded world
+     * @throws NullPointerException if any of the given objects are null
+     * @throws IOException if the file cannot be read, is not a trajectory file or has no frames,
+     *                     or if the world has a different number of locations
+     */
+    public TrajectoryReplay(Path path, World world) throws IOException {
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+
+        this.channel = FileChannel.open(path, READ);
+
+        try {
+            ByteBuffer header = read(0, TrajectoryFormat.HEADER_SIZE);
+            TrajectoryFormat.headerCheck(header.getInt(), header.getInt());
+
+            this.quantum = header.getDouble();
+            int locationCount = header.getInt();
+            int humanCount = header.getInt();
+
+            this.locations = world.getLocations();
+            if (locationCount != locations.size()) {
+                throw new IOException(Error.ERROR_TAG + " Given trajectory file is of a world with " + locationCount
+                        + " locations, not " + locations.size() + ".");
+            }
+
+            ByteBuffer roster = read(TrajectoryFormat.HEADER_SIZE, (long) humanCount * TrajectoryFormat.HUMAN_SIZE);
+            Behaviour[] behaviours = Behaviour.values();
+
+            this.humans = new Human[humanCount];
+            for (int i = 0; i < humanCount; i++) {
+                int id = roster.getInt();
+                humans[i] = new Human(world.getCity(), behaviours[roster.get()], id);
+            }
+
+            long position = TrajectoryFormat.HEADER_SIZE + (long) humanCount * TrajectoryFormat.HUMAN_SIZE;
+            long[] frames = new long[TrajectoryFormat.KEYFRAME_INTERVAL];
+            double[] times = new double[TrajectoryFormat.KEYFRAME_INTERVAL];
+            int frameCount = 0;
+
+            // A file that was not closed may end in an unwritten or partly written frame, which is left out.
+            ByteBuffer frameHeader = ByteBuffer.allocate(TrajectoryFormat.FRAME_HEADER_SIZE);
+            while (position + TrajectoryFormat.FRAME_HEADER_SIZE <= channel.size()) {
+                frameHeader.clear();
+                channel.read(frameHeader, position);
+                int size = frameHeader.getInt(0);
+
+                if (size < TrajectoryFormat.FRAME_HEADER_SIZE || position + size > channel.size()) {
+                    break;
+                }
+
+                if (frameCount == frames.length) {
+                    frames = Arrays.copyOf(frames, 2 * frameCount);
+                    times = Arrays.copyOf(times, 2 * frameCount);
+                }
+
+                frames[frameCount] = position;
+                times[frameCount] = frameHeader.getDouble(5);
+                frameCount++;
+                position += size;
+            }
+
+            if (frameCount == 0) {
+                throw new IOException(Error.ERROR_TAG + " Given trajectory file has no frames.");
+            }
+
+            this.frames = Arrays.copyOf(frames, frameCount);
+            this.times = Arrays.copyOf(times, frameCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException ? (IOException) e
+                    : new IOException(Error.ERROR_TAG + " Given file is not a valid trajectory file.", e);
+        }
+
+        this.location = new byte[humans.length];
+        this.status = new byte[humans.length];
+        this.positionX = new int[humans.length];
+        this.positionY = new int[humans.length];
+        this.frame = -1;
+
+        seek(0);
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Show the given frame. Later frames up to the next keyframe are decoded from the shown frame,
+     * and any other frame from the keyframe before it.
+     *
+     * @param frame the index of a frame
+     * @throws IllegalArgumentException if there is no frame with the given index
+     * @throws IOException if the file cannot be read
+     */
+    public void seek(int frame) throws IOException {
+        Error.intervalCheck("frame", 0, frames.length - 1, frame);
+
+        int keyframe = frame - frame % TrajectoryFormat.KEYFRAME_INTERVAL;
+        int next = this.frame >= keyframe && this.frame <= frame ? this.frame + 1 : keyframe;
+
+        for (int i = next; i <= frame; i++) {
+            decode(i);
+        }
+
+        this.frame = frame;
+        show();
+    }
+
+    /**
+     * Show the last frame at or before the given world time, or the first frame if there is none.
+     *
+     * @param time a world time in seconds
+     * @throws IOException if the file cannot be read
+     */
+    public void seekTime(double time) throws IOException {
+        int index = Arrays.binarySearch(times, time);
+        seek(index >= 0 ? index : Math.max(0, -index - 2));
+    }
+
+    /**
+     * Show the frame after the shown frame, if there is one.
+     *
+     * @return true if there was a next frame, otherwise false
+     * @throws IOException if the file cannot be read
+     */
+    public boolean next() throws IOException {
+        if (frame == frames.length - 1) {
+            return false;
+        }
+
+        seek(frame + 1);
+        return true;
+    }
+
+    /**
+     * Count the living replayed humans with a status in the shown frame.
+     *
+     * @param status a status
+     * @return the number of living humans with the status
+     */
+    public int count(Status status) {
+        int count = 0;
+
+        for (int i = 0; i < humans.length; i++) {
+            if (location[i] != TrajectoryFormat.DECEASED && this.status[i] == status.ordinal()) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Count the deceased replayed humans in the shown frame.
+     *
+     * @return the number of deceased humans
+     */
+    public int countDeceased() {
+        int count = 0;
+
+        for (byte index : location) {
+            if (index == TrajectoryFormat.DECEASED) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Decode a frame onto the decoded state. A delta frame must directly follow the decoded frame.
+     *
+     * @param frame the index of the frame
+     * @throws IOException if the file cannot be read or the frame is malformed
+     */
+    private void decode(int frame) throws IOException {
+        ByteBuffer buffer = map(frame);
+        byte type = buffer.get();
+        buffer.getDouble();
+
+        for (int i = 0; i < humans.length; i++) {
+            location[i] = buffer.get();
+            status[i] = buffer.get();
+
+            if (type == TrajectoryFormat.KEYFRAME) {
+                positionX[i] = buffer.getInt();
+                positionY[i] = buffer.getInt();
+            } else if (type == TrajectoryFormat.DELTA) {
+                short deltaX = buffer.getShort();
+
+                if (deltaX == TrajectoryFormat.ESCAPE) {
+                    positionX[i] = buffer.getInt();
+                    positionY[i] = buffer.getInt();
+                } else {
+                    positionX[i] += deltaX;
+                    positionY[i] += buffer.getShort();
+                }
+            } else {
+                throw new IOException(Error.ERROR_TAG + " Trajectory frame " + frame + " has an unknown type: " + type);
+            }
+        }
+    }
+
+    /**
+     * Show the decoded state in the locations of the world.
+     */
+    private void show() {
+        for (int i = 0; i < humans.length; i++) {
+            Human human = humans[i];
+            Location target = location[i] == TrajectoryFormat.DECEASED ? null : locations.get(location[i]);
+
+            if (human.getLocation() != target) {
+                human.setLocation(target);
+            }
+
+            Model model = human.getModel();
+            model.place(positionX[i] * quantum, positionY[i] * quantum);
+            model.setFill(STATUSES[status[i]].color);
+        }
+    }
+
+    /**
+     * Map the region of the file a frame is in, if it is not in the current region.
+     *
+     * @param frame the index of the frame
+     * @return a buffer over the frame, positioned after its size
+     * @throws IOException if the region cannot be mapped
+     */
+    private ByteBuffer map(int frame) throws IOException {
+        long start = frames[frame];
+        long end = frame + 1 < frames.length ? frames[frame + 1] : channel.size();
+
+        if (region == null || start < regionPosition || end > regionPosition + region.capacity()) {
+            regionPosition = start;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(channel.size() - start, Math.max(REGION_SIZE, end - start)));
+        }
+
+        ByteBuffer buffer = region.duplicate();
+        buffer.position((int) (start - regionPosition) + 4);
+        return buffer;
+    }
+
+    /**
+     * Read bytes of the file.
+     *
+     * @param position the position of the bytes in the file
+     * @param size the number of bytes
+     * @return a buffer with the bytes
+     * @throws IOException if the file cannot be read or ends before the bytes
+     */
+    private ByteBuffer read(long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE || position + size > channel.size()) {
+            throw new EOFException(Error.ERROR_TAG + " Given trajectory file is truncated.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            channel.read(buffer, position + buffer.position());
+        }
+
+        return buffer.flip();
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Get the number of frames in the file.
+     *
+     * @return the number of frames
+     */
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    /**
+     * Getter for {@link #frame}.
+     *
+     * @return {@link #frame}
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Get the world time of a frame.
+     *
+     * @param frame the index of a frame
+     * @return the world time of the frame in seconds
+     * @throws IllegalArgumentException if there is no frame with the given index
+     */
+    public double getTime(int frame) {
+        Error.intervalCheck("frame", 0, frames.length - 1, frame);
+        return times[frame];
+    }
+
+    /**
+     * Get the world time of the shown frame.
+     *
+     * @return the world time of the shown frame in seconds
+     */
+    public double getTime() {
+        return times[frame];
+    }
+
+    /**
+     * Get the world time of the last frame.
+     *
+     * @return the world time of the last frame in seconds
+     */
+    public double getEndTime() {
+        return times[times.length - 1];
+    }
+
+    /**
+     * Get the replayed humans.
+     *
+     * @return a copy of the replayed humans, in the order of the file
+     */
+    public Human[] getHumans() {
+        return humans.clone();
+    }
+
+}
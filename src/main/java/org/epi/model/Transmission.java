@@ -0,0 +1,151 @@
+package org.epi.model;
+
+import org.epi.model.human.Human;
+import org.epi.model.world.DensityGrid;
+import org.epi.model.world.Exposure;
+import org.epi.model.world.Location;
+import org.epi.util.Probability;
+import org.epi.util.Purpose;
+
+import org.apache.commons.math3.util.Pair;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.epi.model.human.Model.HUMAN_DIAMETER;
+
+/** The ways in which a pathogen can be transmitted between the humans in a location.*/
+public enum Transmission {
+    CONTACT {
+
+        /**
+         * {@inheritDoc}
+         * Every sick human exposes each human that they are in contact with, and infects them once their exposure
+         * reaches its threshold, see {@link Exposure}. The sick are found before spreading, so humans infected in
+         * this step neither spread the pathogen nor age it until the next step, whatever their order.
+         * If the location is tiled, the contacts are found tile by tile in parallel, and the exposures are accumulated
+         * and infect afterwards in the order of the tiles.
+         */
+        @Override
+        public void spread(Location location, double elapsedSeconds) {
+            Exposure exposure = location.getExposure();
+            exposure.elapse(elapsedSeconds);
+
+            List<Human> sick = location.getPopulation().stream()
+                    .filter(Human::isSick)
+                    .collect(Collectors.toList());
+
+            if (location.getTiling() == null) {
+                sick.forEach(human -> human.pathogen(elapsedSeconds));
+                return;
+            }
+
+            List<Pair<Human, Human>> infections = location.getTiling().getTiles().parallelStream()
+                    .flatMap(tile -> tile.getOwned().stream()
+                            .filter(Human::isSick)
+                            .flatMap(source -> source.getPathogen().contacts().stream()
+                                    .map(target -> Pair.create(target, source))))
+                    .collect(Collectors.toList());
+
+            infections.stream()
+                    .filter(infection -> exposure.expose(infection.getValue(), infection.getKey(),
+                            infection.getValue().getPathogen().contactSeconds(infection.getKey(), elapsedSeconds),
+                            infection.getValue().getPathogen().getTransmissionRisk()))
+                    .filter(infection -> !infection.getKey().isSick())
+                    .forEach(infection -> infection.getValue().getPathogen().transmit(infection.getKey()));
+
+            sick.forEach(human -> human.getPathogen().live(elapsedSeconds));
+        }
+
+    },
+    MEAN_FIELD {
+
+        /**
+         * {@inheritDoc}
+         * Every healthy human is infected with a probability given by the density of sick humans around them,
+         * without checking for contact with each of the sick humans.
+         */
+        @Override
+        public void spread(Location location, double elapsedSeconds) {
+            DensityGrid densityGrid = location.getDensityGrid();
+            densityGrid.update();
+
+            List<Human> sick = location.getPopulation().stream()
+                    .filter(Human::isSick)
+                    .collect(Collectors.toList());
+
+            location.getPopulation().stream()
+                    .filter(Predicate.not(Human::isSick))
+                    .filter(human -> human.chance(Purpose.INFECTION,
+                            infectionChance(densityGrid, human, elapsedSeconds)))
+                    .collect(Collectors.toList())
+                    .forEach(target -> densityGrid.getSource(target.getModel()).getPathogen().transmit(target));
+
+            sick.forEach(human -> human.getPathogen().live(elapsedSeconds));
+        }
+
+    },
+    NETWORK {
+
+        /**
+         * {@inheritDoc}
+         * Every sick human attempts to infect each of their contacts in the location's contact graph, with the
+         * transmission risk per second of contact. Nobody is infected if the location has no contact graph.
+         */
+        @Override
+        public void spread(Location location, double elapsedSeconds) {
+            List<Human> sick = location.getPopulation().stream()
+                    .filter(Human::isSick)
+                    .collect(Collectors.toList());
+
+            if (location.getContactGraph() != null) {
+                location.getContactGraph().spread(location, sick, elapsedSeconds);
+            }
+
+            sick.forEach(human -> human.getPathogen().live(elapsedSeconds));
+        }
+
+    };
+
+    /** The time healthy humans spend within a diameter of the sick in contact mode, as a fraction of the time predicted
+     * by the density of the sick around them. Contact tracing humans steer away from the sick, so the healthy spend
+     * about two thirds of the time in contact that an even spread would while an outbreak grows
+     * (see doc/MeanFieldValidation.md).*/
+    private static final double CONTACT_FRACTION = 0.66;
+
+    /** The area around a human in which another human counts as an effective contact in square pixels.
+     * The compartments use the same area, see {@link Compartments}.*/
+    static final double CONTACT_AREA = Math.PI * HUMAN_DIAMETER * HUMAN_DIAMETER * CONTACT_FRACTION;
+
+    /**
+     * Infect humans and let the pathogens of the sick live in the given location.
+     *
+     * @param location a location
+     * @param elapsedSeconds the number of seconds elapsed since the pathogens were last updated
+     * @throws IllegalArgumentException if the given number of seconds is negative
+     */
+    public abstract void spread(Location location, double elapsedSeconds);
+
+    /**
+     * Get the probability that the given human is infected by the sick humans around them in the elapsed seconds.
+     * The expected number of effective contacts is the local density of sick humans over the contact area,
+     * each of which transmits the pathogen with its transmission risk per second of contact.
+     *
+     * @param densityGrid the density grid of the human's location
+     * @param human a healthy human
+     * @param elapsedSeconds the number of seconds the human was exposed for
+     * @return the probability that the human is infected
+     */
+    private static double infectionChance(DensityGrid densityGrid, Human human, double elapsedSeconds) {
+        Human source = densityGrid.getSource(human.getModel());
+
+        if (source == null) {
+            return Probability.MIN_PROB;
+        }
+
+        double exposure = densityGrid.getDensity(human.getModel()) * CONTACT_AREA * elapsedSeconds;
+        return 1 - Math.pow(1 - source.getPathogen().getTransmissionRisk(), exposure);
+    }
+
+}
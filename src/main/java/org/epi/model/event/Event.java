@@ -0,0 +1,17 @@
+package org.epi.model.event;
+
+/** The epidemiological events that happen to humans in a simulation.*/
+public enum Event {
+    /** A human is infected by a sick human.*/
+    INFECTION,
+    /** A sick human survives the pathogen.*/
+    RECOVERY,
+    /** A sick human is killed by the pathogen.*/
+    DEATH,
+    /** A human forgets the pathogen they were immune to.*/
+    IMMUNITY_LOSS,
+    /** A sick human is detected and sent to the quarantine.*/
+    QUARANTINE,
+    /** A human who is no longer sick is sent back from the quarantine.*/
+    RELEASE
+}
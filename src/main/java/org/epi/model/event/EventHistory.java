@@ -0,0 +1,316 @@
+package org.epi.model.event;
+
+import org.epi.model.human.Behaviour;
+import org.epi.util.Error;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * The events of an event log, indexed for queries over time ranges.
+ *
+ * The events of each type are kept in columns of times, human ids and behaviour ordinals, sorted by time, so that the
+ * events of a type in a time range are found with two binary searches and counted without visiting them.
+ */
+public class EventHistory {
+
+    /** The events by ordinal.*/
+    private static final Event[] EVENTS = Event.values();
+
+    /** The behaviours by ordinal.*/
+    private static final Behaviour[] BEHAVIOURS = Behaviour.values();
+
+    /** The times of the events of each type in seconds, sorted, by event ordinal.*/
+    private final double[][] times;
+
+    /** The human ids of the events of each type, in the order of {@link #times}.*/
+    private final int[][] ids;
+
+    /** The behaviour ordinals of the humans of the events of each type, in the order of {@link #times}.*/
+    private final byte[][] behaviours;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Read the events of an event log file.
+     *
+     * @param path the path of an event log file, which is closed
+     * @throws NullPointerException if the given path is null
+     * @throws IOException if the file cannot be read or is not an event log file of the current version
+     */
+    public EventHistory(Path path) throws IOException {
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long size = channel.size();
+
+            if (size < EventLog.HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException(Error.ERROR_TAG + " Given file is not an event log.");
+            }
+
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (file.getInt() != EventLog.MAGIC) {
+                throw new IOException(Error.ERROR_TAG + " Given file is not an event log.");
+            }
+
+            int version = file.getInt();
+            if (version != EventLog.VERSION) {
+                throw new IOException(Error.ERROR_TAG + " Given event log version is not supported: " + version);
+            }
+
+            int count = file.remaining() / EventLog.RECORD_SIZE;
+            int[] counts = new int[EVENTS.length];
+
+            for (int i = 0; i < count; i++) {
+                int position = EventLog.HEADER_SIZE + i * EventLog.RECORD_SIZE;
+                byte event = file.get(position + 8);
+                byte behaviour = file.get(position + 13);
+
+                if (event < 0 || event >= EVENTS.length || behaviour < 0 || behaviour >= BEHAVIOURS.length) {
+                    throw new IOException(Error.ERROR_TAG + " Given event log has an invalid record: " + i);
+                }
+
+                counts[event]++;
+            }
+
+            this.times = new double[EVENTS.length][];
+            this.ids = new int[EVENTS.length][];
+            this.behaviours = new byte[EVENTS.length][];
+
+            for (int event = 0; event < EVENTS.length; event++) {
+                times[event] = new double[counts[event]];
+                ids[event] = new int[counts[event]];
+                behaviours[event] = new byte[counts[event]];
+            }
+
+            Arrays.fill(counts, 0);
+
+            for (int i = 0; i < count; i++) {
+                double time = file.getDouble();
+                byte event = file.get();
+                int index = counts[event]++;
+
+                times[event][index] = time;
+                ids[event][index] = file.getInt();
+                behaviours[event][index] = file.get();
+            }
+        }
+
+        for (int event = 0; event < EVENTS.length; event++) {
+            sort(event);
+        }
+    }
+
+    //---------------------------- Queries ----------------------------
+
+    /**
+     * Count the events of a type in a time range.
+     *
+     * @param event an event type
+     * @param from the start of the time range in seconds, inclusive
+     * @param to the end of the time range in seconds, exclusive
+     * @return the number of events
+     */
+    public int count(Event event, double from, double to) {
+        double[] times = this.times[event.ordinal()];
+        return Math.max(0, lowerBound(times, to) - lowerBound(times, from));
+    }
+
+    /**
+     * Get the incidence curve of an event type, i.e., the number of events in each interval of a time range.
+     *
+     * @param event an event type
+     * @param from the start of the time range in seconds
+     * @param to the end of the time range in seconds
+     * @param interval the length of each interval in seconds
+     * @return the number of events in each interval, the last of which may end after the time range
+     * @throws IllegalArgumentException if the interval is not positive or the time range is negative
+     */
+    public int[] incidence(Event event, double from, double to, double interval) {
+        Error.intervalCheck("interval", Double.MIN_VALUE, Double.MAX_VALUE, interval);
+        Error.nonNegativeCheck(to - from);
+
+        double[] times = this.times[event.ordinal()];
+        int[] incidence = new int[(int) Math.ceil((to - from) / interval)];
+        int start = lowerBound(times, from);
+
+        for (int i = 0; i < incidence.length; i++) {
+            int end = lowerBound(times, from + (i + 1) * interval);
+            incidence[i] = end - start;
+            start = end;
+        }
+
+        return incidence;
+    }
+
+    /**
+     * Count the events of a type in a time range by the behaviour of the humans they happened to.
+     *
+     * @param event an event type
+     * @param from the start of the time range in seconds, inclusive
+     * @param to the end of the time range in seconds, exclusive
+     * @return the number of events of humans with each behaviour, by behaviour ordinal
+     */
+    public int[] countByBehaviour(Event event, double from, double to) {
+        double[] times = this.times[event.ordinal()];
+        byte[] behaviours = this.behaviours[event.ordinal()];
+        int[] counts = new int[BEHAVIOURS.length];
+
+        for (int i = lowerBound(times, from), end = lowerBound(times, to); i < end; i++) {
+            counts[behaviours[i]]++;
+        }
+
+        return counts;
+    }
+
+    /**
+     * Get the time from each event of a type to the next event of the same human of any of the end types,
+     * e.g. the durations of infections from {@link Event#INFECTION} to {@link Event#RECOVERY} or {@link Event#DEATH}.
+     * Events with no end event afterwards are left out.
+     *
+     * @param start the event type the times are from
+     * @param ends the event types the times are to
+     * @return the times to the end events in seconds, in the order of the end events
+     * @throws NullPointerException if any of the given objects are null
+     */
+    public double[] timeToEvent(Event start, Set<Event> ends) {
+        Objects.requireNonNull(start, Error.getNullMsg("start event"));
+        Objects.requireNonNull(ends, Error.getNullMsg("end events"));
+
+        EnumSet<Event> types = EnumSet.of(start);
+        types.addAll(ends);
+
+        // Visit the events of all the types in the order of their times.
+        int[] next = new int[EVENTS.length];
+        Map<Integer, Double> starts = new HashMap<>();
+        DoubleStream.Builder durations = DoubleStream.builder();
+
+        while (true) {
+            Event event = null;
+            double eventTime = Double.POSITIVE_INFINITY;
+
+            for (Event type : types) {
+                int index = next[type.ordinal()];
+
+                if (index < times[type.ordinal()].length && times[type.ordinal()][index] < eventTime) {
+                    event = type;
+                    eventTime = times[type.ordinal()][index];
+                }
+            }
+
+            if (event == null) {
+                return durations.build().toArray();
+            }
+
+            int index = next[event.ordinal()]++;
+            double time = times[event.ordinal()][index];
+            int id = ids[event.ordinal()][index];
+
+            if (ends.contains(event)) {
+                Double from = starts.remove(id);
+
+                if (from != null) {
+                    durations.add(time - from);
+                }
+            }
+
+            if (event == start) {
+                starts.put(id, time);
+            }
+        }
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Sort the columns of an event type by time, keeping the order of events at the same time.
+     * The columns are usually sorted already, since the events of a simulation are recorded in order.
+     *
+     * @param event an event ordinal
+     */
+    private void sort(int event) {
+        double[] times = this.times[event];
+
+        boolean isSorted = IntStream.range(1, times.length).allMatch(i -> times[i - 1] <= times[i]);
+        if (isSorted) {
+            return;
+        }
+
+        Integer[] order = IntStream.range(0, times.length).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingDouble(i -> times[i]));
+
+        int[] ids = this.ids[event];
+        byte[] behaviours = this.behaviours[event];
+
+        this.times[event] = Arrays.stream(order).mapToDouble(i -> times[i]).toArray();
+        this.ids[event] = Arrays.stream(order).mapToInt(i -> ids[i]).toArray();
+        this.behaviours[event] = new byte[behaviours.length];
+        for (int i = 0; i < order.length; i++) {
+            this.behaviours[event][i] = behaviours[order[i]];
+        }
+    }
+
+    /**
+     * Find the index of the first time that is not before the given time.
+     *
+     * @param times sorted times
+     * @param time a time
+     * @return the index of the first time at or after the given time, or the number of times if there is none
+     */
+    private static int lowerBound(double[] times, double time) {
+        int low = 0;
+        int high = times.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (times[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Count the events of a type.
+     *
+     * @param event an event type
+     * @return the number of events of the type
+     */
+    public int count(Event event) {
+        return times[event.ordinal()].length;
+    }
+
+    /**
+     * Get the time of the last event.
+     *
+     * @return the time of the last event in seconds, or 0 if there are no events
+     */
+    public double getEndTime() {
+        return Arrays.stream(times)
+                .filter(times -> times.length > 0)
+                .mapToDouble(times -> times[times.length - 1])
+                .max()
+                .orElse(0);
+    }
+
+}
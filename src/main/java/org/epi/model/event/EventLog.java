@@ -0,0 +1,245 @@
+package org.epi.model.event;
+
+import org.epi.model.human.Human;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An append-only binary log of the events of a simulation, which can be queried afterwards with an
+ * {@link EventHistory}.
+ *
+ * An event log file starts with a header of the {@value MAGIC} magic number (int) and the format version (int),
+ * followed by one record of {@value RECORD_SIZE} bytes per event, which holds the world time (double), the
+ * {@link Event} ordinal (byte), the human's id (int) and the human's {@link org.epi.model.human.Behaviour} ordinal
+ * (byte). Records are in the order they were written, which is only the order of their times if all events are
+ * recorded by one thread. All values are big-endian.
+ *
+ * Events are recorded into the log in use by the recording thread, see {@link #use(EventLog)}, and each thread
+ * collects its records in its own buffer, which is written to the file when it is full or the log is closed.
+ */
+public class EventLog implements Closeable {
+
+    /** The magic number at the start of every event log file, "EPIE" in ASCII.*/
+    public static final int MAGIC = 0x45504945;
+
+    /** The current version of the format.*/
+    public static final int VERSION = 1;
+
+    /** The size of the header in bytes.*/
+    public static final int HEADER_SIZE = 4 + 4;
+
+    /** The size of a record in bytes.*/
+    public static final int RECORD_SIZE = 8 + 1 + 4 + 1;
+
+    /** The number of records each thread collects before they are written.*/
+    private static final int BUFFER_RECORDS = 4096;
+
+    /** The log in use by each thread.*/
+    private static final ThreadLocal<EventLog> current = new ThreadLocal<>();
+
+    /** The channel to the event log file.*/
+    private final FileChannel channel;
+
+    /** The world whose time the events are recorded at.*/
+    private final World world;
+
+    /** The buffer of each thread.*/
+    private final ThreadLocal<ByteBuffer> buffer;
+
+    /** The buffers of all threads, so that they can be written when the log is closed.*/
+    private final List<ByteBuffer> buffers;
+
+    /** The number of bytes written to the file.*/
+    private long written;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create an event log file and write its header.
+     *
+     * @param path the path of the event log file
+     * @param world the world whose time the events are recorded at
+     * @throws NullPointerException if any of the given objects are null
+     * @throws IOException if the file cannot be written
+     */
+    public EventLog(Path path, World world) throws IOException {
+        Objects.requireNonNull(path, Error.getNullMsg("path"));
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+
+        this.world = world;
+        this.buffers = new ArrayList<>();
+        this.buffer = ThreadLocal.withInitial(() -> {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+
+            synchronized (buffers) {
+                buffers.add(buffer);
+            }
+
+            return buffer;
+        });
+
+        this.channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE);
+        write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION));
+    }
+
+    //---------------------------- Recording ----------------------------
+
+    /**
+     * Record the events of the current thread into the given log.
+     *
+     * @param log an event log, or null to stop recording the events of the current thread
+     */
+    public static void use(EventLog log) {
+        if (log == null) {
+            current.remove();
+        } else {
+            current.set(log);
+        }
+    }
+
+    /**
+     * Get the log the events of the current thread are recorded into, e.g. to bind it again after binding another one.
+     *
+     * @return the log in use by the current thread, or null if there is none
+     */
+    public static EventLog inUse() {
+        return current.get();
+    }
+
+    /**
+     * Record an event of a human into the log in use by the current thread, if there is one.
+     *
+     * @param event an event
+     * @param human the human the event happened to
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    public static void record(Event event, Human human) {
+        EventLog log = current.get();
+
+        if (log != null) {
+            log.append(event, human);
+        }
+    }
+
+    /**
+     * Append an event of a human to this log at the current time of the world.
+     *
+     * @param event an event
+     * @param human the human the event happened to
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    public void append(Event event, Human human) {
+        ByteBuffer buffer = this.buffer.get();
+
+        if (!buffer.hasRemaining()) {
+            try {
+                write(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(Error.ERROR_TAG + " Event log cannot be written.", e);
+            }
+        }
+
+        buffer.putDouble(world.getTotalElapsedSeconds())
+                .put((byte) event.ordinal())
+                .putInt(human.getId())
+                .put((byte) human.getModel().getBehaviour().ordinal());
+    }
+
+    /**
+     * Write the records collected by every thread to the file, while no thread records into this log.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (buffers) {
+            for (ByteBuffer buffer : buffers) {
+                write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Let go of the records appended after this log had the given size, e.g. when a simulation is rewound and takes
+     * another course. The records collected by every thread are written first, so the size is only a point in the
+     * order of the records if all events are recorded by one thread.
+     *
+     * @param size a size of this log in bytes, see {@link #getSize()}
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the size is less than the header or more than the size of this log
+     */
+    public void truncate(long size) throws IOException {
+        flush();
+
+        synchronized (channel) {
+            Error.intervalCheck("event log size", HEADER_SIZE, written, size);
+            channel.truncate(size);
+            channel.position(size);
+            written = size;
+        }
+    }
+
+    /**
+     * Get the size of this log, including the records collected by every thread but not yet written.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        synchronized (buffers) {
+            long size;
+            synchronized (channel) {
+                size = written;
+            }
+
+            for (ByteBuffer buffer : buffers) {
+                size += buffer.position();
+            }
+
+            return size;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The records collected by every thread are written first, so no thread should record into this log any more.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Write the contents of a buffer to the end of the file and clear it.
+     *
+     * @param buffer a buffer
+     * @throws IOException if the file cannot be written
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        synchronized (channel) {
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+        }
+
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,364 @@
+package org.epi.model.event;
+
+import org.epi.model.human.Human;
+import org.epi.model.world.Location;
+import org.epi.model.world.World;
+import org.epi.util.Error;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The tree of who infected whom in a simulation, kept in primitive arrays with one entry per infection.
+ *
+ * An infection holds the index of the infection it came from, the id of the infected human, the time and the location
+ * index of the infection, the time it ended at and the number of secondary infections that came from it. The humans
+ * who were sick when the tree was created, or who infect others without an infection in the tree, e.g. after a
+ * simulator is restored, are roots, which have no infector. Infections are added in the order of their times.
+ *
+ * Infections are recorded into the tree in use by the recording thread, see {@link #use(InfectionTree)}.
+ */
+public class InfectionTree {
+
+    /** The infector index of a root.*/
+    public static final int ROOT = -1;
+
+    /** The location index of an infection outside of the world's locations.*/
+    public static final byte NO_LOCATION = -1;
+
+    /** The initial number of infections there is room for.*/
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The tree in use by each thread.*/
+    private static final ThreadLocal<InfectionTree> current = new ThreadLocal<>();
+
+    /** The world the infections happen in.*/
+    private final World world;
+
+    /** The index of the infection each infection came from, or {@value ROOT}.*/
+    private int[] infector;
+
+    /** The id of the human infected in each infection.*/
+    private int[] host;
+
+    /** The time of each infection in seconds, NaN for roots whose infection was not seen.*/
+    private double[] time;
+
+    /** The index of the location of each infection, or {@value NO_LOCATION}.*/
+    private byte[] location;
+
+    /** The time each infection ended at in seconds, NaN while it lasts.*/
+    private double[] end;
+
+    /** The number of secondary infections that came from each infection.*/
+    private int[] secondary;
+
+    /** The number of infections.*/
+    private int size;
+
+    /** The index of the latest infection of each human by id, or -1 if there is none.*/
+    private int[] latest;
+
+    /** The indices of the ended infections, in the order they ended in.*/
+    private int[] ended;
+
+    /** The number of ended infections.*/
+    private int endedSize;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create an infection tree with the sick humans of a world as its roots, infected at the current time.
+     *
+     * @param world the world the infections happen in
+     * @throws NullPointerException if the given world is null
+     */
+    public InfectionTree(World world) {
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+
+        this.world = world;
+        this.infector = new int[INITIAL_CAPACITY];
+        this.host = new int[INITIAL_CAPACITY];
+        this.time = new double[INITIAL_CAPACITY];
+        this.location = new byte[INITIAL_CAPACITY];
+        this.end = new double[INITIAL_CAPACITY];
+        this.secondary = new int[INITIAL_CAPACITY];
+        this.latest = new int[INITIAL_CAPACITY];
+        this.ended = new int[INITIAL_CAPACITY];
+        Arrays.fill(latest, -1);
+
+        world.getLocations().forEach(location -> location.getPopulation().stream()
+                .filter(Human::isSick)
+                .forEach(sick -> add(ROOT, sick, world.getTotalElapsedSeconds())));
+    }
+
+    //---------------------------- Recording ----------------------------
+
+    /**
+     * Record the infections of the current thread into the given tree.
+     *
+     * @param tree an infection tree, or null to stop recording the infections of the current thread
+     */
+    public static void use(InfectionTree tree) {
+        if (tree == null) {
+            current.remove();
+        } else {
+            current.set(tree);
+        }
+    }
+
+    /**
+     * Get the tree the infections of the current thread are recorded into, e.g. to bind it again after binding
+     * another one.
+     *
+     * @return the tree in use by the current thread, or null if there is none
+     */
+    public static InfectionTree inUse() {
+        return current.get();
+    }
+
+    /**
+     * Record an infection into the tree in use by the current thread, if there is one.
+     *
+     * @param source the sick human who infected the target
+     * @param target the infected human
+     */
+    public static void recordInfection(Human source, Human target) {
+        InfectionTree tree = current.get();
+
+        if (tree != null) {
+            tree.add(source, target);
+        }
+    }
+
+    /**
+     * Record the end of an infection, by recovery or death, into the tree in use by the current thread, if any.
+     *
+     * @param host the human whose infection ended
+     */
+    public static void recordEnd(Human host) {
+        InfectionTree tree = current.get();
+
+        if (tree != null) {
+            tree.end(host);
+        }
+    }
+
+    /**
+     * Add an infection at the current time of the world.
+     *
+     * @param source the sick human who infected the target
+     * @param target the infected human
+     */
+    public void add(Human source, Human target) {
+        int parent = getLatest(source.getId());
+
+        if (parent == -1 || !Double.isNaN(end[parent])) {
+            parent = add(ROOT, source, Double.NaN);
+        }
+
+        secondary[parent]++;
+        add(parent, target, world.getTotalElapsedSeconds());
+    }
+
+    /**
+     * End the latest infection of a human at the current time of the world.
+     *
+     * @param host a human whose infection ended
+     */
+    public void end(Human host) {
+        int infection = getLatest(host.getId());
+
+        if (infection == -1 || !Double.isNaN(end[infection])) {
+            return;
+        }
+
+        end[infection] = world.getTotalElapsedSeconds();
+
+        if (endedSize == ended.length) {
+            ended = Arrays.copyOf(ended, 2 * endedSize);
+        }
+
+        ended[endedSize++] = infection;
+    }
+
+    /**
+     * Remove the infections after the given time, and the ends after it, e.g. when a simulation is rewound to the
+     * time and takes another course from there. Roots whose infection was not seen go with their last secondary
+     * infection.
+     *
+     * @param time a world time in seconds
+     */
+    public void truncate(double time) {
+        while (size > 0 && (this.time[size - 1] > time
+                || Double.isNaN(this.time[size - 1]) && secondary[size - 1] == 0)) {
+            size--;
+
+            if (infector[size] != ROOT) {
+                secondary[infector[size]]--;
+            }
+        }
+
+        int kept = 0;
+        for (int i = 0; i < endedSize; i++) {
+            int infection = ended[i];
+
+            if (infection < size && end[infection] <= time) {
+                ended[kept++] = infection;
+            } else if (infection < size) {
+                end[infection] = Double.NaN;
+            }
+        }
+        endedSize = kept;
+
+        Arrays.fill(latest, -1);
+        for (int i = 0; i < size; i++) {
+            latest[host[i]] = i;
+        }
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Add an infection.
+     *
+     * @param parent the index of the infection it came from, or {@value ROOT}
+     * @param target the infected human
+     * @param time the time of the infection in seconds
+     * @return the index of the infection
+     */
+    private int add(int parent, Human target, double time) {
+        if (size == infector.length) {
+            int capacity = 2 * size;
+            infector = Arrays.copyOf(infector, capacity);
+            host = Arrays.copyOf(host, capacity);
+            this.time = Arrays.copyOf(this.time, capacity);
+            location = Arrays.copyOf(location, capacity);
+            end = Arrays.copyOf(end, capacity);
+            secondary = Arrays.copyOf(secondary, capacity);
+        }
+
+        int id = target.getId();
+        if (id >= latest.length) {
+            int capacity = Math.max(2 * latest.length, id + 1);
+            int length = latest.length;
+            latest = Arrays.copyOf(latest, capacity);
+            Arrays.fill(latest, length, capacity, -1);
+        }
+
+        List<Location> locations = world.getLocations();
+        int index = locations.indexOf(target.getLocation());
+
+        infector[size] = parent;
+        host[size] = id;
+        this.time[size] = time;
+        location[size] = index == -1 || index > Byte.MAX_VALUE ? NO_LOCATION : (byte) index;
+        end[size] = Double.NaN;
+        secondary[size] = 0;
+        latest[id] = size;
+
+        return size++;
+    }
+
+    /**
+     * Get the latest infection of a human.
+     *
+     * @param id the id of a human
+     * @return the index of the latest infection of the human, or -1 if there is none
+     */
+    private int getLatest(int id) {
+        return id >= 0 && id < latest.length ? latest[id] : -1;
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Getter for {@link #size}.
+     *
+     * @return {@link #size}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the infection an infection came from.
+     *
+     * @param infection the index of an infection
+     * @return the index of the infection it came from, or {@value ROOT}
+     */
+    public int getInfector(int infection) {
+        return infector[Objects.checkIndex(infection, size)];
+    }
+
+    /**
+     * Get the id of the human infected in an infection.
+     *
+     * @param infection the index of an infection
+     * @return the id of the infected human
+     */
+    public int getHost(int infection) {
+        return host[Objects.checkIndex(infection, size)];
+    }
+
+    /**
+     * Get the time of an infection.
+     *
+     * @param infection the index of an infection
+     * @return the time of the infection in seconds, NaN for a root whose infection was not seen
+     */
+    public double getTime(int infection) {
+        return time[Objects.checkIndex(infection, size)];
+    }
+
+    /**
+     * Get the location of an infection.
+     *
+     * @param infection the index of an infection
+     * @return the index of the location in the world, or {@value NO_LOCATION}
+     */
+    public byte getLocation(int infection) {
+        return location[Objects.checkIndex(infection, size)];
+    }
+
+    /**
+     * Get the time an infection ended at.
+     *
+     * @param infection the index of an infection
+     * @return the time the infection ended at in seconds, NaN while it lasts
+     */
+    public double getEnd(int infection) {
+        return end[Objects.checkIndex(infection, size)];
+    }
+
+    /**
+     * Get the number of secondary infections that came from an infection.
+     *
+     * @param infection the index of an infection
+     * @return the number of secondary infections
+     */
+    public int getSecondary(int infection) {
+        return secondary[Objects.checkIndex(infection, size)];
+    }
+
+    /**
+     * Get the number of ended infections.
+     *
+     * @return the number of ended infections
+     */
+    public int getEndedCount() {
+        return endedSize;
+    }
+
+    /**
+     * Get an ended infection, in the order the infections ended in.
+     *
+     * @param index the position of the infection among the ended infections
+     * @return the index of the infection
+     */
+    public int getEnded(int index) {
+        return ended[Objects.checkIndex(index, endedSize)];
+    }
+
+}
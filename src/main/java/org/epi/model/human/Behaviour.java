@@ -1,6 +1,7 @@
 package org.epi.model.human;
 
 import org.epi.util.Error;
+import org.epi.util.Purpose;
 
 import javafx.geometry.Point2D;
 
@@ -22,7 +23,7 @@ public enum Behaviour{
         public void initVelocity(Model model) {
             Model.requireNonNull(model);
 
-            final double angle = 2 * PI * Math.random();
+            final double angle = 2 * PI * model.getHost().draw(Purpose.MOVEMENT);
             model.setVelocity(new Point2D(cos(angle), sin(angle)).multiply(SPEED));
         }
 
@@ -60,7 +61,7 @@ public enum Behaviour{
         public void initVelocity(Model model) {
             Model.requireNonNull(model);
 
-            final double angle = 2 * PI * Math.random();
+            final double angle = 2 * PI * model.getHost().draw(Purpose.MOVEMENT);
             model.setVelocity(new Point2D(cos(angle), sin(angle)).multiply(SPEED));
         }
 
@@ -2,14 +2,23 @@ package org.epi.model.human;
 
 import org.epi.model.world.Location;
 import org.epi.util.Error;
+import org.epi.util.Probability;
+import org.epi.util.Purpose;
 
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** A simple model of a human.
  * The main actors in the simulator.*/
 public class Human {
 
+    /** The number of humans created without an id, used to give them one.*/
+    private static final AtomicInteger CREATED = new AtomicInteger();
+
+    /** The id of this human, which is also its hash code so that every run iterates humans in the same order.*/
+    private final int id;
+
     /** The location of this human.*/
     private Location location;
 
@@ -25,6 +34,9 @@ public class Human {
     /** The pathogen this human is sick with.*/
     private Pathogen pathogen;
 
+    /** The number of draws made for this human for each purpose, by ordinal.*/
+    private final long[] draws = new long[Purpose.values().length];
+
     //---------------------------- Constructor ----------------------------
 
     /**
@@ -35,9 +47,24 @@ public class Human {
      * @throws NullPointerException if the given parameter is null
      */
     public Human(Location location, Behaviour behaviour) {
+        this(location, behaviour, CREATED.getAndIncrement());
+    }
+
+    /**
+     * Create a human with an id at a given location. Humans with the same ids are iterated in the same order,
+     * so a simulation is only repeatable if its humans are given ids.
+     *
+     * @param behaviour the behaviour of this human
+     * @param location the location of this human
+     * @param id the id of this human
+     * @throws NullPointerException if the given location or behaviour is null
+     */
+    public Human(Location location, Behaviour behaviour, int id) {
         Behaviour.requireNonNull(behaviour);
         Objects.requireNonNull(location, Error.getNullMsg("location"));
 
+        this.id = id;
+
         this.immuneSystem = new ImmuneSystem(this);
 
         this.status = Status.HEALTHY;
@@ -50,6 +77,16 @@ public class Human {
 
     //---------------------------- Helper methods ----------------------------
 
+    /**
+     * Returns the hash code for this human, which is its id.
+     *
+     * @return the hash code for this human
+     */
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
     /**
      * Check if this human is sick with a pathogen.
      *
@@ -76,7 +113,46 @@ public class Human {
      * Get all humans which in this human's vicinity.
      */
     public Set<Human> getNearby() {
-        return location.getSpatialHash().getNearby(this);
+        return location.getNearby(this);
+    }
+
+    /**
+     * Draw a uniform number for this human from their own stream for a purpose, see {@link Probability}.
+     *
+     * @param purpose the purpose of the draw
+     * @return a number in [0, 1)
+     * @throws NullPointerException if the given purpose is null
+     */
+    public double draw(Purpose purpose) {
+        return Probability.nextDouble(id, purpose, draws[purpose.ordinal()]++);
+    }
+
+    /**
+     * Draw the uniform number with the given index from this human's own stream for a purpose, without counting it
+     * as a draw, e.g. to key the draws of routine events by their round rather than by the draws made before them.
+     *
+     * @param purpose the purpose of the draw
+     * @param draw the index of the draw in the stream
+     * @return a number in [0, 1)
+     * @throws NullPointerException if the given purpose is null
+     */
+    public double draw(Purpose purpose, long draw) {
+        return Probability.nextDouble(id, purpose, draw);
+    }
+
+    /**
+     * Sample a boolean for this human from their own stream for a purpose, given a certain chance.
+     *
+     * @param purpose the purpose of the draw
+     * @param chance the chance of success
+     * @return true if the sampling was within the chance of the success, otherwise false
+     * @throws NullPointerException if the given purpose is null
+     * @throws IllegalArgumentException if the given chance is less than {@value Probability#MIN_PROB} or more than
+     *                                  {@value Probability#MAX_PROB}
+     */
+    public boolean chance(Purpose purpose, double chance) {
+        Probability.probabilityCheck(chance);
+        return draw(purpose) < chance;
     }
 
     //---------------------------- Simulator actions ----------------------------
@@ -89,12 +165,12 @@ public class Human {
      */
     public void pathogen(double elapsedSeconds) {
         Error.nonNegativeCheck(elapsedSeconds);
-        pathogen.infect();
+        pathogen.infect(elapsedSeconds);
         pathogen.live(elapsedSeconds);
     }
 
     /**
-     * Let the immune system live and defend this human.
+     * Let the immune system live. The immune system defends this human when a pathogen is transmitted to them.
      *
      * @param elapsedSeconds the number of seconds elapsed since the immune system was last updated
      * @throws IllegalArgumentException if the given parameter is negative
@@ -103,31 +179,56 @@ public class Human {
         Error.nonNegativeCheck(elapsedSeconds);
 
         immuneSystem.live(elapsedSeconds);
-
-        if (isSick()) {
-            immuneSystem.defend();
-        }
     }
 
     /**
-     * Set the correct fill for the model and move the model.
-     *
-     * @param elapsedSeconds the number of seconds elapsed since this human's model was last updated
-     * @throws IllegalArgumentException if the given parameter is negative
+     * Set the correct fill for the model.
+     * The model is adjusted and moved together with the rest of the location's population.
      */
-    public void model(double elapsedSeconds) {
-        Error.nonNegativeCheck(elapsedSeconds);
+    public void model() {
         status();
         model.fill();
-        model.move(elapsedSeconds);
     }
 
     //---------------------------- Getters & Setters ----------------------------
 
     /**
-     * Getter for {@link #immuneSystem}.
+     * Getter for {@link #id}.
      *
-     * @return {@link #immuneSystem}
+     * @return {@link #id}
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get the number of draws made for this human for a purpose.
+     *
+     * @param purpose a purpose
+     * @return the number of draws, which is the index of the next draw
+     * @throws NullPointerException if the given purpose is null
+     */
+    public long getDraws(Purpose purpose) {
+        return draws[purpose.ordinal()];
+    }
+
+    /**
+     * Set the number of draws made for this human for a purpose, e.g. to restore a human exactly.
+     *
+     * @param purpose a purpose
+     * @param draws the number of draws, which is the index of the next draw
+     * @throws NullPointerException if the given purpose is null
+     * @throws IllegalArgumentException if the given number of draws is negative
+     */
+    public void setDraws(Purpose purpose, long draws) {
+        Error.nonNegativeCheck(draws);
+        this.draws[purpose.ordinal()] = draws;
+    }
+
+    /**
+     * Getter for {@link #location}.
+     *
+     * @return {@link #location}
      */
     public Location getLocation() {
         return location;
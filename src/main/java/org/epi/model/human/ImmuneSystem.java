@@ -1,30 +1,38 @@
 package org.epi.model.human;
 
+import org.epi.model.event.Event;
+import org.epi.model.event.EventLog;
 import org.epi.util.Probability;
 import org.epi.util.Error;
+import org.epi.util.Purpose;
 
-import javafx.beans.property.DoubleProperty;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-
+import java.util.Arrays;
 import java.util.Objects;
 
 /** Simple model of a immune system.
- * A human's natural defense against pathogens.*/
+ * A human's natural defense against pathogens.
+ *
+ * The immune system remembers up to {@value MEMORY_SIZE} strains, each for its own duration. When the memory is full,
+ * the strain with the least remaining duration is forgotten to make room. A pathogen is defended against once, when it
+ * is transmitted to the host, with the best protection of the remembered strains against its strain,
+ * see {@link StrainRegistry}.*/
 public class ImmuneSystem {
 
-    /** Default value for the antigen code.*/
-    public static final int DEF_ANTIGEN = 0;
+    /** The maximum number of strains remembered at once.*/
+    public static final int MEMORY_SIZE = 4;
 
     /** The backreference to the host of this immune system.*/
     private final Human host;
 
-    /** Antigen code for the pathogen that the host has gained immunity from.*/
-    private final IntegerProperty antigen;
+    /** The strains the host has gained immunity from, the first {@link #count} of which are remembered.*/
+    private final int[] strains;
+
+    /** The duration for which each strain is remembered by the immune system in seconds, in the order of
+     * {@link #strains}.*/
+    private final double[] immunityDurations;
 
-    /** The duration for which the antigen is remembered by the immune system in seconds.*/
-    private final DoubleProperty immunityDuration;
+    /** The number of strains remembered.*/
+    private int count;
 
     //---------------------------- Constructor ----------------------------
 
@@ -37,71 +45,99 @@ public class ImmuneSystem {
     public ImmuneSystem(Human host) {
         Objects.requireNonNull(host, Error.getNullMsg("host"));
         this.host = host;
-        this.antigen = new SimpleIntegerProperty(DEF_ANTIGEN);
-        this.immunityDuration = new SimpleDoubleProperty(0);
+        this.strains = new int[MEMORY_SIZE];
+        this.immunityDurations = new double[MEMORY_SIZE];
+        Arrays.fill(strains, StrainRegistry.NONE);
     }
 
     //---------------------------- Helper methods ----------------------------
 
     /**
-     * Check if the host has a pathogen.
+     * Check if the host is immune to any strain of the pathogen in this simulation.
+     *
+     * @return true if the immune system remembers a strain, otherwise false
+     */
+    public boolean isImmune() {
+        return count > 0;
+    }
+
+    /**
+     * Find a strain in the memory.
      *
-     * @throws IllegalStateException if the given host has no pathogen
+     * @param strain the id of a strain
+     * @return the index of the strain in {@link #strains}, or -1 if it is not remembered
      */
-    private void pathogenCheck() {
-        if (host.getPathogen() == null) {
-            throw new IllegalStateException(Error.ERROR_TAG + " Immune defense called without a pathogen in the host.");
+    private int indexOf(int strain) {
+        for (int i = 0; i < count; i++) {
+            if (strains[i] == strain) {
+                return i;
+            }
         }
+
+        return -1;
     }
 
     /**
-     * Check if the host is immune to the pathogen in this simulation.
+     * Forget the strain at an index of the memory.
      *
-     * @return true if the immune system is immune to the pathogen in the simulation, otherwise false
+     * @param index an index of {@link #strains}
      */
-    public boolean isImmune() {
-        return antigen.get() != DEF_ANTIGEN;
+    private void forget(int index) {
+        count--;
+        strains[index] = strains[count];
+        immunityDurations[index] = immunityDurations[count];
+        strains[count] = StrainRegistry.NONE;
+        immunityDurations[count] = 0;
     }
 
     //---------------------------- Simulator actions ----------------------------
 
     /**
-     * Decrease the immunity duration as time passes and if enough time has passed, forget.
+     * Decrease the immunity durations as time passes and forget the strains whose time has passed.
      *
      * @param elapsedSeconds the number of seconds elapsed since the immune system was last updated
      */
     public void live(double elapsedSeconds) {
-        if (isImmune()){
-            immunityDuration.set(immunityDuration.get() - elapsedSeconds);
-            forget();
-        }
-    }
+        if (isImmune()) {
+            for (int i = count - 1; i >= 0; i--) {
+                immunityDurations[i] -= elapsedSeconds;
 
-    /**
-     * Forget the pathogen if enough time has passed.
-     */
-    private void forget() {
-        if (immunityDuration.get() <= 0) {
-            antigen.set(DEF_ANTIGEN);
-            immunityDuration.set(0);
+                if (immunityDurations[i] <= 0) {
+                    forget(i);
+                }
+            }
+
+            if (!isImmune()) {
+                EventLog.record(Event.IMMUNITY_LOSS, host);
+            }
         }
     }
 
     /**
-     * Defend the host against known pathogens.
+     * Defend the host against a pathogen transmitted to them, with the best protection of the remembered strains
+     * against its strain. A defended pathogen never infects the host, and its strain is remembered again for its
+     * immunity duration.
      *
-     * @throws IllegalStateException if the host has no pathogen
+     * @param pathogen a pathogen transmitted to the host
+     * @return true if the pathogen is defended against, otherwise false
+     * @throws NullPointerException if the given pathogen is null
      */
-    public void defend() {
-        pathogenCheck();
+    public boolean defend(Pathogen pathogen) {
+        Objects.requireNonNull(pathogen, Error.getNullMsg("pathogen"));
 
-        boolean pathogenIsKnown = antigen.get() == host.getPathogen().hashCode();
+        double protection = Probability.MIN_PROB;
+        for (int i = 0; i < count; i++) {
+            protection = Math.max(protection, StrainRegistry.protection(pathogen.getStrain(), strains[i]));
+        }
 
-        if (pathogenIsKnown) {
-            immunityDuration.set(host.getPathogen().getImmunityDuration());
-            host.getPathogen().die();
+        boolean isDefended = protection >= Probability.MAX_PROB
+                || protection > Probability.MIN_PROB && host.chance(Purpose.IMMUNITY, protection);
+
+        if (isDefended) {
+            remember(pathogen.getStrain(), pathogen.getImmunityDuration());
         }
 
+        return isDefended;
     }
 
     /**
@@ -110,12 +146,115 @@ public class ImmuneSystem {
      * @param pathogen a pathogen which the host has survived
      */
     public void learn(Pathogen pathogen) {
-        boolean immunityIsGained = Probability.chance(pathogen.getImmunityRate());
+        boolean immunityIsGained = host.chance(Purpose.IMMUNITY, pathogen.getImmunityRate());
 
         if (immunityIsGained) {
-            antigen.set(pathogen.hashCode());
-            immunityDuration.set(pathogen.getImmunityDuration());
+            remember(pathogen.getStrain(), pathogen.getImmunityDuration());
         }
     }
 
+    /**
+     * Remember the given pathogen for the given duration, as if the host had survived it and become immune.
+     *
+     * @param pathogen a pathogen
+     * @param immunityDuration the duration for which the pathogen is remembered in seconds
+     * @throws NullPointerException if the given pathogen is null
+     * @throws IllegalArgumentException if the given duration is negative
+     */
+    public void remember(Pathogen pathogen, double immunityDuration) {
+        Objects.requireNonNull(pathogen, Error.getNullMsg("pathogen"));
+        remember(pathogen.getStrain(), immunityDuration);
+    }
+
+    /**
+     * Remember a strain for the given duration, e.g. to restore an immune system exactly. If the memory is full,
+     * the strain with the least remaining duration is forgotten first.
+     *
+     * @param strain the id of a strain, or {@value StrainRegistry#NONE} for no strain
+     * @param immunityDuration the duration for which the strain is remembered in seconds, or 0 to forget it
+     * @throws IllegalArgumentException if the given duration is negative
+     */
+    public void remember(int strain, double immunityDuration) {
+        Error.nonNegativeCheck(immunityDuration);
+
+        if (strain == StrainRegistry.NONE) {
+            return;
+        }
+
+        int index = indexOf(strain);
+
+        if (index == -1 && immunityDuration > 0) {
+            if (count == MEMORY_SIZE) {
+                int shortest = 0;
+                for (int i = 1; i < count; i++) {
+                    if (immunityDurations[i] < immunityDurations[shortest]) {
+                        shortest = i;
+                    }
+                }
+                forget(shortest);
+            }
+
+            index = count++;
+            strains[index] = strain;
+        }
+
+        if (index == -1) {
+            return;
+        }
+
+        if (immunityDuration > 0) {
+            immunityDurations[index] = immunityDuration;
+        } else {
+            forget(index);
+        }
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Getter for {@link #count}.
+     *
+     * @return {@link #count}
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get a remembered strain.
+     *
+     * @param index an index of the memory, less than {@link #getCount()}
+     * @return the id of the strain
+     * @throws IndexOutOfBoundsException if the index is not of a remembered strain
+     */
+    public int getStrain(int index) {
+        return strains[Objects.checkIndex(index, count)];
+    }
+
+    /**
+     * Get the remaining duration of a remembered strain.
+     *
+     * @param index an index of the memory, less than {@link #getCount()}
+     * @return the duration for which the strain is remembered in seconds
+     * @throws IndexOutOfBoundsException if the index is not of a remembered strain
+     */
+    public double getImmunityDuration(int index) {
+        return immunityDurations[Objects.checkIndex(index, count)];
+    }
+
+    /**
+     * Get the number of seconds until the immune system next forgets a strain.
+     *
+     * @return the least remaining duration of the remembered strains in seconds, or 0 if no strain is remembered
+     */
+    public double getImmunityDuration() {
+        double result = count > 0 ? Double.MAX_VALUE : 0;
+
+        for (int i = 0; i < count; i++) {
+            result = Math.min(result, immunityDurations[i]);
+        }
+
+        return result;
+    }
+
 }
@@ -26,6 +26,12 @@ public class Model extends Circle {
     /** The velocity of the host in pixels per second.*/
     private Point2D velocity;
 
+    /** The horizontal position of the model before its last move.*/
+    private double previousX;
+
+    /** The vertical position of the model before its last move.*/
+    private double previousY;
+
     //---------------------------- Constructor ----------------------------
 
     /**
@@ -39,8 +45,7 @@ public class Model extends Circle {
         Objects.requireNonNull(host, Error.getNullMsg("host"));
         Behaviour.requireNonNull(behaviour);
 
-        setCenterY(DEF_POS);
-        setCenterY(DEF_POS);
+        place(DEF_POS, DEF_POS);
         setRadius(HUMAN_RADIUS);
 
         this.host = host;
@@ -54,24 +59,51 @@ public class Model extends Circle {
     //---------------------------- Helper method ----------------------------
 
     /**
-     * Check if a model is in contact with this model.
+     * Check if a model has been in contact with this model during their last move, i.e., if they were within a
+     * diameter of each other for any time during the move, see {@link #contactFraction(Model)}.
      *
      * @param model a model
      * @return true if this model is in contact with the given model, otherwise false
      * @throws NullPointerException if the given model is null
      */
     public boolean inContactWith(Model model) {
+        return contactFraction(model) > 0;
+    }
+
+    /**
+     * Get the fraction of the last move during which a model was within a diameter of this model.
+     * The contact is swept over the move, so that models which passed through each other during a long move
+     * are still in contact for the time it took them to pass.
+     *
+     * @param model a model
+     * @return the fraction of the move in contact, from 0 to 1
+     * @throws NullPointerException if the given model is null
+     */
+    public double contactFraction(Model model) {
         requireNonNull(model);
 
-        double deltaX = model.getCenterX() - this.getCenterX();
-        double deltaY = model.getCenterY() - this.getCenterY();
+        double startX = model.previousX - this.previousX;
+        double startY = model.previousY - this.previousY;
+        double sweepX = model.getCenterX() - this.getCenterX() - startX;
+        double sweepY = model.getCenterY() - this.getCenterY() - startY;
+        double sweepSquared = sweepX * sweepX + sweepY * sweepY;
+        double startSquared = startX * startX + startY * startY - HUMAN_DIAMETER * HUMAN_DIAMETER;
 
-        if (deltaX * deltaX + deltaY * deltaY <= HUMAN_DIAMETER * HUMAN_DIAMETER) {
-            return deltaX * (velocity.getX() - this.velocity.getX())
-                    + deltaY * (model.velocity.getY() - this.velocity.getY()) <= 0;
+        if (sweepSquared == 0) {
+            return startSquared <= 0 ? 1 : 0;
         }
 
-        return false;
+        // The models are within a diameter while the squared distance, a quadratic in the fraction of the move whose
+        // minimum is at the closest approach, is at most the squared diameter.
+        double closest = - (startX * sweepX + startY * sweepY) / sweepSquared;
+        double discriminant = closest * closest - startSquared / sweepSquared;
+
+        if (discriminant < 0) {
+            return 0;
+        }
+
+        double halfWidth = Math.sqrt(discriminant);
+        return Math.max(Math.min(closest + halfWidth, 1) - Math.max(closest - halfWidth, 0), 0);
     }
 
     /**
@@ -103,14 +135,36 @@ public class Model extends Circle {
     //---------------------------- Simulator actions ----------------------------
 
     /**
-     * Move the model by its velocity for a given number of seconds.
-     *
-     * @param elapsedSeconds the number of seconds elapsed since the model was last updated
+     * Adjust the velocity of the model to others given its behaviour.
      */
-    public void move(double elapsedSeconds) {
+    public void adjust() {
         behaviour.adjustToOthers(this);
-        setCenterX(getCenterX() + velocity.getX() * elapsedSeconds);
-        setCenterY(getCenterY() + velocity.getY() * elapsedSeconds);
+    }
+
+    /**
+     * Move the model to the given position, sweeping it from its current position.
+     *
+     * @param x the horizontal position in pixels
+     * @param y the vertical position in pixels
+     */
+    public void moveTo(double x, double y) {
+        previousX = getCenterX();
+        previousY = getCenterY();
+        setCenterX(x);
+        setCenterY(y);
+    }
+
+    /**
+     * Place the model at the given position without sweeping it from its current position.
+     *
+     * @param x the horizontal position in pixels
+     * @param y the vertical position in pixels
+     */
+    public void place(double x, double y) {
+        setCenterX(x);
+        setCenterY(y);
+        previousX = x;
+        previousY = y;
     }
 
     /**
@@ -140,6 +194,24 @@ public class Model extends Circle {
         return behaviour;
     }
 
+    /**
+     * Getter for {@link #previousX}.
+     *
+     * @return {@link #previousX}
+     */
+    public double getPreviousX() {
+        return previousX;
+    }
+
+    /**
+     * Getter for {@link #previousY}.
+     *
+     * @return {@link #previousY}
+     */
+    public double getPreviousY() {
+        return previousY;
+    }
+
     /**
      * Setter for {@link #velocity}.
      *
@@ -1,11 +1,17 @@
 package org.epi.model.human;
 
+import org.epi.model.event.Event;
+import org.epi.model.event.EventLog;
+import org.epi.model.event.InfectionTree;
+import org.epi.model.world.Exposure;
 import org.epi.util.Probability;
 import org.epi.util.Error;
+import org.epi.util.Purpose;
 
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 
+import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -22,7 +28,7 @@ public class Pathogen {
     /** The lifespan of this pathogen in a host in seconds.*/
     private final DoubleProperty lifespan;
 
-    /** The probability of a transmission occurring in effective contact.*/
+    /** The probability of a transmission occurring within a second of effective contact.*/
     private final DoubleProperty transmissionRisk;
 
     /** The probability of an sick human dying from the pathogen.*/
@@ -34,13 +40,16 @@ public class Pathogen {
     /** The duration of this pathogen's immunity in seconds.*/
     private final DoubleProperty immunityDuration;
 
+    /** The id of this pathogen's strain in the strain registry of the simulation.*/
+    private int strain;
+
     //---------------------------- Constructor ----------------------------
 
     /**
      * Create a pathogen.
      *
      * @param lifespan the lifespan of this pathogen in a host in seconds
-     * @param transmissionRisk the probability of a transmission occurring in effective contact
+     * @param transmissionRisk the probability of a transmission occurring within a second of effective contact
      * @param fatalityRate the probability of a sick human dying from the pathogen
      * @param immunityRate this pathogen's immunity rate
      * @param immunityDuration the duration of this pathogen's immunity in seconds
@@ -64,6 +73,7 @@ public class Pathogen {
         this.fatalityRate = new SimpleDoubleProperty(fatalityRate);
         this.immunityRate = new SimpleDoubleProperty(immunityRate);
         this.immunityDuration = new SimpleDoubleProperty(immunityDuration);
+        this.strain = StrainRegistry.ANCESTOR;
     }
 
     //---------------------------- Helper methods ----------------------------
@@ -99,28 +109,98 @@ public class Pathogen {
     //---------------------------- Simulator actions ----------------------------
 
     /**
-     * Attempt to infect all humans which are in contact with the host.
+     * Expose all humans which are in contact with the host and infect those whose exposure is enough.
+     *
+     * @param elapsedSeconds the number of seconds the humans were in contact with the host
+     */
+    public void infect(double elapsedSeconds) {
+        transmissions(elapsedSeconds).forEach(this::transmit);
+    }
+
+    /**
+     * Infect a human with a copy of this pathogen, unless their immune system defends against it.
+     * Only infections that are not defended against are logged and recorded in the infection tree.
+     *
+     * @param target a healthy human in contact with the host
      */
-    public void infect() {
-        host.getNearby().parallelStream().
-                filter(Predicate.not(Human::isSick))
-                .filter(x -> Probability.chance(transmissionRisk.get()))
+    public void transmit(Human target) {
+        Pathogen pathogen = reproduce();
+
+        if (target.getImmuneSystem().defend(pathogen)) {
+            return;
+        }
+
+        target.setPathogen(pathogen);
+        EventLog.record(Event.INFECTION, target);
+        InfectionTree.recordInfection(host, target);
+    }
+
+    /**
+     * Expose all humans in contact with the host to this pathogen in the exposure of the host's location, and find
+     * those that this pathogen is transmitted to, without infecting them. Each human is exposed for the part of the
+     * elapsed seconds they spent within a diameter of the host, see {@link Model#contactFraction(Model)}.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since the humans were last exposed
+     * @return the humans to infect
+     */
+    public List<Human> transmissions(double elapsedSeconds) {
+        Exposure exposure = host.getLocation().getExposure();
+
+        return contacts().stream()
+                .filter(target -> exposure.expose(host, target, contactSeconds(target, elapsedSeconds),
+                        transmissionRisk.get()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the number of seconds a human spent within a diameter of the host during their last move.
+     *
+     * @param target a human in the host's location
+     * @param elapsedSeconds the number of seconds of the last move
+     * @return the number of seconds in contact
+     */
+    public double contactSeconds(Human target, double elapsedSeconds) {
+        return target.getModel().contactFraction(host.getModel()) * elapsedSeconds;
+    }
+
+    /**
+     * Find all healthy humans in contact with the host, which this pathogen may be transmitted to.
+     * No randomness is drawn, so contacts can be found in parallel and transmitted afterwards in a fixed order.
+     *
+     * @return the humans which may be infected
+     */
+    public List<Human> contacts() {
+        return host.getNearby().stream()
+                .filter(Predicate.not(Human::isSick))
                 .filter(human -> human.getModel().inContactWith(host.getModel()))
-                .collect(Collectors.toList())
-                .forEach(target -> target.setPathogen(reproduce()));
+                .collect(Collectors.toList());
     }
 
     /**
-     * Create a new copy of this pathogen to infect another human.
+     * Create a new copy of this pathogen to infect another human, which may mutate into another strain in the strain
+     * registry in use, see {@link StrainRegistry}.
      *
      * @return create a new copy of this pathogen
      */
     public Pathogen reproduce()  {
-        return new Pathogen(this.lifespan.get(),
+        Pathogen pathogen = copy();
+        StrainRegistry.mutate(pathogen);
+        return pathogen;
+    }
+
+    /**
+     * Create a new copy of this pathogen of the same strain, e.g. to seed or restore an infection.
+     *
+     * @return create a new copy of this pathogen
+     */
+    public Pathogen copy() {
+        Pathogen pathogen = new Pathogen(this.lifespan.get(),
                 this.transmissionRisk.get(),
                 this.fatalityRate.get(),
                 this.immunityRate.get(),
                 this.immunityDuration.get());
+        pathogen.setStrain(strain);
+        return pathogen;
     }
 
     /**
@@ -135,6 +215,7 @@ public class Pathogen {
         if (lifespan.get() <= lifetime.get()) {
             if (!fatal()) {
                 host.getImmuneSystem().learn(this);
+                EventLog.record(Event.RECOVERY, host);
             }
             die();
         }
@@ -144,10 +225,11 @@ public class Pathogen {
      * Attempt to kill the host by removing them from their location.
      */
     private boolean fatal() {
-        boolean isFatal = Probability.chance(fatalityRate.get());
+        boolean isFatal = host.chance(Purpose.FATALITY, fatalityRate.get());
 
         if (isFatal) {
             host.setLocation(null);
+            EventLog.record(Event.DEATH, host);
         }
 
         return isFatal;
@@ -157,6 +239,7 @@ public class Pathogen {
      * Remove all references to this pathogen, so that it is deleted by the garbage collection.
      */
     public void die() {
+        InfectionTree.recordEnd(host);
         host.setPathogen(null);
         setHost(null);
     }
@@ -170,6 +253,44 @@ public class Pathogen {
         this.host = host;
     }
 
+    /**
+     * Getter for {@link #strain}.
+     *
+     * @return {@link #strain}
+     */
+    public int getStrain() {
+        return strain;
+    }
+
+    /**
+     * Setter for {@link #strain}.
+     *
+     * @param strain {@link #strain}
+     */
+    public void setStrain(int strain) {
+        this.strain = strain;
+    }
+
+    /**
+     * Getter for {@link #lifetime}.
+     *
+     * @return {@link #lifetime}
+     */
+    public double getLifetime() {
+        return lifetime.get();
+    }
+
+    /**
+     * Setter for {@link #lifetime}.
+     *
+     * @param lifetime {@link #lifetime}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setLifetime(double lifetime) {
+        Error.nonNegativeCheck(lifetime);
+        this.lifetime.set(lifetime);
+    }
+
     /**
      * Getter for {@link #lifespan}.
      *
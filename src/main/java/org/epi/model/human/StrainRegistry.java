@@ -0,0 +1,467 @@
+package org.epi.model.human;
+
+import org.epi.util.Error;
+import org.epi.util.Probability;
+
+import java.util.Objects;
+
+/**
+ * The strains of a pathogen in a simulation, interned by their parameters under integer ids.
+ *
+ * The first strain is the {@link #ANCESTOR}, the simulated pathogen itself. When a pathogen reproduces, it mutates
+ * into another strain with the mutation rate, which shifts its transmission risk on the log-odds scale by a normal
+ * step of the mutation size, rounded to a whole number of mutation sizes. The transmission risks of the strains are
+ * thus on a lattice around the ancestor's, so mutations back to a known risk find its strain again. Every strain but
+ * the ancestor has the strain it mutated from as its parent, and the cross-immunity between two strains is the
+ * cross-immunity factor to the power of the number of mutations between them in this lineage, so immunity to a strain
+ * protects fully against itself and less against more distant strains. There are at most {@value MAX_STRAINS}
+ * strains; once they are all taken, mutations into new strains are rejected and counted, see {@link #getRejected()}.
+ *
+ * Strains are kept in primitive columns by id, so that looking up a strain does not allocate. Pathogens mutate into
+ * and immune systems look up the strains of the registry in use by the current thread,
+ * see {@link #use(StrainRegistry)}.
+ */
+public class StrainRegistry {
+
+    /** The id of the ancestral strain, i.e., the simulated pathogen.*/
+    public static final int ANCESTOR = 0;
+
+    /** The parent of the ancestral strain.*/
+    public static final int NONE = -1;
+
+    /** The maximum number of strains.*/
+    public static final int MAX_STRAINS = 64;
+
+    /** The default probability of a pathogen mutating when it reproduces.*/
+    public static final double DEF_MUTATION_RATE = 0;
+
+    /** The default standard deviation of a mutation of the transmission risk, on the log-odds scale.*/
+    public static final double DEF_MUTATION_SIZE = 0.5;
+
+    /** The default cross-immunity between a strain and the strain it mutated from.*/
+    public static final double DEF_CROSS_IMMUNITY = 0.5;
+
+    /** The registry in use by each thread.*/
+    private static final ThreadLocal<StrainRegistry> current = new ThreadLocal<>();
+
+    /** The probability of a pathogen mutating when it reproduces.*/
+    private double mutationRate;
+
+    /** The standard deviation of a mutation of the transmission risk, on the log-odds scale.*/
+    private double mutationSize;
+
+    /** The cross-immunity between a strain and the strain it mutated from.*/
+    private double crossImmunity;
+
+    /** The parent of each strain, or {@value NONE}.*/
+    private final int[] parents;
+
+    /** The number of mutations from the ancestor to each strain.*/
+    private final int[] depths;
+
+    /** The lifespan of each strain in seconds.*/
+    private final double[] lifespans;
+
+    /** The transmission risk of each strain.*/
+    private final double[] transmissionRisks;
+
+    /** The fatality rate of each strain.*/
+    private final double[] fatalityRates;
+
+    /** The immunity rate of each strain.*/
+    private final double[] immunityRates;
+
+    /** The immunity duration of each strain in seconds.*/
+    private final double[] immunityDurations;
+
+    /** The number of strains.*/
+    private int size;
+
+    /** The number of mutations into new strains rejected since the registry was full.*/
+    private int rejected;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a registry with the given pathogen as its ancestral strain.
+     *
+     * @param ancestor the simulated pathogen
+     * @throws NullPointerException if the given pathogen is null
+     */
+    public StrainRegistry(Pathogen ancestor) {
+        Objects.requireNonNull(ancestor, Error.getNullMsg("ancestor"));
+
+        this.mutationRate = DEF_MUTATION_RATE;
+        this.mutationSize = DEF_MUTATION_SIZE;
+        this.crossImmunity = DEF_CROSS_IMMUNITY;
+        this.parents = new int[MAX_STRAINS];
+        this.depths = new int[MAX_STRAINS];
+        this.lifespans = new double[MAX_STRAINS];
+        this.transmissionRisks = new double[MAX_STRAINS];
+        this.fatalityRates = new double[MAX_STRAINS];
+        this.immunityRates = new double[MAX_STRAINS];
+        this.immunityDurations = new double[MAX_STRAINS];
+
+        add(NONE, ancestor.getLifespan(), ancestor.getTransmissionRisk(), ancestor.getFatalityRate(),
+                ancestor.getImmunityRate(), ancestor.getImmunityDuration());
+    }
+
+    //---------------------------- Thread binding ----------------------------
+
+    /**
+     * Mutate the pathogens and look up the strains of the current thread in the given registry.
+     *
+     * @param registry a strain registry, or null to stop mutating the pathogens of the current thread
+     */
+    public static void use(StrainRegistry registry) {
+        if (registry == null) {
+            current.remove();
+        } else {
+            current.set(registry);
+        }
+    }
+
+    /**
+     * Get the registry the pathogens of the current thread mutate in, e.g. to bind it again after binding another one.
+     *
+     * @return the registry in use by the current thread, or null if there is none
+     */
+    public static StrainRegistry inUse() {
+        return current.get();
+    }
+
+    /**
+     * Let a newly reproduced pathogen mutate in the registry in use by the current thread, if there is one.
+     *
+     * @param pathogen a newly reproduced pathogen, which is changed into its new strain if it mutates
+     */
+    static void mutate(Pathogen pathogen) {
+        StrainRegistry registry = current.get();
+
+        if (registry != null && registry.mutationRate > 0 && registry.mutationSize > 0
+                && Probability.chance(registry.mutationRate)) {
+            registry.shift(pathogen);
+        }
+    }
+
+    /**
+     * Get the protection that immunity to a strain gives against another strain in the registry in use by the
+     * current thread. Without a registry, immunity only protects against the same strain.
+     *
+     * @param strain the strain of a pathogen
+     * @param known a strain the immune system is immune to
+     * @return the probability that the pathogen is defended against
+     */
+    static double protection(int strain, int known) {
+        StrainRegistry registry = current.get();
+
+        if (strain == known) {
+            return Probability.MAX_PROB;
+        }
+
+        return registry == null ? Probability.MIN_PROB : registry.getCrossImmunity(strain, known);
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Find the strain with the given parameters, or add it as a mutation of the given parent.
+     *
+     * @param parent the strain it mutated from
+     * @param lifespan the lifespan in seconds
+     * @param transmissionRisk the transmission risk
+     * @param fatalityRate the fatality rate
+     * @param immunityRate the immunity rate
+     * @param immunityDuration the immunity duration in seconds
+     * @return the id of the strain, or {@value NONE} if it is new and the registry is full
+     * @throws IndexOutOfBoundsException if the parent is not a strain
+     */
+    public int intern(int parent, double lifespan, double transmissionRisk, double fatalityRate,
+                      double immunityRate, double immunityDuration) {
+        Objects.checkIndex(parent, size);
+
+        for (int strain = 0; strain < size; strain++) {
+            if (lifespans[strain] == lifespan && transmissionRisks[strain] == transmissionRisk
+                    && fatalityRates[strain] == fatalityRate && immunityRates[strain] == immunityRate
+                    && immunityDurations[strain] == immunityDuration) {
+                return strain;
+            }
+        }
+
+        return size == MAX_STRAINS ? NONE
+                : add(parent, lifespan, transmissionRisk, fatalityRate, immunityRate, immunityDuration);
+    }
+
+    /**
+     * Add a strain as a mutation of the given parent, even if there is a strain with the same parameters,
+     * e.g. to restore a registry with the same ids.
+     *
+     * @param parent the strain it mutated from
+     * @param lifespan the lifespan in seconds
+     * @param transmissionRisk the transmission risk
+     * @param fatalityRate the fatality rate
+     * @param immunityRate the immunity rate
+     * @param immunityDuration the immunity duration in seconds
+     * @return the id of the strain
+     * @throws IndexOutOfBoundsException if the parent is not a strain
+     * @throws IllegalStateException if the registry is full
+     */
+    public int add(int parent, double lifespan, double transmissionRisk, double fatalityRate,
+                   double immunityRate, double immunityDuration) {
+        if (size == MAX_STRAINS) {
+            throw new IllegalStateException(Error.ERROR_TAG + " Strain registry is full.");
+        }
+
+        parents[size] = size == 0 ? NONE : parent;
+        depths[size] = size == 0 ? 0 : depths[Objects.checkIndex(parent, size)] + 1;
+        lifespans[size] = lifespan;
+        transmissionRisks[size] = transmissionRisk;
+        fatalityRates[size] = fatalityRate;
+        immunityRates[size] = immunityRate;
+        immunityDurations[size] = immunityDuration;
+
+        return size++;
+    }
+
+    /**
+     * Create a pathogen of a strain.
+     *
+     * @param strain the id of a strain
+     * @return a new pathogen without a host
+     * @throws IndexOutOfBoundsException if the given id is not a strain
+     */
+    public Pathogen create(int strain) {
+        Objects.checkIndex(strain, size);
+
+        Pathogen pathogen = new Pathogen(lifespans[strain], transmissionRisks[strain], fatalityRates[strain],
+                immunityRates[strain], immunityDurations[strain]);
+        pathogen.setStrain(strain);
+
+        return pathogen;
+    }
+
+    /**
+     * Remove all strains but the ancestor.
+     */
+    public void clear() {
+        size = 1;
+        rejected = 0;
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Shift the transmission risk of a pathogen by a whole number of mutation sizes on the log-odds scale, and change
+     * it into the strain of the new risk. The new risk is computed from the ancestor's, so that the same number of
+     * steps always gives the same risk.
+     *
+     * @param pathogen a pathogen
+     */
+    private void shift(Pathogen pathogen) {
+        double origin = logOdds(transmissionRisks[ANCESTOR]);
+        double level = Math.rint((logOdds(pathogen.getTransmissionRisk()) - origin) / mutationSize);
+        double step = Math.rint(Probability.getRandom().nextGaussian());
+
+        if (!Double.isFinite(origin) || !Double.isFinite(level) || step == 0) {
+            return;
+        }
+
+        double mutant = 1 / (1 + Math.exp(-(origin + (level + step) * mutationSize)));
+
+        int strain = intern(pathogen.getStrain(), pathogen.getLifespan(), mutant, pathogen.getFatalityRate(),
+                pathogen.getImmunityRate(), pathogen.getImmunityDuration());
+
+        if (strain == NONE) {
+            rejected++;
+        } else {
+            pathogen.setTransmissionRisk(mutant);
+            pathogen.setStrain(strain);
+        }
+    }
+
+    /**
+     * Get the log-odds of a probability.
+     *
+     * @param probability a probability
+     * @return the log-odds, which is infinite for a probability of 0 or 1
+     */
+    private static double logOdds(double probability) {
+        return Math.log(probability / (1 - probability));
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Get the cross-immunity between two strains.
+     *
+     * @param strain a strain
+     * @param other another strain
+     * @return the cross-immunity factor to the power of the number of mutations between the strains
+     * @throws IndexOutOfBoundsException if either id is not a strain
+     */
+    public double getCrossImmunity(int strain, int other) {
+        Objects.checkIndex(strain, size);
+        Objects.checkIndex(other, size);
+
+        int distance = 0;
+
+        while (strain != other) {
+            if (depths[strain] >= depths[other]) {
+                strain = parents[strain];
+            } else {
+                other = parents[other];
+            }
+
+            distance++;
+        }
+
+        return Math.pow(crossImmunity, distance);
+    }
+
+    /**
+     * Get the parent of a strain.
+     *
+     * @param strain the id of a strain
+     * @return the strain it mutated from, or {@value NONE} for the ancestor
+     * @throws IndexOutOfBoundsException if the given id is not a strain
+     */
+    public int getParent(int strain) {
+        return parents[Objects.checkIndex(strain, size)];
+    }
+
+    /**
+     * Get the lifespan of a strain.
+     *
+     * @param strain the id of a strain
+     * @return the lifespan in seconds
+     * @throws IndexOutOfBoundsException if the given id is not a strain
+     */
+    public double getLifespan(int strain) {
+        return lifespans[Objects.checkIndex(strain, size)];
+    }
+
+    /**
+     * Get the transmission risk of a strain.
+     *
+     * @param strain the id of a strain
+     * @return the transmission risk
+     * @throws IndexOutOfBoundsException if the given id is not a strain
+     */
+    public double getTransmissionRisk(int strain) {
+        return transmissionRisks[Objects.checkIndex(strain, size)];
+    }
+
+    /**
+     * Get the fatality rate of a strain.
+     *
+     * @param strain the id of a strain
+     * @return the fatality rate
+     * @throws IndexOutOfBoundsException if the given id is not a strain
+     */
+    public double getFatalityRate(int strain) {
+        return fatalityRates[Objects.checkIndex(strain, size)];
+    }
+
+    /**
+     * Get the immunity rate of a strain.
+     *
+     * @param strain the id of a strain
+     * @return the immunity rate
+     * @throws IndexOutOfBoundsException if the given id is not a strain
+     */
+    public double getImmunityRate(int strain) {
+        return immunityRates[Objects.checkIndex(strain, size)];
+    }
+
+    /**
+     * Get the immunity duration of a strain.
+     *
+     * @param strain the id of a strain
+     * @return the immunity duration in seconds
+     * @throws IndexOutOfBoundsException if the given id is not a strain
+     */
+    public double getImmunityDuration(int strain) {
+        return immunityDurations[Objects.checkIndex(strain, size)];
+    }
+
+    /**
+     * Getter for {@link #size}.
+     *
+     * @return {@link #size}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter for {@link #rejected}.
+     *
+     * @return {@link #rejected}, which is 0 unless the registry is full
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Getter for {@link #mutationRate}.
+     *
+     * @return {@link #mutationRate}
+     */
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    /**
+     * Setter for {@link #mutationRate}.
+     *
+     * @param mutationRate {@link #mutationRate}
+     * @throws IllegalArgumentException if the given parameter is less than {@value Probability#MIN_PROB} or
+     *                                  more than {@value Probability#MAX_PROB}
+     */
+    public void setMutationRate(double mutationRate) {
+        Probability.probabilityCheck(mutationRate);
+        this.mutationRate = mutationRate;
+    }
+
+    /**
+     * Getter for {@link #mutationSize}.
+     *
+     * @return {@link #mutationSize}
+     */
+    public double getMutationSize() {
+        return mutationSize;
+    }
+
+    /**
+     * Setter for {@link #mutationSize}.
+     *
+     * @param mutationSize {@link #mutationSize}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setMutationSize(double mutationSize) {
+        Error.nonNegativeCheck(mutationSize);
+        this.mutationSize = mutationSize;
+    }
+
+    /**
+     * Getter for {@link #crossImmunity}.
+     *
+     * @return {@link #crossImmunity}
+     */
+    public double getCrossImmunity() {
+        return crossImmunity;
+    }
+
+    /**
+     * Setter for {@link #crossImmunity}.
+     *
+     * @param crossImmunity {@link #crossImmunity}
+     * @throws IllegalArgumentException if the given parameter is less than {@value Probability#MIN_PROB} or
+     *                                  more than {@value Probability#MAX_PROB}
+     */
+    public void setCrossImmunity(double crossImmunity) {
+        Probability.probabilityCheck(crossImmunity);
+        this.crossImmunity = crossImmunity;
+    }
+
+}
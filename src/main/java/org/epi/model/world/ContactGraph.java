@@ -0,0 +1,363 @@
+package org.epi.model.world;
+
+import org.epi.model.human.Human;
+import org.epi.util.Error;
+import org.epi.util.Probability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * A graph of the contacts between humans, such as households, workplaces and schools,
+ * stored in compressed sparse row form.
+ *
+ * The contacts of the human at node {@code i} are the nodes {@code targets[offsets[i]]} up to
+ * {@code targets[offsets[i + 1] - 1]}. The graph does not change once created, so a graph that changes over time
+ * is modelled by setting a new graph on the world.
+ */
+public class ContactGraph {
+
+    /** The value of {@link #infectors} for a node which is not being infected.*/
+    private static final int NONE = -1;
+
+    /** The human at each node.*/
+    private final Human[] humans;
+
+    /** The node of each human.*/
+    private final Map<Human, Integer> nodes;
+
+    /** The index in {@link #targets} of the first contact of each node, followed by the number of edges.*/
+    private final int[] offsets;
+
+    /** The contacts of all nodes, node by node.*/
+    private final int[] targets;
+
+    /** The node infecting each node during a spread, or {@value NONE}.*/
+    private final AtomicIntegerArray infectors;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a contact graph from compressed sparse rows.
+     *
+     * @param humans the human at each node
+     * @param offsets the index of the first contact of each node, followed by the number of edges
+     * @param targets the contacts of all nodes, node by node
+     * @throws NullPointerException if any of the given parameters are null
+     * @throws IllegalArgumentException if the offsets do not have one more entry than there are humans, if the offsets
+     *                                  are decreasing or do not end in the number of edges, or if a contact is not a node
+     */
+    public ContactGraph(List<Human> humans, int[] offsets, int[] targets) {
+        Objects.requireNonNull(humans, Error.getNullMsg("humans"));
+        Objects.requireNonNull(offsets, Error.getNullMsg("offsets"));
+        Objects.requireNonNull(targets, Error.getNullMsg("targets"));
+        Error.intervalCheck("offset count", humans.size() + 1, humans.size() + 1, offsets.length);
+        Error.intervalCheck("first offset", 0, 0, offsets[0]);
+        Error.intervalCheck("edge count", offsets[offsets.length - 1], offsets[offsets.length - 1], targets.length);
+
+        for (int i = 0; i < humans.size(); i++) {
+            Error.intervalCheck("offset", offsets[i], targets.length, offsets[i + 1]);
+        }
+
+        for (int target : targets) {
+            Error.intervalCheck("contact", 0, humans.size() - 1, target);
+        }
+
+        this.humans = humans.toArray(new Human[0]);
+        this.nodes = new HashMap<>();
+        for (int i = 0; i < this.humans.length; i++) {
+            nodes.put(this.humans[i], i);
+        }
+
+        this.offsets = offsets.clone();
+        this.targets = targets.clone();
+        this.infectors = new AtomicIntegerArray(this.humans.length);
+
+        for (int i = 0; i < this.humans.length; i++) {
+            infectors.set(i, NONE);
+        }
+    }
+
+    /**
+     * Create a contact graph where every human is in contact with all other humans in each of their groups.
+     *
+     * @param humans the humans in the graph
+     * @param groups groups of humans in the graph, i.e., households or workplaces etc.
+     * @return the contact graph of the groups
+     * @throws NullPointerException if any of the given parameters are null
+     * @throws IllegalArgumentException if a group contains a human that is not in the graph
+     */
+    public static ContactGraph fromGroups(List<Human> humans, Collection<? extends Collection<Human>> groups) {
+        Objects.requireNonNull(humans, Error.getNullMsg("humans"));
+        Objects.requireNonNull(groups, Error.getNullMsg("groups"));
+
+        Map<Human, Integer> nodes = new HashMap<>();
+        for (int i = 0; i < humans.size(); i++) {
+            nodes.put(humans.get(i), i);
+        }
+
+        List<List<Integer>> contacts = new ArrayList<>();
+        humans.forEach(human -> contacts.add(new ArrayList<>()));
+
+        for (Collection<Human> group : groups) {
+            int[] members = group.stream().mapToInt(human -> node(nodes, human)).toArray();
+
+            for (int member : members) {
+                for (int other : members) {
+                    if (member != other) {
+                        contacts.get(member).add(other);
+                    }
+                }
+            }
+        }
+
+        int[] offsets = new int[humans.size() + 1];
+        for (int i = 0; i < humans.size(); i++) {
+            offsets[i + 1] = offsets[i] + contacts.get(i).size();
+        }
+
+        int[] targets = contacts.stream().flatMap(List::stream).mapToInt(Integer::intValue).toArray();
+
+        return new ContactGraph(humans, offsets, targets);
+    }
+
+    /**
+     * Create a copy of this graph over another population, in which each node is the human with the same id as the
+     * node's human in this graph, e.g. to carry the graph over to a reset world.
+     *
+     * @param population the other population
+     * @return the copy of this graph
+     * @throws NullPointerException if the given parameter is null
+     * @throws IllegalArgumentException if the population has no human with the id of a node's human
+     */
+    public ContactGraph copy(Collection<Human> population) {
+        Objects.requireNonNull(population, Error.getNullMsg("population"));
+
+        Map<Integer, Human> ids = new HashMap<>();
+        population.forEach(human -> ids.put(human.getId(), human));
+
+        List<Human> copies = new ArrayList<>();
+        for (Human human : humans) {
+            Human copy = ids.get(human.getId());
+
+            if (copy == null) {
+                throw new IllegalArgumentException(
+                        Error.ERROR_TAG + " Given population has no human with id: " + human.getId());
+            }
+
+            copies.add(copy);
+        }
+
+        return new ContactGraph(copies, offsets, targets);
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Let the given sick humans infect their contacts in the given location, where each contact transmits the pathogen
+     * with its transmission risk per second. The edges are swept in parallel without allocating, and the infections
+     * are made afterwards. Each edge draws from a stream keyed by the edge, and a contact reached by several sick
+     * humans is infected by the first of them in the graph, so the infections do not depend on the order in which
+     * the edges are swept.
+     *
+     * @param location the location of the sick humans
+     * @param sick sick humans in the location
+     * @param elapsedSeconds the number of seconds elapsed since the pathogens were last updated
+     * @throws IllegalArgumentException if the given number of seconds is negative
+     */
+    public void spread(Location location, List<Human> sick, double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
+
+        int[] sources = sick.stream()
+                .map(nodes::get)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        long seed = Probability.getRandom().nextLong();
+
+        IntStream.of(sources).parallel().forEach(source -> {
+            double risk = 1 - Math.pow(1 - humans[source].getPathogen().getTransmissionRisk(), elapsedSeconds);
+
+            for (int edge = offsets[source]; edge < offsets[source + 1]; edge++) {
+                int target = targets[edge];
+                Human human = humans[target];
+
+                if (human.getLocation() == location && !human.isSick() && uniform(seed, edge) < risk) {
+                    infectors.accumulateAndGet(target, source, ContactGraph::first);
+                }
+            }
+        });
+
+        for (int source : sources) {
+            for (int edge = offsets[source]; edge < offsets[source + 1]; edge++) {
+                int target = targets[edge];
+                int infector = infectors.getAndSet(target, NONE);
+
+                if (infector != NONE && !humans[target].isSick()) {
+                    humans[infector].getPathogen().transmit(humans[target]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the contacts of the given human.
+     *
+     * @param human a human in the graph
+     * @return the contacts of the human
+     * @throws IllegalArgumentException if the human is not in the graph
+     */
+    public List<Human> getContacts(Human human) {
+        int node = node(nodes, human);
+        List<Human> result = new ArrayList<>();
+
+        for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+            result.add(humans[targets[edge]]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the connected components of this graph, e.g. to recover the households a graph was made from.
+     * Groups that share a human are in the same component.
+     *
+     * @return the component of each node, numbered from 0 in the order of their first nodes
+     */
+    public int[] getComponents() {
+        int[] components = new int[humans.length];
+        Arrays.fill(components, NONE);
+
+        int[] stack = new int[humans.length];
+        int count = 0;
+
+        for (int start = 0; start < humans.length; start++) {
+            if (components[start] != NONE) {
+                continue;
+            }
+
+            int size = 0;
+            stack[size++] = start;
+            components[start] = count;
+
+            while (size > 0) {
+                int node = stack[--size];
+
+                for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                    int target = targets[edge];
+
+                    if (components[target] == NONE) {
+                        components[target] = count;
+                        stack[size++] = target;
+                    }
+                }
+            }
+
+            count++;
+        }
+
+        return components;
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Draw a uniform number for an edge from a seed, by mixing the two with the SplitMix64 finaliser.
+     *
+     * @param seed the seed of a spread
+     * @param edge an edge
+     * @return a number in [0, 1)
+     */
+    private static double uniform(long seed, int edge) {
+        long z = seed + (edge + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Get the first of two infectors of a node.
+     *
+     * @param infector the current infector of a node, or {@value NONE}
+     * @param source a sick node reaching the node
+     * @return the node with the lowest index
+     */
+    private static int first(int infector, int source) {
+        return infector == NONE ? source : Math.min(infector, source);
+    }
+
+    /**
+     * Get the node of a human.
+     *
+     * @param nodes the node of each human
+     * @param human a human
+     * @return the node of the human
+     * @throws IllegalArgumentException if the human has no node
+     */
+    private static int node(Map<Human, Integer> nodes, Human human) {
+        Integer node = nodes.get(human);
+
+        if (node == null) {
+            throw new IllegalArgumentException(Error.ERROR_TAG + " Given human is not in the contact graph.");
+        }
+
+        return node;
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Get the human at each node of this graph.
+     *
+     * @return an unmodifiable list of the humans, by node
+     */
+    public List<Human> getHumans() {
+        return List.of(humans);
+    }
+
+    /**
+     * Get the number of nodes in this graph.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return humans.length;
+    }
+
+    /**
+     * Get the number of directed edges in this graph.
+     *
+     * @return the number of edges
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Get the offsets of this graph's compressed sparse rows.
+     *
+     * @return a copy of the offsets
+     */
+    public int[] getOffsets() {
+        return Arrays.copyOf(offsets, offsets.length);
+    }
+
+    /**
+     * Get the targets of this graph's compressed sparse rows.
+     *
+     * @return a copy of the targets
+     */
+    public int[] getTargets() {
+        return Arrays.copyOf(targets, targets.length);
+    }
+
+}
@@ -0,0 +1,314 @@
+package org.epi.model.world;
+
+import org.epi.model.human.Human;
+import org.epi.util.Error;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The recent contacts of the contact tracing app users in a world, for tracing the contacts of a detected case.
+ *
+ * Every user has their own open-addressing table from the ids of their contacts to the last time they were in contact,
+ * so a contact seen again only updates its time, and tracing a user only visits their own table. Contacts older than
+ * the window are expired: they are skipped by tracing and their slots are reused, and a table is rebuilt without
+ * them once it is three quarters full. A user's table is only written while recording that user's contacts, so the
+ * users of a location can be recorded in parallel.
+ */
+public class ContactHistory {
+
+    /** The default number of seconds contacts are kept for.*/
+    public static final double DEF_WINDOW = 10;
+
+    /** The key of an empty slot.*/
+    private static final int EMPTY = 0;
+
+    /** The initial number of slots of a table.*/
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** The number of seconds contacts are kept for.*/
+    private double window;
+
+    /** The user with each id, or null for ids with no recorded contacts.*/
+    private Human[] users;
+
+    /** The table keys of each user by id, which are the ids of the contacts plus one, or {@value EMPTY}.*/
+    private int[][] keys;
+
+    /** The last contact times of each user by id, in the slots of {@link #keys}.*/
+    private double[][] times;
+
+    /** The number of slots in use in each user's table by id, including expired contacts.*/
+    private int[] used;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create an empty contact history.
+     *
+     * @param window the number of seconds contacts are kept for
+     * @throws IllegalArgumentException if the given window is negative
+     */
+    public ContactHistory(double window) {
+        Error.nonNegativeCheck(window);
+
+        this.window = window;
+        this.users = new Human[0];
+        this.keys = new int[0][];
+        this.times = new double[0][];
+        this.used = new int[0];
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Make room for the users up to the given id, so that the contacts of users with lower ids can be recorded in
+     * parallel.
+     *
+     * @param id the highest id of a user
+     */
+    public void reserve(int id) {
+        if (id < users.length) {
+            return;
+        }
+
+        int capacity = Math.max(2 * users.length, id + 1);
+        users = Arrays.copyOf(users, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        times = Arrays.copyOf(times, capacity);
+        used = Arrays.copyOf(used, capacity);
+    }
+
+    /**
+     * Record that a user was in contact with another user. Only the user's own table is written, so the contact
+     * should be recorded for the other user as well.
+     *
+     * @param user a user, whose id is reserved
+     * @param contact a user in contact with the user
+     * @param time the time of the contact in seconds
+     */
+    public void record(Human user, Human contact, double time) {
+        int id = user.getId();
+        int key = contact.getId() + 1;
+
+        if (keys[id] == null) {
+            users[id] = user;
+            keys[id] = new int[INITIAL_CAPACITY];
+            times[id] = new double[INITIAL_CAPACITY];
+        }
+
+        int[] keys = this.keys[id];
+        double[] times = this.times[id];
+        int mask = keys.length - 1;
+        int reusable = -1;
+
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                times[slot] = time;
+                return;
+            }
+
+            if (keys[slot] == EMPTY) {
+                if (reusable == -1) {
+                    reusable = slot;
+                    used[id]++;
+                }
+
+                break;
+            }
+
+            if (reusable == -1 && times[slot] < time - window) {
+                reusable = slot;
+            }
+        }
+
+        keys[reusable] = key;
+        times[reusable] = time;
+
+        if (4 * used[id] > 3 * keys.length) {
+            rebuild(id, time);
+        }
+    }
+
+    /**
+     * Trace the contacts of a user within the window before the given time.
+     *
+     * @param user a user
+     * @param time the current time in seconds
+     * @return the users in contact with the user since the start of the window
+     */
+    public List<Human> trace(Human user, double time) {
+        int id = user.getId();
+        List<Human> contacts = new ArrayList<>();
+
+        if (id >= keys.length || keys[id] == null) {
+            return contacts;
+        }
+
+        for (int slot = 0; slot < keys[id].length; slot++) {
+            int key = keys[id][slot];
+
+            if (key != EMPTY && times[id][slot] >= time - window && users[key - 1] != null) {
+                contacts.add(users[key - 1]);
+            }
+        }
+
+        return contacts;
+    }
+
+    /**
+     * Forget all contacts.
+     */
+    public void clear() {
+        Arrays.fill(users, null);
+        Arrays.fill(keys, null);
+        Arrays.fill(times, null);
+        Arrays.fill(used, 0);
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Rebuild the table of a user without their expired contacts, doubling its size if more than half of it would
+     * still be in use.
+     *
+     * @param id the id of the user
+     * @param time the current time in seconds
+     */
+    private void rebuild(int id, double time) {
+        int[] oldKeys = keys[id];
+        double[] oldTimes = times[id];
+
+        int live = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY && oldTimes[slot] >= time - window) {
+                live++;
+            }
+        }
+
+        int capacity = 2 * live > oldKeys.length ? 2 * oldKeys.length : oldKeys.length;
+        int[] keys = new int[capacity];
+        double[] times = new double[capacity];
+        int mask = capacity - 1;
+
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY && oldTimes[slot] >= time - window) {
+                int next = hash(oldKeys[slot]) & mask;
+
+                while (keys[next] != EMPTY) {
+                    next = (next + 1) & mask;
+                }
+
+                keys[next] = oldKeys[slot];
+                times[next] = oldTimes[slot];
+            }
+        }
+
+        this.keys[id] = keys;
+        this.times[id] = times;
+        used[id] = live;
+    }
+
+    /**
+     * Spread the bits of a key over the table, so that consecutive ids do not cluster.
+     *
+     * @param key a key
+     * @return the hash of the key
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Get the users with recorded contacts.
+     *
+     * @return the users with a table, by id
+     */
+    public List<Human> getUsers() {
+        List<Human> users = new ArrayList<>();
+
+        for (int id = 0; id < keys.length; id++) {
+            if (keys[id] != null) {
+                users.add(this.users[id]);
+            }
+        }
+
+        return users;
+    }
+
+    /**
+     * Get the table keys of a user, which are the ids of their contacts plus one, or {@value EMPTY}.
+     *
+     * @param user a user
+     * @return a copy of the keys, empty if the user has no recorded contacts
+     */
+    public int[] getKeys(Human user) {
+        int id = user.getId();
+        return id < keys.length && keys[id] != null ? Arrays.copyOf(keys[id], keys[id].length) : new int[0];
+    }
+
+    /**
+     * Get the last contact times of a user.
+     *
+     * @param user a user
+     * @return a copy of the times in the slots of the keys, empty if the user has no recorded contacts
+     */
+    public double[] getTimes(Human user) {
+        int id = user.getId();
+        return id < times.length && times[id] != null ? Arrays.copyOf(times[id], times[id].length) : new double[0];
+    }
+
+    /**
+     * Set the whole table of a user, slot by slot, so that the contacts are found and traced in the same order as in
+     * the history the table was taken from. The contacts are traced once their own tables are set.
+     *
+     * @param user a user
+     * @param keys the keys, which are the ids of the contacts plus one, or {@value EMPTY}
+     * @param times the last contact times, in the slots of the keys
+     * @throws NullPointerException if any of the given parameters are null
+     * @throws IllegalArgumentException if the number of keys is not a power of two or differs from the number of
+     *                                  times
+     */
+    public void setContacts(Human user, int[] keys, double[] times) {
+        Objects.requireNonNull(user, Error.getNullMsg("user"));
+        Objects.requireNonNull(keys, Error.getNullMsg("keys"));
+        Objects.requireNonNull(times, Error.getNullMsg("times"));
+
+        if (Integer.bitCount(keys.length) != 1 || times.length != keys.length) {
+            throw new IllegalArgumentException(Error.ERROR_TAG + " Given table is not of a valid size.");
+        }
+
+        int id = user.getId();
+        reserve(id);
+        users[id] = user;
+        this.keys[id] = Arrays.copyOf(keys, keys.length);
+        this.times[id] = Arrays.copyOf(times, times.length);
+        used[id] = (int) Arrays.stream(keys).filter(key -> key != EMPTY).count();
+    }
+
+    /**
+     * Getter for {@link #window}.
+     *
+     * @return {@link #window}
+     */
+    public double getWindow() {
+        return window;
+    }
+
+    /**
+     * Setter for {@link #window}.
+     *
+     * @param window {@link #window}
+     * @throws IllegalArgumentException if the given window is negative
+     */
+    public void setWindow(double window) {
+        Error.nonNegativeCheck(window);
+        this.window = window;
+    }
+
+}
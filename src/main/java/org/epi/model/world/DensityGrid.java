@@ -0,0 +1,155 @@
+package org.epi.model.world;
+
+import org.epi.model.human.Human;
+import org.epi.model.human.Model;
+import org.epi.util.Error;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A utility class for rasterising the sick population of a location into a density grid.
+ */
+public class DensityGrid {
+
+    /** The side length of each cell in pixels.*/
+    private static final double CELL_SIZE = 10;
+
+    /** a backreference to the location.*/
+    private final Location location;
+
+    /** The number of cell columns in the grid.*/
+    private final int columns;
+
+    /** The number of cell rows in the grid.*/
+    private final int rows;
+
+    /** The number of sick humans in each cell, stored row by row.*/
+    private final int[] sickCount;
+
+    /** A sick human in each cell which can act as the source of an infection, stored row by row.*/
+    private final Human[] source;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a density grid for a location.
+     *
+     * @param location a location
+     * @throws NullPointerException if the given parameter is null
+     */
+    public DensityGrid(Location location) {
+        Objects.requireNonNull(location, Error.getNullMsg("location"));
+        this.location = location;
+        this.columns = (int) Math.ceil(location.getArea().getPrefWidth() / CELL_SIZE);
+        this.rows = (int) Math.ceil(location.getArea().getPrefHeight() / CELL_SIZE);
+        this.sickCount = new int[columns * rows];
+        this.source = new Human[columns * rows];
+        update();
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Rasterise the current position of the sick humans into the grid.
+     */
+    public void update() {
+        Arrays.fill(sickCount, 0);
+        Arrays.fill(source, null);
+
+        for (Human human : location.getPopulation()) {
+            if (human.isSick()) {
+                int cell = cell(column(human.getModel()), row(human.getModel()));
+                sickCount[cell]++;
+                source[cell] = human;
+            }
+        }
+    }
+
+    /**
+     * Get the density of sick humans around the given model, averaged over its cell and the neighbouring cells.
+     *
+     * @param model a model in this location
+     * @return the number of sick humans per square pixel around the given model
+     * @throws NullPointerException if the given parameter is null
+     */
+    public double getDensity(Model model) {
+        Model.requireNonNull(model);
+
+        int column = column(model);
+        int row = row(model);
+        int count = 0;
+        int cells = 0;
+
+        for (int i = Math.max(column - 1, 0); i <= Math.min(column + 1, columns - 1); i++) {
+            for (int j = Math.max(row - 1, 0); j <= Math.min(row + 1, rows - 1); j++) {
+                count += sickCount[cell(i, j)];
+                cells++;
+            }
+        }
+
+        return count / (cells * CELL_SIZE * CELL_SIZE);
+    }
+
+    /**
+     * Get a sick human around the given model, searching its cell before the neighbouring cells.
+     *
+     * @param model a model in this location
+     * @return a sick human around the given model, or null if there is none
+     * @throws NullPointerException if the given parameter is null
+     */
+    public Human getSource(Model model) {
+        Model.requireNonNull(model);
+
+        int column = column(model);
+        int row = row(model);
+
+        if (source[cell(column, row)] != null) {
+            return source[cell(column, row)];
+        }
+
+        for (int i = Math.max(column - 1, 0); i <= Math.min(column + 1, columns - 1); i++) {
+            for (int j = Math.max(row - 1, 0); j <= Math.min(row + 1, rows - 1); j++) {
+                if (source[cell(i, j)] != null) {
+                    return source[cell(i, j)];
+                }
+            }
+        }
+
+        return null;
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Get the column of the cell containing the given model.
+     *
+     * @param model a model
+     * @return the column of the cell containing the model, clamped to the grid
+     */
+    private int column(Model model) {
+        return Math.min(Math.max((int) (model.getCenterX() / CELL_SIZE), 0), columns - 1);
+    }
+
+    /**
+     * Get the row of the cell containing the given model.
+     *
+     * @param model a model
+     * @return the row of the cell containing the model, clamped to the grid
+     */
+    private int row(Model model) {
+        return Math.min(Math.max((int) (model.getCenterY() / CELL_SIZE), 0), rows - 1);
+    }
+
+    /**
+     * Get the index of a cell in the grid arrays.
+     *
+     * @param column the column of the cell
+     * @param row the row of the cell
+     * @return the index of the cell
+     */
+    private int cell(int column, int row) {
+        return row * columns + column;
+    }
+
+}
@@ -0,0 +1,319 @@
+package org.epi.model.world;
+
+import org.epi.model.human.Human;
+import org.epi.util.Error;
+import org.epi.util.Purpose;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The exposure of healthy humans to sick humans in a location, accumulated per pair of humans in contact.
+ *
+ * Each pair has a dose, i.e., the number of seconds the healthy human has been in contact with the sick human, and a
+ * threshold dose drawn when the pair first meets, at which the pathogen is transmitted. The threshold is exponentially
+ * distributed such that the transmission risk is the probability of a transmission within a second of contact, so
+ * transmissions depend on the time in contact and not on how that time is split into steps. Pairs that have not been
+ * in contact for longer than the memory are forgotten, and their slots are reused. Since the threshold is memoryless,
+ * forgetting a pair does not change the chance of a transmission. Once a pair transmits, its dose starts again from 0
+ * towards a new threshold, so a target that defends against the pathogen is not infected again on every step.
+ *
+ * The pairs are kept in an open-addressing table keyed by the ids of both humans.
+ */
+public class Exposure {
+
+    /** The default number of seconds a pair is remembered for after their last contact.*/
+    public static final double DEF_MEMORY = 1;
+
+    /** The key of an empty slot.*/
+    private static final long EMPTY = -1;
+
+    /** The initial number of slots of the table.*/
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The number of seconds a pair is remembered for after their last contact.*/
+    private double memory;
+
+    /** The number of seconds passed in this location.*/
+    private double time;
+
+    /** The key of each pair, which is the id of the sick human followed by the id of the healthy human.*/
+    private long[] keys;
+
+    /** The dose of each pair in seconds of contact, in the slots of {@link #keys}.*/
+    private double[] doses;
+
+    /** The threshold dose of each pair in seconds of contact, in the slots of {@link #keys}.*/
+    private double[] thresholds;
+
+    /** The time of the last contact of each pair in seconds, in the slots of {@link #keys}.*/
+    private double[] seen;
+
+    /** The number of slots in use, including forgotten pairs.*/
+    private int used;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create an empty exposure table.
+     */
+    public Exposure() {
+        this.memory = DEF_MEMORY;
+        clear();
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Let time pass, so that pairs last in contact before the memory are forgotten.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since this exposure was last updated
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void elapse(double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
+        time += elapsedSeconds;
+    }
+
+    /**
+     * Expose a healthy human to a sick human for a number of seconds of contact. A random threshold is drawn if the
+     * pair was not in contact within the memory, and a new one is drawn when the pair transmits.
+     *
+     * @param source a sick human
+     * @param target a healthy human in contact with the source
+     * @param elapsedSeconds the number of seconds in contact, i.e., within a diameter of each other
+     * @param transmissionRisk the probability of a transmission within a second of contact
+     * @return true if the pathogen is transmitted, i.e., the dose of the pair has reached its threshold
+     */
+    public boolean expose(Human source, Human target, double elapsedSeconds, double transmissionRisk) {
+        long key = ((long) source.getId() << Integer.SIZE) | target.getId();
+        int mask = keys.length - 1;
+        int reusable = -1;
+        int slot = hash(key) & mask;
+
+        for (; keys[slot] != key; slot = (slot + 1) & mask) {
+            if (keys[slot] == EMPTY) {
+                if (reusable == -1) {
+                    reusable = slot;
+                    used++;
+                }
+
+                slot = reusable;
+                keys[slot] = key;
+                doses[slot] = 0;
+                thresholds[slot] = threshold(target, transmissionRisk);
+                break;
+            }
+
+            if (reusable == -1 && isForgotten(slot)) {
+                reusable = slot;
+            }
+        }
+
+        doses[slot] += elapsedSeconds;
+        seen[slot] = time;
+        boolean isTransmitted = doses[slot] >= thresholds[slot];
+
+        if (isTransmitted) {
+            doses[slot] = 0;
+            thresholds[slot] = threshold(target, transmissionRisk);
+        }
+
+        if (4 * used > 3 * keys.length) {
+            rebuild();
+        }
+
+        return isTransmitted;
+    }
+
+    /**
+     * Forget all pairs.
+     */
+    public void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        doses = new double[INITIAL_CAPACITY];
+        thresholds = new double[INITIAL_CAPACITY];
+        seen = new double[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+        used = 0;
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Draw the threshold dose of a new pair, which is exponentially distributed with the rate of transmissions per
+     * second of contact.
+     *
+     * @param target the healthy human of the pair, whose stream the threshold is drawn from
+     * @param transmissionRisk the probability of a transmission within a second of contact
+     * @return the threshold dose in seconds of contact
+     */
+    private static double threshold(Human target, double transmissionRisk) {
+        double rate = -Math.log1p(-transmissionRisk);
+        return -Math.log1p(-target.draw(Purpose.INFECTION)) / rate;
+    }
+
+    /**
+     * Check if the pair in a slot was last in contact before the memory.
+     *
+     * @param slot a slot in use
+     * @return true if the pair is forgotten, otherwise false
+     */
+    private boolean isForgotten(int slot) {
+        return seen[slot] < time - memory;
+    }
+
+    /**
+     * Rebuild the table without the forgotten pairs, doubling its size if more than half of it would still be in use.
+     */
+    private void rebuild() {
+        long[] oldKeys = keys;
+        double[] oldDoses = doses;
+        double[] oldThresholds = thresholds;
+        double[] oldSeen = seen;
+
+        int live = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY && !isForgotten(slot)) {
+                live++;
+            }
+        }
+
+        int capacity = 2 * live > oldKeys.length ? 2 * oldKeys.length : oldKeys.length;
+        keys = new long[capacity];
+        doses = new double[capacity];
+        thresholds = new double[capacity];
+        seen = new double[capacity];
+        Arrays.fill(keys, EMPTY);
+        int mask = capacity - 1;
+
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY && oldSeen[slot] >= time - memory) {
+                int next = hash(oldKeys[slot]) & mask;
+
+                while (keys[next] != EMPTY) {
+                    next = (next + 1) & mask;
+                }
+
+                keys[next] = oldKeys[slot];
+                doses[next] = oldDoses[slot];
+                thresholds[next] = oldThresholds[slot];
+                seen[next] = oldSeen[slot];
+            }
+        }
+
+        used = live;
+    }
+
+    /**
+     * Spread the bits of a key over the table, so that pairs of consecutive ids do not cluster.
+     *
+     * @param key a key
+     * @return the hash of the key
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    //---------------------------- Getters & Setters ----------------------------
+
+    /**
+     * Getter for {@link #time}.
+     *
+     * @return {@link #time}
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Get the keys of the table, {@value EMPTY} for empty slots.
+     *
+     * @return a copy of the keys
+     */
+    public long[] getKeys() {
+        return Arrays.copyOf(keys, keys.length);
+    }
+
+    /**
+     * Get the doses of the table.
+     *
+     * @return a copy of the doses, in the slots of the keys
+     */
+    public double[] getDoses() {
+        return Arrays.copyOf(doses, doses.length);
+    }
+
+    /**
+     * Get the threshold doses of the table.
+     *
+     * @return a copy of the thresholds, in the slots of the keys
+     */
+    public double[] getThresholds() {
+        return Arrays.copyOf(thresholds, thresholds.length);
+    }
+
+    /**
+     * Get the times of the last contacts of the table.
+     *
+     * @return a copy of the times, in the slots of the keys
+     */
+    public double[] getSeen() {
+        return Arrays.copyOf(seen, seen.length);
+    }
+
+    /**
+     * Set the time and the whole table, slot by slot, so that the pairs are found and reused as in the exposure the
+     * table was taken from.
+     *
+     * @param time the number of seconds passed in this location
+     * @param keys the keys, {@value EMPTY} for empty slots
+     * @param doses the doses, in the slots of the keys
+     * @param thresholds the threshold doses, in the slots of the keys
+     * @param seen the times of the last contacts, in the slots of the keys
+     * @throws NullPointerException if any of the given arrays are null
+     * @throws IllegalArgumentException if the given time is negative, or the number of keys is not a power of two or
+     *                                  differs from the other arrays
+     */
+    public void setState(double time, long[] keys, double[] doses, double[] thresholds, double[] seen) {
+        Error.nonNegativeCheck(time);
+        Objects.requireNonNull(keys, Error.getNullMsg("keys"));
+        Objects.requireNonNull(doses, Error.getNullMsg("doses"));
+        Objects.requireNonNull(thresholds, Error.getNullMsg("thresholds"));
+        Objects.requireNonNull(seen, Error.getNullMsg("seen"));
+
+        if (Integer.bitCount(keys.length) != 1 || doses.length != keys.length || thresholds.length != keys.length
+                || seen.length != keys.length) {
+            throw new IllegalArgumentException(Error.ERROR_TAG + " Given table is not of a valid size.");
+        }
+
+        this.time = time;
+        this.keys = Arrays.copyOf(keys, keys.length);
+        this.doses = Arrays.copyOf(doses, doses.length);
+        this.thresholds = Arrays.copyOf(thresholds, thresholds.length);
+        this.seen = Arrays.copyOf(seen, seen.length);
+        this.used = (int) Arrays.stream(keys).filter(key -> key != EMPTY).count();
+    }
+
+    /**
+     * Getter for {@link #memory}.
+     *
+     * @return {@link #memory}
+     */
+    public double getMemory() {
+        return memory;
+    }
+
+    /**
+     * Setter for {@link #memory}.
+     *
+     * @param memory {@link #memory}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setMemory(double memory) {
+        Error.nonNegativeCheck(memory);
+        this.memory = memory;
+    }
+
+}
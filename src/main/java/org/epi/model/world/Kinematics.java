@@ -0,0 +1,48 @@
+package org.epi.model.world;
+
+/** Utility class with kernels for moving humans, stored one coordinate per primitive array.
+ *
+ * The kernels are straight counted loops without calls or branches in their bodies, so that the JIT compiler
+ * can vectorise them.*/
+public class Kinematics {
+
+    /**
+     * Move each position by its velocity for a given number of seconds.
+     *
+     * @param position the positions along an axis in pixels
+     * @param velocity the velocities along the same axis in pixels per second
+     * @param count the number of positions to move
+     * @param elapsedSeconds the number of seconds to move for
+     */
+    public static void integrate(double[] position, double[] velocity, int count, double elapsedSeconds) {
+        for (int i = 0; i < count; i++) {
+            position[i] += velocity[i] * elapsedSeconds;
+        }
+    }
+
+    /**
+     * Reflect each position heading past a wall back inside the walls, and reverse its velocity.
+     * A position on or past the low wall that is moving towards it is mirrored about the low wall, and
+     * otherwise a position on or past the high wall that is moving towards it is mirrored about the high wall.
+     * A mirrored position never passes the opposite wall.
+     *
+     * @param position the positions along an axis in pixels
+     * @param velocity the velocities along the same axis in pixels per second
+     * @param count the number of positions to reflect
+     * @param low the coordinate of the low wall
+     * @param high the coordinate of the high wall
+     */
+    public static void reflect(double[] position, double[] velocity, int count, double low, double high) {
+        for (int i = 0; i < count; i++) {
+            double p = position[i];
+            double v = velocity[i];
+
+            boolean onLow = p <= low & v < 0;
+            boolean onHigh = p >= high & v > 0;
+
+            position[i] = onLow ? Math.min(2 * low - p, high) : onHigh ? Math.max(2 * high - p, low) : p;
+            velocity[i] = onLow | onHigh ? - v : v;
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package org.epi.model.world;
 import org.epi.model.human.Human;
 import org.epi.model.human.Model;
 import org.epi.util.Error;
+import org.epi.util.Purpose;
 
 import javafx.collections.FXCollections;
 import javafx.scene.paint.Color;
@@ -13,6 +14,7 @@ import javafx.collections.ObservableList;
 import javafx.scene.layout.Pane;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.epi.model.human.Behaviour.CONTACT_TRACING;
@@ -24,18 +26,45 @@ import static org.epi.util.Clip.clip;
  * The class is used as a graphical representation of a location in the simulator.*/
 public class Location {
 
+    /** The distance within which contact tracing users are in contact, in pixels. The multiplier is a preference.*/
+    private static final double CONTACT_DISTANCE = 5.5 * HUMAN_RADIUS;
+
     /** The graphical representation of this location.*/
     private final Pane area;
 
     /** The spatial hash of humans in the area.*/
     private final SpatialHash spatialHash;
 
+    /** The decomposition of the area into tiles, or null if the area is not tiled.*/
+    private Tiling tiling;
+
+    /** The contact graph of the world's population, or null if there is none.*/
+    private ContactGraph contactGraph;
+
+    /** The density grid of sick humans in the area.*/
+    private final DensityGrid densityGrid;
+
+    /** The exposure of the healthy humans to the sick humans in contact with them.*/
+    private final Exposure exposure;
+
     /** The contact network.*/
     private final ObservableList<Line> contactNetwork;
 
     /** The population of this location.*/
     private final ObservableList<Human> population;
 
+    /** The horizontal positions of the population in pixels, in population order.*/
+    private double[] positionX;
+
+    /** The vertical positions of the population in pixels, in population order.*/
+    private double[] positionY;
+
+    /** The horizontal velocities of the population in pixels per second, in population order.*/
+    private double[] velocityX;
+
+    /** The vertical velocities of the population in pixels per second, in population order.*/
+    private double[] velocityY;
+
     //---------------------------- Constructor & associated helpers ----------------------------
 
     /**
@@ -57,9 +86,17 @@ public class Location {
 
         this.population = FXCollections.observableArrayList();
 
+        this.positionX = new double[0];
+        this.positionY = new double[0];
+        this.velocityX = new double[0];
+        this.velocityY = new double[0];
+
         this.spatialHash = new SpatialHash(this);
         updateHash();
 
+        this.densityGrid = new DensityGrid(this);
+        this.exposure = new Exposure();
+
         this.contactNetwork = FXCollections.observableArrayList();
 
         initEvents();
@@ -98,8 +135,9 @@ public class Location {
      * @param model a human's graphical representation
      */
     private void setPosition(Model model) {
-        model.setCenterX(HUMAN_RADIUS +  Math.random() * (area.getPrefWidth() - Model.HUMAN_DIAMETER));
-        model.setCenterY(HUMAN_RADIUS +  Math.random() * (area.getPrefHeight() - Model.HUMAN_DIAMETER));
+        Human host = model.getHost();
+        model.place(HUMAN_RADIUS +  host.draw(Purpose.MOVEMENT) * (area.getPrefWidth() - Model.HUMAN_DIAMETER),
+                HUMAN_RADIUS +  host.draw(Purpose.MOVEMENT) * (area.getPrefHeight() - Model.HUMAN_DIAMETER));
     }
 
     /**
@@ -118,44 +156,67 @@ public class Location {
     //---------------------------- Simulator actions ----------------------------
 
     /**
-     * Update the spatial hash.
+     * Update the spatial hash, or the tiles if the area is tiled.
      */
     public void updateHash() {
-        spatialHash.update();
+        if (tiling == null) {
+            spatialHash.update();
+        } else {
+            tiling.update();
+        }
     }
 
     /**
-     * Adjust the velocity of the population such that they do not move past the walls.
+     * Get all humans near the given human in this location.
+     *
+     * @param human a human in this location
+     * @return the nearby humans, not including the given human
      */
-    public void wallCollisions() {
-        for (Human human : population) {
-            Model model = human.getModel();
-            Point2D velocity = model.getVelocity();
+    public Set<Human> getNearby(Human human) {
+        return tiling == null ? spatialHash.getNearby(human) : tiling.getNearby(human);
+    }
 
-            boolean onLeftWall = model.getCenterX() - model.getRadius() <= 0 && velocity.getX() < 0;
+    /**
+     * Adjust the velocity of the population to others given their behaviours.
+     * If the area is tiled, each tile adjusts the humans it owns in parallel.
+     */
+    public void adjust() {
+        if (tiling == null) {
+            population.forEach(human -> human.getModel().adjust());
+        } else {
+            tiling.getTiles().parallelStream()
+                    .forEach(tile -> tile.getOwned().forEach(human -> human.getModel().adjust()));
+        }
+    }
 
-            boolean onRightWall = model.getCenterX() + model.getRadius() >= area.getPrefWidth() && velocity.getX() > 0;
+    /**
+     * Move the population by their velocities for a given number of seconds, such that they do not move past the
+     * walls. Humans that moved past a wall are mirrored back into the area, as if they had bounced off the wall when
+     * they reached it. The population is copied into the primitive arrays and back once per move, and the kernels
+     * work on the arrays in between.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since the population was last moved
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void move(double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
 
-            boolean onBottomWall = model.getCenterY() - model.getRadius() <= 0 && velocity.getY() < 0;
+        int count = gather();
 
-            boolean onTopWall = model.getCenterY() + model.getRadius() >= area.getPrefHeight() && velocity.getY() > 0;
+        Kinematics.integrate(positionX, velocityX, count, elapsedSeconds);
+        Kinematics.integrate(positionY, velocityY, count, elapsedSeconds);
+        Kinematics.reflect(positionX, velocityX, count, HUMAN_RADIUS, area.getPrefWidth() - HUMAN_RADIUS);
+        Kinematics.reflect(positionY, velocityY, count, HUMAN_RADIUS, area.getPrefHeight() - HUMAN_RADIUS);
 
-            if(onLeftWall) {
-                model.setCenterX(HUMAN_RADIUS);
-                model.setVelocity(- velocity.getX(), velocity.getY());
-            } else if (onRightWall) {
-                model.setCenterX(area.getPrefWidth() - HUMAN_RADIUS);
-                model.setVelocity(- velocity.getX(), velocity.getY());
-            }
+        for (int i = 0; i < count; i++) {
+            Model model = population.get(i).getModel();
+            Point2D velocity = model.getVelocity();
 
-            if (onBottomWall) {
-                model.setCenterY(HUMAN_RADIUS);
-                model.setVelocity(velocity.getX(), - velocity.getY());
-            } else if (onTopWall) {
-                model.setCenterY(area.getPrefHeight() - HUMAN_RADIUS);
-                model.setVelocity(velocity.getX(), - velocity.getY());
-            }
+            model.moveTo(positionX[i], positionY[i]);
 
+            if (velocity.getX() != velocityX[i] || velocity.getY() != velocityY[i]) {
+                model.setVelocity(velocityX[i], velocityY[i]);
+            }
         }
     }
 
@@ -173,15 +234,61 @@ public class Location {
         for (Human sickUser : sickUsers) {
             sickUser.getNearby().stream()
                     .map(Human::getModel)
-                    .filter(user -> distance(user, sickUser.getModel()) <= 5.5 * HUMAN_RADIUS) // Multiplier is a preference.
+                    .filter(user -> distance(user, sickUser.getModel()) <= CONTACT_DISTANCE)
                     .forEach(user -> drawContact(user, sickUser.getModel()));
         }
 
         contactNetwork.forEach(Line::toBack);
     }
 
+    /**
+     * Record the contacts between the contact tracing users of the population into a contact history.
+     * Each user records their own side of their contacts, so the users are recorded in parallel.
+     *
+     * @param contactHistory the contact history
+     * @param time the current time in seconds
+     */
+    public void recordContacts(ContactHistory contactHistory, double time) {
+        List<Human> users = population.stream()
+                .filter(human -> human.getModel().getBehaviour() == CONTACT_TRACING)
+                .collect(Collectors.toList());
+
+        users.stream().mapToInt(Human::getId).max().ifPresent(contactHistory::reserve);
+
+        users.parallelStream().forEach(user -> user.getNearby().stream()
+                .filter(contact -> contact.getModel().getBehaviour() == CONTACT_TRACING)
+                .filter(contact -> distance(contact.getModel(), user.getModel()) <= CONTACT_DISTANCE)
+                .forEach(contact -> contactHistory.record(user, contact, time)));
+    }
+
     //---------------------------- Helper methods ----------------------------
 
+    /**
+     * Copy the positions and velocities of the population into the primitive arrays.
+     *
+     * @return the number of humans copied
+     */
+    private int gather() {
+        int count = population.size();
+
+        if (positionX.length < count) {
+            positionX = new double[count];
+            positionY = new double[count];
+            velocityX = new double[count];
+            velocityY = new double[count];
+        }
+
+        for (int i = 0; i < count; i++) {
+            Model model = population.get(i).getModel();
+            positionX[i] = model.getCenterX();
+            positionY[i] = model.getCenterY();
+            velocityX[i] = model.getVelocity().getX();
+            velocityY[i] = model.getVelocity().getY();
+        }
+
+        return count;
+    }
+
     /**
      * Draw a line between two humans in this location.
      *
@@ -216,6 +323,62 @@ public class Location {
         return spatialHash;
     }
 
+    /**
+     * Getter for {@link #tiling}.
+     *
+     * @return {@link #tiling}, or null if the area is not tiled
+     */
+    public Tiling getTiling() {
+        return tiling;
+    }
+
+    /**
+     * Split the area into the given number of tiles, or stop tiling the area if the given number is 0.
+     *
+     * @param tileCount the number of tiles
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setTileCount(int tileCount) {
+        Error.nonNegativeCheck(tileCount);
+        this.tiling = tileCount == 0 ? null : new Tiling(this, tileCount);
+    }
+
+    /**
+     * Getter for {@link #contactGraph}.
+     *
+     * @return {@link #contactGraph}, or null if there is none
+     */
+    public ContactGraph getContactGraph() {
+        return contactGraph;
+    }
+
+    /**
+     * Setter for {@link #contactGraph}.
+     *
+     * @param contactGraph {@link #contactGraph}, or null to remove the contact graph
+     */
+    public void setContactGraph(ContactGraph contactGraph) {
+        this.contactGraph = contactGraph;
+    }
+
+    /**
+     * Getter for {@link #densityGrid}.
+     *
+     * @return {@link #densityGrid}
+     */
+    public DensityGrid getDensityGrid() {
+        return densityGrid;
+    }
+
+    /**
+     * Getter for {@link #exposure}.
+     *
+     * @return {@link #exposure}
+     */
+    public Exposure getExposure() {
+        return exposure;
+    }
+
     /**
      * Getter for {@link #population}.
      *
@@ -27,10 +27,6 @@ public class SpatialHash {
     /** Conversion factor for spatial hashcode.*/
     private final double convertFactor;
 
-    /** The multiples of the human radius used to calculate
-     * the max and min values of the square for which a human model is inscribed.*/
-    private static final double[] multipleArray = {Model.HUMAN_RADIUS,- Model.HUMAN_RADIUS};
-
     //---------------------------- Constructor ----------------------------
 
     /**
@@ -50,17 +46,22 @@ public class SpatialHash {
     //---------------------------- Main methods ----------------------------
 
     /**
-     * Update the spatial map with the current position of the models.
+     * Update the spatial map with the last move of the models. Each model is added to every cell that the square it
+     * is inscribed in swept through, so that models whose moves crossed are nearby even if they ended far apart.
      */
     public void update() {
         spatialHash.clear();
 
         location.getPopulation().forEach(human -> {
-            for (double a : multipleArray) {
-                for (double b : multipleArray) {
-                    int hash = hashcode(human.getModel().getCenterX() + a, human.getModel().getCenterY() + b);
-                    addToSpatialHash(hash, human);
-                }
+            Model model = human.getModel();
+            int first = hashcode(Math.min(model.getPreviousX(), model.getCenterX()) - Model.HUMAN_RADIUS,
+                    Math.min(model.getPreviousY(), model.getCenterY()) - Model.HUMAN_RADIUS);
+            int last = hashcode(Math.max(model.getPreviousX(), model.getCenterX()) + Model.HUMAN_RADIUS,
+                    Math.max(model.getPreviousY(), model.getCenterY()) + Model.HUMAN_RADIUS);
+
+            // The hashcode grows with both coordinates, so the cells of the square are those between its corners.
+            for (int hash = first; hash <= last; hash++) {
+                addToSpatialHash(hash, human);
             }
         });
     }
@@ -0,0 +1,159 @@
+package org.epi.model.world;
+
+import org.epi.model.human.Human;
+import org.epi.model.human.Model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A vertical strip of a location, owned by a single worker thread.
+ *
+ * A tile indexes the humans it owns together with ghost entries for the humans just across its boundaries,
+ * so that contacts can be found without reading any other tile. Humans are indexed over the cells of their last move,
+ * so that contacts swept over a move are found.
+ */
+public class Tile {
+
+    /** The side length of each cell of the tile's index in pixels.*/
+    static final double CELL_SIZE = 25;
+
+    /** The humans whose position is inside this tile.*/
+    private final List<Human> owned;
+
+    /** The humans in neighbouring tiles which are close enough to this tile's boundary to be in contact.*/
+    private final List<Human> ghosts;
+
+    /** The owned and ghost humans of this tile by cell.*/
+    private final Map<Long, List<Human>> index;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create an empty tile.
+     */
+    public Tile() {
+        this.owned = new ArrayList<>();
+        this.ghosts = new ArrayList<>();
+        this.index = new HashMap<>();
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Remove all owned and ghost humans from this tile.
+     */
+    void clear() {
+        owned.clear();
+        ghosts.clear();
+        index.clear();
+    }
+
+    /**
+     * Add a human whose position is inside this tile.
+     *
+     * @param human a human
+     */
+    void addOwned(Human human) {
+        owned.add(human);
+        addToIndex(human);
+    }
+
+    /**
+     * Add a ghost entry for a human in a neighbouring tile.
+     *
+     * @param human a human
+     */
+    void addGhost(Human human) {
+        ghosts.add(human);
+        addToIndex(human);
+    }
+
+    /**
+     * Get all owned and ghost humans in the cells around the given human's last move.
+     *
+     * @param human a human owned by this tile
+     * @return the nearby humans, not including the given human
+     */
+    public Set<Human> getNearby(Human human) {
+        Set<Human> result = new HashSet<>();
+        Model model = human.getModel();
+
+        for (long i = cell(Math.min(model.getPreviousX(), model.getCenterX())) - 1;
+             i <= cell(Math.max(model.getPreviousX(), model.getCenterX())) + 1; i++) {
+            for (long j = cell(Math.min(model.getPreviousY(), model.getCenterY())) - 1;
+                 j <= cell(Math.max(model.getPreviousY(), model.getCenterY())) + 1; j++) {
+                result.addAll(index.getOrDefault(key(i, j), List.of()));
+            }
+        }
+
+        result.remove(human);
+        return result;
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Add the given human to the index, in every cell their last move swept through, so that humans whose moves
+     * crossed are found even if they ended far apart.
+     *
+     * @param human a human
+     */
+    private void addToIndex(Human human) {
+        Model model = human.getModel();
+
+        for (long i = cell(Math.min(model.getPreviousX(), model.getCenterX()));
+             i <= cell(Math.max(model.getPreviousX(), model.getCenterX())); i++) {
+            for (long j = cell(Math.min(model.getPreviousY(), model.getCenterY()));
+                 j <= cell(Math.max(model.getPreviousY(), model.getCenterY())); j++) {
+                index.computeIfAbsent(key(i, j), key -> new ArrayList<>()).add(human);
+            }
+        }
+    }
+
+    /**
+     * Get the cell along an axis which contains the given coordinate.
+     *
+     * @param coordinate a coordinate in pixels
+     * @return the cell containing the coordinate
+     */
+    private static long cell(double coordinate) {
+        return (long) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    /**
+     * Get the index key of a cell.
+     *
+     * @param column the column of the cell
+     * @param row the row of the cell
+     * @return the key of the cell
+     */
+    private static long key(long column, long row) {
+        return (column << 32) ^ (row & 0xFFFFFFFFL);
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Getter for {@link #owned}.
+     *
+     * @return {@link #owned}
+     */
+    public List<Human> getOwned() {
+        return owned;
+    }
+
+    /**
+     * Getter for {@link #ghosts}.
+     *
+     * @return {@link #ghosts}
+     */
+    public List<Human> getGhosts() {
+        return ghosts;
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.epi.model.world;
+
+import org.epi.model.human.Human;
+import org.epi.util.Error;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A decomposition of a location's area into vertical tiles, so that each tile can be simulated by its own worker.
+ *
+ * Humans are owned by the tile their position is in. Humans whose last move came within {@link Tile#CELL_SIZE} of
+ * another tile are mirrored as ghosts into that tile. Humans that crossed a boundary migrate to their new tile
+ * on the next {@link #update()}.
+ */
+public class Tiling {
+
+    /** a backreference to the location.*/
+    private final Location location;
+
+    /** The tiles from left to right.*/
+    private final List<Tile> tiles;
+
+    /** The width of each tile in pixels.*/
+    private final double tileWidth;
+
+    /** The tile owning each human in the location.*/
+    private final Map<Human, Tile> owners;
+
+    //---------------------------- Constructor ----------------------------
+
+    /**
+     * Create a tiling for a location.
+     *
+     * @param location a location
+     * @param tileCount the number of tiles
+     * @throws NullPointerException if the given location is null
+     * @throws IllegalArgumentException if the tile count is less than 1
+     */
+    public Tiling(Location location, int tileCount) {
+        Objects.requireNonNull(location, Error.getNullMsg("location"));
+        Error.intervalCheck("tile count", 1, Integer.MAX_VALUE, tileCount);
+
+        this.location = location;
+        this.tileWidth = location.getArea().getPrefWidth() / tileCount;
+        this.owners = new HashMap<>();
+
+        List<Tile> tiles = new ArrayList<>();
+        for (int i = 0; i < tileCount; i++) {
+            tiles.add(new Tile());
+        }
+        this.tiles = Collections.unmodifiableList(tiles);
+
+        update();
+    }
+
+    //---------------------------- Main methods ----------------------------
+
+    /**
+     * Assign every human to the tile containing their position, and mirror the humans near a boundary as ghosts.
+     */
+    public void update() {
+        tiles.forEach(Tile::clear);
+        owners.clear();
+
+        for (Human human : location.getPopulation()) {
+            double x = human.getModel().getCenterX();
+            double previousX = human.getModel().getPreviousX();
+            int column = column(x);
+            Tile owner = tiles.get(column);
+
+            owner.addOwned(human);
+            owners.put(human, owner);
+
+            int first = column(Math.min(x, previousX) - Tile.CELL_SIZE);
+            int last = column(Math.max(x, previousX) + Tile.CELL_SIZE);
+            for (int ghost = first; ghost <= last; ghost++) {
+                if (ghost != column) {
+                    tiles.get(ghost).addGhost(human);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get all humans near the given human from the tile owning them.
+     *
+     * @param human a human in this location
+     * @return the nearby humans, not including the given human
+     */
+    public Set<Human> getNearby(Human human) {
+        Tile owner = owners.get(human);
+
+        if (owner == null) {
+            owner = tiles.get(column(human.getModel().getCenterX()));
+        }
+
+        return owner.getNearby(human);
+    }
+
+    //---------------------------- Helper methods ----------------------------
+
+    /**
+     * Get the index of the tile containing the given horizontal coordinate.
+     *
+     * @param x a horizontal coordinate in pixels
+     * @return the index of the tile, clamped to the tiles
+     */
+    private int column(double x) {
+        return Math.min(Math.max((int) (x / tileWidth), 0), tiles.size() - 1);
+    }
+
+    //---------------------------- Getters ----------------------------
+
+    /**
+     * Getter for {@link #tiles}.
+     *
+     * @return {@link #tiles}
+     */
+    public List<Tile> getTiles() {
+        return tiles;
+    }
+
+}
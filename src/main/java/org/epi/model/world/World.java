@@ -1,8 +1,11 @@
 package org.epi.model.world;
 
+import org.epi.model.event.Event;
+import org.epi.model.event.EventLog;
 import org.epi.model.human.Human;
 import org.epi.util.Probability;
 import org.epi.util.Error;
+import org.epi.util.Purpose;
 
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -10,10 +13,19 @@ import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import static org.epi.model.human.Behaviour.CONTACT_TRACING;
+
 /** A simple model of a world.
  * The class is used as a graphical representation of the world in the simulator.*/
 public class World {
@@ -36,12 +48,24 @@ public class World {
     /** The initial time offset for the total elapsed seconds, such that testing does not occur at 0 seconds.*/
     private static final double OFFSET = 1 / 1000_000_000.00;
 
+    /** The districts in this world, the first of which is the city.*/
+    private final List<Location> districts;
+
+    /** The rate at which humans travel from one district to another in journeys per second, by district index.*/
+    private double[][] travelRates;
+
     /** The city in this world.*/
     private final Location city;
 
     /** The quarantine in this world.*/
     private final Location quarantine;
 
+    /** All locations in this world, i.e., the districts followed by the quarantine.*/
+    private final List<Location> locations;
+
+    /** An unmodifiable view of {@link #locations}, which is handed out so that no list is built per call.*/
+    private final List<Location> locationsView;
+
     /** The total number of seconds passed in this world.*/
     private final DoubleProperty totalElapsedSeconds;
 
@@ -60,6 +84,15 @@ public class World {
     /** How often testing occurs in this world by number of seconds between testings.*/
     private final DoubleProperty testingFrequency;
 
+    /** The number of tiles that the districts and quarantine are split into, or 0 if they are not tiled.*/
+    private final IntegerProperty tileCount;
+
+    /** The district each human in the quarantine was sent from.*/
+    private final Map<Human, Location> origins;
+
+    /** The recent contacts of the contact tracing users, whose contacts are quarantined with them.*/
+    private final ContactHistory contactHistory;
+
     //---------------------------- Constructor ----------------------------
 
     /**
@@ -83,13 +116,20 @@ public class World {
         Error.intervalCheck("total population", MIN_POPULATION, MAX_POPULATION, populationTotal);
         Error.intervalCheck("sick population", MIN_POPULATION, populationTotal, sickTotal);
         this.city = new Location(CITY_WIDTH, CITY_HEIGHT);
+        this.districts = new ArrayList<>(List.of(city));
+        this.travelRates = new double[1][1];
         this.quarantine = new Location(QUARANTINE_WIDTH, QUARANTINE_HEIGHT);
+        this.locations = new ArrayList<>(List.of(city, quarantine));
+        this.locationsView = Collections.unmodifiableList(locations);
         this.totalElapsedSeconds = new SimpleDoubleProperty(OFFSET);
         this.populationTotal = new SimpleIntegerProperty(populationTotal);
         this.sickTotal = new SimpleIntegerProperty(sickTotal);
         this.quarantineCapacity = new SimpleIntegerProperty(quarantineCapacity);
         this.detectionRate = new SimpleDoubleProperty(detectionRate);
         this.testingFrequency = new SimpleDoubleProperty(testingFrequency);
+        this.tileCount = new SimpleIntegerProperty(0);
+        this.origins = new HashMap<>();
+        this.contactHistory = new ContactHistory(ContactHistory.DEF_WINDOW);
     }
 
     //---------------------------- Simulator actions ----------------------------
@@ -106,74 +146,205 @@ public class World {
         double oldValue = totalElapsedSeconds.get();
         double newValue = oldValue + elapsedSeconds;
 
-        boolean isTesting = Math.ceil(oldValue / testingFrequency.get()) <= Math.floor(newValue / testingFrequency.get());
-
-        if (isTesting) {
-            test();
+        if (isTesting(elapsedSeconds)) {
+            test(testingFrequency.get() > 0 ? (long) Math.floor(newValue / testingFrequency.get())
+                    : Double.doubleToLongBits(newValue));
         }
 
         totalElapsedSeconds.set(newValue);
     }
 
     /**
-     * Call collision methods for the city and quarantine.
+     * Let time pass in the world without testing.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since this world was last updated
+     * @throws IllegalArgumentException if the given parameter is negative
      */
-    public void collisions() {
-        city.updateHash();
-        city.wallCollisions();
+    public void elapse(double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
+        totalElapsedSeconds.set(totalElapsedSeconds.get() + elapsedSeconds);
+    }
 
-        quarantine.updateHash();
-        quarantine.wallCollisions();
+    /**
+     * Update the spatial hashes for the districts and quarantine.
+     */
+    public void spatialHash() {
+        getLocations().forEach(Location::updateHash);
     }
 
     /**
-     * Show contact tracing network in the city and quarantine.
+     * Adjust the velocities of the populations of the districts and quarantine.
+     * Humans only adjust to others in the same location, so each location is adjusted by its own worker.
+     */
+    public void adjust() {
+        getLocations().parallelStream().forEach(Location::adjust);
+    }
+
+    /**
+     * Move the populations of the districts and quarantine, bouncing them off the walls.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since the populations were last moved
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void move(double elapsedSeconds) {
+        getLocations().forEach(location -> location.move(elapsedSeconds));
+    }
+
+    /**
+     * Show contact tracing network in the districts and quarantine, and record the contacts of the contact tracing
+     * users in the districts.
      */
     public void contactNetwork() {
-        city.updateContactNetwork();
-        quarantine.updateContactNetwork();
+        getLocations().forEach(Location::updateContactNetwork);
+        districts.forEach(district -> district.recordContacts(contactHistory, totalElapsedSeconds.get()));
+    }
+
+    /**
+     * Let the humans in each district travel to other districts given the travel rates.
+     * The destinations are competing risks: each traveller makes a single draw, which decides both whether they leave
+     * within the elapsed seconds given the total rate out of their district, and which destination they leave for in
+     * proportion to its rate. The journeys of all districts are decided first and then made together, so this is the
+     * only point at which districts interact.
+     *
+     * @param elapsedSeconds the number of seconds elapsed since the humans last travelled
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void travel(double elapsedSeconds) {
+        Error.nonNegativeCheck(elapsedSeconds);
+
+        if (districts.size() == 1) {
+            return;
+        }
+
+        Map<Human, Location> journeys = new HashMap<>();
+
+        for (int from = 0; from < districts.size(); from++) {
+            double totalRate = 0;
+            for (int to = 0; to < districts.size(); to++) {
+                totalRate += from == to ? 0 : travelRates[from][to];
+            }
+
+            if (totalRate == 0) {
+                continue;
+            }
+
+            double chance = 1 - Math.exp(-totalRate * elapsedSeconds);
+
+            for (Human traveller : districts.get(from).getPopulation()) {
+                double draw = traveller.draw(Purpose.MOVEMENT);
+
+                if (draw >= chance) {
+                    continue;
+                }
+
+                // A draw below the chance is spread over the destinations in proportion to their rates.
+                double rate = draw / chance * totalRate;
+                int destination = -1;
+
+                for (int to = 0; to < districts.size() && rate >= 0; to++) {
+                    if (from != to && travelRates[from][to] > 0) {
+                        rate -= travelRates[from][to];
+                        destination = to;
+                    }
+                }
+
+                journeys.put(traveller, districts.get(destination));
+            }
+        }
+
+        journeys.forEach(Human::setLocation);
     }
 
     //---------------------------- Helper methods ----------------------------
 
     /**
      * Test world's area for the pathogen and act accordingly.
+     *
+     * @param round the round of testing, i.e., the number of testing intervals passed, or the time if every update is
+     *              tested
      */
-    private void test() {
+    private void test(long round) {
         testQuarantine();
-        testCity();
+        testCity(round);
     }
 
     /**
-     * Test the city population for the pathogen, and for those who test positive, send them to the quarantine.
+     * Test the district populations for the pathogen, and for those who test positive, send them to the quarantine.
+     * The test of each human is drawn by the round of testing, so that it does not depend on the tests of the other
+     * humans, e.g. those skipped once the quarantine is full.
+     *
+     * @param round the round of testing
      */
-    private void testCity() {
+    private void testCity(long round) {
         List<Human> toQuarantine = new ArrayList<>();
+        List<Human> detected = new ArrayList<>();
 
-        for (Human testSubject : city.getPopulation()) {
-            boolean isAboveCapacity = quarantine.getPopulation().size() + toQuarantine.size() >= quarantineCapacity.get();
+        for (Location district : districts) {
+            for (Human testSubject : district.getPopulation()) {
+                boolean isAboveCapacity = quarantine.getPopulation().size() + toQuarantine.size() >= quarantineCapacity.get();
 
-            if (isAboveCapacity) {
-                break;
-            }
+                if (isAboveCapacity) {
+                    break;
+                }
 
-            boolean isDetected = Probability.chance(detectionRate.get());
+                boolean isDetected = testSubject.draw(Purpose.TESTING, round) < detectionRate.get();
 
-            if (testSubject.isSick() && isDetected) {
-                toQuarantine.add(testSubject);
+                if (testSubject.isSick() && isDetected) {
+                    toQuarantine.add(testSubject);
+                    detected.add(testSubject);
+                }
             }
         }
 
-        toQuarantine.forEach(sick -> sick.setLocation(quarantine));
+        trace(detected, toQuarantine);
+
+        toQuarantine.forEach(sick -> {
+            origins.put(sick, sick.getLocation());
+            sick.setLocation(quarantine);
+            EventLog.record(Event.QUARANTINE, sick);
+        });
+    }
+
+    /**
+     * Add the recent contacts of the detected contact tracing users in the districts to those sent to the quarantine,
+     * while there is room in it. Contacts who are not sick are sent back at the next testing.
+     *
+     * @param detected the detected humans
+     * @param toQuarantine the humans sent to the quarantine
+     */
+    private void trace(List<Human> detected, List<Human> toQuarantine) {
+        Set<Human> traced = new HashSet<>(toQuarantine);
+        double time = totalElapsedSeconds.get();
+
+        for (Human sick : detected) {
+            if (sick.getModel().getBehaviour() != CONTACT_TRACING) {
+                continue;
+            }
+
+            for (Human contact : contactHistory.trace(sick, time)) {
+                if (quarantine.getPopulation().size() + toQuarantine.size() >= quarantineCapacity.get()) {
+                    return;
+                }
+
+                if (districts.contains(contact.getLocation()) && traced.add(contact)) {
+                    toQuarantine.add(contact);
+                }
+            }
+        }
     }
 
     /**
-     * Test the quarantine population for those healthy or recovered, send them back to the city.
+     * Test the quarantine population for those healthy or recovered, send them back to the district they came from.
      */
     private void testQuarantine() {
+        origins.keySet().removeIf(human -> human.getLocation() != quarantine);
+
         quarantine.getPopulation().parallelStream()
                 .filter(Predicate.not(Human::isSick)).collect(Collectors.toList())
-                .forEach(survivor -> survivor.setLocation(city));
+                .forEach(survivor -> {
+                    survivor.setLocation(origins.getOrDefault(survivor, city));
+                    EventLog.record(Event.RELEASE, survivor);
+                });
     }
 
     /**
@@ -182,11 +353,25 @@ public class World {
      * @return a reset version of this world.
      */
     public World reset() {
-        return new World(populationTotal.get(),
+        World world = new World(populationTotal.get(),
                 sickTotal.get(),
                 quarantineCapacity.get(),
                 detectionRate.get(),
                 testingFrequency.get());
+
+        for (Location district : districts.subList(1, districts.size())) {
+            world.addDistrict(district.getArea().getPrefWidth(), district.getArea().getPrefHeight());
+        }
+
+        for (int from = 0; from < districts.size(); from++) {
+            for (int to = 0; to < districts.size(); to++) {
+                world.setTravelRate(from, to, travelRates[from][to]);
+            }
+        }
+
+        world.setTileCount(tileCount.get());
+        world.getContactHistory().setWindow(contactHistory.getWindow());
+        return world;
     }
 
     //---------------------------- Getters & Setters ----------------------------
@@ -200,6 +385,121 @@ public class World {
         return city;
     }
 
+    /**
+     * Getter for {@link #districts}.
+     *
+     * @return an unmodifiable view of {@link #districts}
+     */
+    public List<Location> getDistricts() {
+        return Collections.unmodifiableList(districts);
+    }
+
+    /**
+     * Getter for {@link #locations}.
+     *
+     * @return an unmodifiable view of {@link #locations}
+     */
+    public List<Location> getLocations() {
+        return locationsView;
+    }
+
+    /**
+     * Add a district to this world. Nobody travels to or from the district until its travel rates are set.
+     *
+     * @param width the width of the district in pixels
+     * @param height the height of the district in pixels
+     * @return the new district
+     * @throws IllegalArgumentException if the given width and height are not big enough to fit a single human
+     */
+    public Location addDistrict(double width, double height) {
+        Location district = new Location(width, height);
+        district.setTileCount(tileCount.get());
+        district.setContactGraph(city.getContactGraph());
+        districts.add(district);
+        locations.add(locations.size() - 1, district);
+
+        double[][] travelRates = new double[districts.size()][districts.size()];
+        for (int i = 0; i < this.travelRates.length; i++) {
+            System.arraycopy(this.travelRates[i], 0, travelRates[i], 0, this.travelRates[i].length);
+        }
+        this.travelRates = travelRates;
+
+        return district;
+    }
+
+    /**
+     * Get the rate at which humans travel from one district to another.
+     *
+     * @param from the index of the district travelled from
+     * @param to the index of the district travelled to
+     * @return the rate in journeys per human per second
+     * @throws IndexOutOfBoundsException if either index is not a district
+     */
+    public double getTravelRate(int from, int to) {
+        return travelRates[from][to];
+    }
+
+    /**
+     * Set the rate at which humans travel from one district to another.
+     *
+     * @param from the index of the district travelled from
+     * @param to the index of the district travelled to
+     * @param rate the rate in journeys per human per second
+     * @throws IndexOutOfBoundsException if either index is not a district
+     * @throws IllegalArgumentException if the given rate is negative
+     */
+    public void setTravelRate(int from, int to, double rate) {
+        Error.nonNegativeCheck(rate);
+        travelRates[from][to] = rate;
+    }
+
+    /**
+     * Get the contact graph of this world's population.
+     *
+     * @return the contact graph, or null if there is none
+     */
+    public ContactGraph getContactGraph() {
+        return city.getContactGraph();
+    }
+
+    /**
+     * Set the contact graph of this world's population for all districts and the quarantine.
+     * A contact graph that changes over time is modelled by setting a new graph.
+     *
+     * @param contactGraph a contact graph, or null to remove the contact graph
+     */
+    public void setContactGraph(ContactGraph contactGraph) {
+        getLocations().forEach(location -> location.setContactGraph(contactGraph));
+    }
+
+    /**
+     * Set a copy of the contact graph of the given world on this world's population, in which each human has the
+     * contacts of the human with the same id in the given world, see {@link ContactGraph#copy(Collection)}.
+     * Nothing changes if the given world has no contact graph.
+     *
+     * @param world the world to copy the contact graph of
+     * @throws NullPointerException if the given parameter is null
+     * @throws IllegalArgumentException if this world has no human with the id of a human in the contact graph
+     */
+    public void copyContactGraph(World world) {
+        Objects.requireNonNull(world, Error.getNullMsg("world"));
+
+        if (world.getContactGraph() != null) {
+            setContactGraph(world.getContactGraph().copy(getLocations().stream()
+                    .flatMap(location -> location.getPopulation().stream())
+                    .collect(Collectors.toList())));
+        }
+    }
+
+    /**
+     * Getter for {@link #contactHistory}.
+     *
+     * @return {@link #contactHistory}
+     */
+    public ContactHistory getContactHistory() {
+        return contactHistory;
+    }
+
     /**
      * Getter for {@link #quarantine}.
      *
@@ -218,6 +518,70 @@ public class World {
         return totalElapsedSeconds.get();
     }
 
+    /**
+     * Setter for {@link #totalElapsedSeconds}.
+     *
+     * @param totalElapsedSeconds {@link #totalElapsedSeconds}
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setTotalElapsedSeconds(double totalElapsedSeconds) {
+        Error.nonNegativeCheck(totalElapsedSeconds);
+        this.totalElapsedSeconds.set(totalElapsedSeconds);
+    }
+
+    /**
+     * Get the district a human in the quarantine was sent from.
+     *
+     * @param human a human
+     * @return the district the human returns to, or null if the human was not sent to the quarantine by testing
+     */
+    public Location getOrigin(Human human) {
+        return origins.get(human);
+    }
+
+    /**
+     * Set the district a human in the quarantine returns to once they are no longer sick.
+     *
+     * @param human a human in the quarantine
+     * @param district a district
+     * @throws NullPointerException if any of the given parameters are null
+     */
+    public void setOrigin(Human human, Location district) {
+        Objects.requireNonNull(human, Error.getNullMsg("human"));
+        Objects.requireNonNull(district, Error.getNullMsg("district"));
+        origins.put(human, district);
+    }
+
+    /**
+     * Check if the world is tested within the given number of seconds from now. The testing intervals are half-open,
+     * so an update ending exactly at a testing tests once, and the next update does not test again. With a testing
+     * frequency of 0, every update is tested.
+     *
+     * @param elapsedSeconds a number of seconds from now
+     * @return true if a testing time is passed or reached within the seconds, otherwise false
+     */
+    public boolean isTesting(double elapsedSeconds) {
+        double frequency = testingFrequency.get();
+        double now = totalElapsedSeconds.get();
+
+        return frequency == 0 || Math.floor(now / frequency) < Math.floor((now + elapsedSeconds) / frequency);
+    }
+
+    /**
+     * Get the number of seconds until the next testing in this world.
+     *
+     * @return the number of seconds until the next testing, or infinity if every update is tested, so that the
+     *         testing does not limit the steps
+     */
+    public double getTimeToTest() {
+        if (testingFrequency.get() == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double nextTest = (Math.floor(totalElapsedSeconds.get() / testingFrequency.get()) + 1) * testingFrequency.get();
+        return nextTest - totalElapsedSeconds.get();
+    }
+
     /**
      * Getter for {@link #populationTotal}.
      *
@@ -322,5 +686,26 @@ public class World {
         this.testingFrequency.set(testingFrequency);
     }
 
-}
+    /**
+     * Getter for {@link #tileCount}.
+     *
+     * @return {@link #tileCount}
+     */
+    public int getTileCount() {
+        return tileCount.get();
+    }
+
+    /**
+     * Setter for {@link #tileCount}. Splits the districts and quarantine into the given number of tiles,
+     * each of which is simulated by its own worker.
+     *
+     * @param tileCount {@link #tileCount}, or 0 to stop tiling
+     * @throws IllegalArgumentException if the given parameter is negative
+     */
+    public void setTileCount(int tileCount) {
+        Error.nonNegativeCheck(tileCount);
+        getLocations().forEach(location -> location.setTileCount(tileCount));
+        this.tileCount.set(tileCount);
+    }
 
+}
@@ -1,12 +1,27 @@
 package org.epi.util;
 
-import org.apache.commons.math3.distribution.EnumeratedDistribution;
-import org.apache.commons.math3.util.Pair;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 
-import java.util.Arrays;
-import java.util.List;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Objects;
 
-/** Utility class with helper methods for handling probability.*/
+/**
+ * Utility class with helper methods for handling probability.
+ *
+ * All randomness in the simulator is drawn from the generator in use by the current thread, so that a simulation can
+ * be repeated by seeding its generator and resumed by restoring it, and several simulations can run on their own
+ * threads without sharing draws.
+ *
+ * The draws made for a human can instead come from common random numbers, i.e., from a stream of the human's own per
+ * {@link Purpose}, keyed by a seed, the human's id and the purpose. The n-th draw of a stream is a hash of its key and
+ * n, so it does not depend on the draws made for other humans or purposes. Simulations of different interventions with
+ * the same seed then make the same draws for the same humans, and their differences are not masked by noise.
+ */
 public class Probability {
 
     /** The minimum probability.*/
@@ -14,6 +29,19 @@ public class Probability {
     /** The maximum probability.*/
     public static final double MAX_PROB = 1;
 
+    /** The increment of SplitMix64, which spreads consecutive keys over the range of longs.*/
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** The generator in use by each thread.*/
+    private static final ThreadLocal<RandomGenerator> generator = ThreadLocal.withInitial(Well19937c::new);
+
+    /** The generator drawing from the generator in use by the current thread.*/
+    private static final RandomGenerator random = new Current();
+
+    /** The seed of the common random numbers in use by each thread, or null if the draws for humans are made with
+     * the thread's generator.*/
+    private static final ThreadLocal<Long> commonSeed = new ThreadLocal<>();
+
     /**
      * Sample a probability distribution for a boolean given a certain chance.
      *
@@ -24,10 +52,7 @@ public class Probability {
      */
     public static boolean chance(double chance) {
         probabilityCheck(chance);
-
-        List<Pair<Boolean,Double>> outcomes = Arrays.asList(Pair.create(true, chance), Pair.create(false, 1 - chance));
-
-        return new EnumeratedDistribution<>(outcomes).sample();
+        return random.nextDouble() < chance;
     }
 
     /**
@@ -41,4 +66,204 @@ public class Probability {
         Error.intervalCheck("probability", MIN_PROB, MAX_PROB, probability);
     }
 
+    //---------------------------- Generator ----------------------------
+
+    /**
+     * Get a generator which draws from the generator in use by whichever thread draws from it,
+     * so that it can be held on to across simulations.
+     *
+     * @return the generator
+     */
+    public static RandomGenerator getRandom() {
+        return random;
+    }
+
+    /**
+     * Use the given generator for all draws made by the current thread.
+     *
+     * @param generator a generator
+     * @throws NullPointerException if the given generator is null
+     */
+    public static void use(RandomGenerator generator) {
+        Objects.requireNonNull(generator, Error.getNullMsg("generator"));
+        Probability.generator.set(generator);
+    }
+
+    /**
+     * Use common random numbers with the given seed for all draws made for humans by the current thread.
+     *
+     * @param seed the seed of the common random numbers, or null to make the draws with the thread's generator
+     */
+    public static void useCommon(Long seed) {
+        Probability.commonSeed.set(seed);
+    }
+
+    /**
+     * Get the generator in use by the current thread, e.g. to use it again after using another one.
+     *
+     * @return the generator
+     */
+    public static RandomGenerator inUse() {
+        return generator.get();
+    }
+
+    /**
+     * Get the seed of the common random numbers in use by the current thread, e.g. to use it again after using
+     * another one.
+     *
+     * @return the seed of the common random numbers, or null if the draws are made with the thread's generator
+     */
+    public static Long inUseCommon() {
+        return commonSeed.get();
+    }
+
+    /**
+     * Draw a uniform number from a stream of common random numbers, or from the generator in use by the current
+     * thread if it does not use common random numbers.
+     *
+     * @param id the id of the human the stream is of
+     * @param purpose the purpose of the stream
+     * @param draw the index of the draw in the stream
+     * @return a number in [0, 1)
+     * @throws NullPointerException if the given purpose is null
+     */
+    public static double nextDouble(int id, Purpose purpose, long draw) {
+        Objects.requireNonNull(purpose, Error.getNullMsg("purpose"));
+
+        Long seed = commonSeed.get();
+
+        if (seed == null) {
+            return random.nextDouble();
+        }
+
+        long stream = mix(seed + ((((long) id << 3) | purpose.ordinal()) + 1) * GOLDEN_GAMMA);
+        return (mix(stream + (draw + 1) * GOLDEN_GAMMA) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Mix the bits of a number with the SplitMix64 finaliser.
+     *
+     * @param z a number
+     * @return the mixed number
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Get the state of a generator.
+     *
+     * @param generator a serialisable generator, such as {@link Well19937c}
+     * @return the state
+     * @throws NullPointerException if the given generator is null
+     * @throws IllegalArgumentException if the given generator is not serialisable
+     */
+    public static byte[] getState(RandomGenerator generator) {
+        Objects.requireNonNull(generator, Error.getNullMsg("generator"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(generator);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(Error.ERROR_TAG + " Given generator cannot be saved.", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Create a generator from a state from {@link #getState(RandomGenerator)}, which makes the same draws as the
+     * generator did from then on.
+     *
+     * @param state a state of a generator
+     * @return the generator
+     * @throws NullPointerException if the given state is null
+     * @throws IOException if the given state is not a state of a generator
+     */
+    public static RandomGenerator fromState(byte[] state) throws IOException {
+        Objects.requireNonNull(state, Error.getNullMsg("state"));
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            return (RandomGenerator) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException(Error.ERROR_TAG + " Given state is not a random generator state.", e);
+        }
+    }
+
+    /**
+     * A generator drawing from the generator in use by the current thread.
+     */
+    private static class Current implements RandomGenerator {
+
+        /** {@inheritDoc} */
+        @Override
+        public void setSeed(int seed) {
+            generator.get().setSeed(seed);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setSeed(int[] seed) {
+            generator.get().setSeed(seed);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setSeed(long seed) {
+            generator.get().setSeed(seed);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void nextBytes(byte[] bytes) {
+            generator.get().nextBytes(bytes);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int nextInt() {
+            return generator.get().nextInt();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int nextInt(int n) {
+            return generator.get().nextInt(n);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long nextLong() {
+            return generator.get().nextLong();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean nextBoolean() {
+            return generator.get().nextBoolean();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public float nextFloat() {
+            return generator.get().nextFloat();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double nextDouble() {
+            return generator.get().nextDouble();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double nextGaussian() {
+            return generator.get().nextGaussian();
+        }
+
+    }
+
 }
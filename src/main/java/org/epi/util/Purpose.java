@@ -0,0 +1,15 @@
+package org.epi.util;
+
+/** The purposes of the draws made for a human, each of which has its own stream of common random numbers.*/
+public enum Purpose {
+    /** Placement, velocity and travel between districts.*/
+    MOVEMENT,
+    /** Thresholds of exposure and chances of infection.*/
+    INFECTION,
+    /** Detection by tests, drawn by the round of testing rather than by a count of draws.*/
+    TESTING,
+    /** Death from the pathogen.*/
+    FATALITY,
+    /** Gaining immunity and defending against a pathogen.*/
+    IMMUNITY
+}
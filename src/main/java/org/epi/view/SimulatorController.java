@@ -5,6 +5,7 @@ import org.epi.model.human.Pathogen;
 import org.epi.model.SimulationState;
 import org.epi.model.Simulator;
 import org.epi.model.Statistics;
+import org.epi.model.Timeline;
 import org.epi.model.world.World;
 import org.epi.util.Error;
 
@@ -86,6 +87,8 @@ public class SimulatorController extends Controller {
     private JFXButton playButton;
     @FXML
     private JFXButton resetButton;
+    @FXML
+    private JFXSlider timelineSlider;
 
     // Parameter sliders ----------------------------
 
@@ -178,6 +181,7 @@ public class SimulatorController extends Controller {
     private void initialize() {
         initTooltips();
         initSliders();
+        initTimelineSlider();
     }
 
     /**
@@ -189,6 +193,7 @@ public class SimulatorController extends Controller {
         showChart();
         showPlayButton();
         showParameters();
+        showTimeline();
 
         initEvents();
     }
@@ -203,6 +208,11 @@ public class SimulatorController extends Controller {
 
             resetButton.setDisable(newValue == RUN);
             generateButton.setDisable(newValue == RUN);
+            timelineSlider.setDisable(newValue == RUN);
+
+            if (newValue != RUN) {
+                getMainApp().getSimulator().getTimeline().flush();
+            }
 
             if (newValue == ENDED) {
                 playButton.setDisable(true);
@@ -210,6 +220,14 @@ public class SimulatorController extends Controller {
             }
         });
 
+        // Follow the timeline with the timeline slider.
+        Timeline timeline = getMainApp().getSimulator().getTimeline();
+        timeline.timeProperty().addListener((observable, oldValue, newValue) -> {
+            timelineSlider.setMin(timeline.getStartTime());
+            timelineSlider.setMax(timeline.getEndTime());
+            timelineSlider.setValue(newValue.doubleValue());
+        });
+
         initParameters();
     }
 
@@ -265,7 +283,7 @@ public class SimulatorController extends Controller {
 
         getMainApp().setSimulator(new Simulator(getMainApp().getWorld().reset(),
                 getMainApp().getBehaviourDistribution().copy(),
-                getMainApp().getPathogen().reproduce()));
+                getMainApp().getPathogen().copy()));
 
         showSimulation();
     }
@@ -302,6 +320,31 @@ public class SimulatorController extends Controller {
         initPathogenSliders();
     }
 
+    /**
+     * Initialise the timeline slider, which rewinds and fast-forwards the simulator while it is not running.
+     */
+    private void initTimelineSlider() {
+        timelineSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
+            Simulator simulator = getMainApp().getSimulator();
+            Timeline timeline = simulator.getTimeline();
+
+            if (simulator.getSimulationState() == RUN || newValue.doubleValue() == timeline.getTime()) {
+                return;
+            }
+
+            timeline.seekTime(newValue.doubleValue());
+
+            // A simulation rewound from its end can be played again.
+            if (simulator.getSimulationState() == ENDED && !simulator.ended()) {
+                simulator.setSimulationState(PAUSE);
+                simulator.getPlayer().start();
+                playButton.setDisable(false);
+            }
+
+            pauseXAxis();
+        });
+    }
+
     /**
      * Initialise world sliders.
      */
@@ -427,6 +470,20 @@ public class SimulatorController extends Controller {
         yAxis.setUpperBound(getMainApp().getSimulator().getWorld().getPopulationTotal());
     }
 
+    /**
+     * Keep the history of the simulator, and show it on the timeline slider.
+     */
+    private void showTimeline() {
+        Simulator simulator = getMainApp().getSimulator();
+        Timeline timeline = new Timeline(simulator);
+        simulator.setTimeline(timeline);
+
+        timelineSlider.setMin(timeline.getStartTime());
+        timelineSlider.setMax(timeline.getEndTime());
+        timelineSlider.setValue(timeline.getTime());
+        timelineSlider.setDisable(simulator.getSimulationState() == RUN);
+    }
+
     /**
      * Show the play button with an icon reflective of the simulation state.
      */
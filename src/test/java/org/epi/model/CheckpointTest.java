@@ -0,0 +1,85 @@
+package org.epi.model;
+
+import org.epi.model.human.Pathogen;
+import org.epi.model.world.World;
+
+import org.apache.commons.math3.random.Well19937c;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+/** Tests of saving and restoring the state of a simulator.*/
+public class CheckpointTest {
+
+    /** The seed of the common random numbers, which is a parameter of a simulator and not part of its state.*/
+    private static final long COMMON_SEED = 7;
+
+    /** The world the simulators are created from.*/
+    private static final World WORLD = new World(100, 5, 20, 0.4, 10);
+
+    /** The behaviour distribution the simulators are created with.*/
+    private static final BehaviourDistribution BEHAVIOURS = new BehaviourDistribution(50, 0, 50);
+
+    /** The pathogen the simulators are created with.*/
+    private static final Pathogen PATHOGEN = new Pathogen(10, 0.1, 0.1, 0.7, 20);
+
+    /**
+     * A simulator restored to a checkpoint saves the same body, and makes the same updates afterwards, as the
+     * simulator the checkpoint was saved from.
+     */
+    @Test
+    public void restoredSimulatorContinuesExactly() throws IOException {
+        Simulator original = simulator(1);
+        original.advance(5);
+
+        Simulator restored = simulator(2);
+        restored.advance(3);
+        Checkpoint.restore(restored, Checkpoint.save(original), false);
+
+        assertArrayEquals(Checkpoint.save(original).array(), Checkpoint.save(restored).array());
+
+        original.advance(5);
+        restored.advance(5);
+
+        assertArrayEquals(Checkpoint.save(original).array(), Checkpoint.save(restored).array());
+    }
+
+    /**
+     * A simulator is left as it was when restoring it to a corrupt checkpoint fails.
+     */
+    @Test
+    public void corruptCheckpointLeavesSimulatorUnchanged() {
+        Simulator simulator = simulator(1);
+        simulator.advance(2);
+        byte[] before = Checkpoint.save(simulator).array();
+
+        Simulator other = simulator(2);
+        other.advance(4);
+        byte[] body = Checkpoint.save(other).array();
+
+        try {
+            Checkpoint.restore(simulator, ByteBuffer.wrap(Arrays.copyOf(body, body.length - 8)), false);
+            fail("A truncated checkpoint was restored.");
+        } catch (IOException e) {
+            assertArrayEquals(before, Checkpoint.save(simulator).array());
+        }
+    }
+
+    /**
+     * Create a headless simulator with the common random numbers of {@link #COMMON_SEED}.
+     *
+     * @param seed the seed of the simulator
+     * @return the simulator
+     */
+    private static Simulator simulator(long seed) {
+        return new Simulator(WORLD.reset(), BEHAVIOURS.copy(), PATHOGEN.copy(), new Well19937c(seed), COMMON_SEED,
+                true, true);
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.epi.model;
+
+import org.epi.model.human.Pathogen;
+import org.epi.model.world.World;
+import org.epi.util.Probability;
+
+import org.apache.commons.math3.random.Well19937c;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests of sampling compartments with tau-leaping.*/
+public class CompartmentsTest {
+
+    /** The number of humans in the compartments, which is large enough to be sampled with tau-leaping.*/
+    private static final int POPULATION = 1_000_000;
+
+    /** The number of humans that start infectious.*/
+    private static final int SICK = 1000;
+
+    /** The number of seconds the compartments are sampled for.*/
+    private static final double DURATION = 60;
+
+    /** The world the compartments are scaled from, which tests no one so that sampling and integration agree.*/
+    private static final World WORLD = new World(300, 30, 0, 0, 10);
+
+    /** The behaviour distribution the compartments are created with.*/
+    private static final BehaviourDistribution BEHAVIOURS = new BehaviourDistribution(50, 0, 50);
+
+    /** The pathogen the compartments are created with.*/
+    private static final Pathogen PATHOGEN = new Pathogen(100, 0.5, 0.1, 0.7, 20);
+
+    /**
+     * Tau-leaping moves whole humans between the compartments without losing or creating any.
+     */
+    @Test
+    public void leapingConservesHumans() {
+        Probability.use(new Well19937c(1));
+        Compartments compartments = compartments();
+        compartments.sample(DURATION);
+
+        double total = 0;
+        for (double count : compartments.getState()) {
+            assertTrue(count >= 0);
+            assertEquals(Math.rint(count), count, 0);
+            total += count;
+        }
+
+        assertEquals(POPULATION, total, 0);
+        assertTrue(compartments.get(Compartments.SUSCEPTIBLE) < POPULATION - SICK);
+    }
+
+    /**
+     * Tau-leaping a large population follows the mean-field integration of the compartments through the growth of an
+     * outbreak, rather than holding the rates of a leap fixed for too long.
+     */
+    @Test
+    public void leapingFollowsMeanField() {
+        Probability.use(new Well19937c(2));
+        Compartments sampled = compartments();
+        sampled.sample(DURATION);
+
+        Compartments integrated = compartments();
+        integrated.integrate(DURATION);
+
+        for (int i = 0; i < integrated.getDimension(); i++) {
+            assertEquals(integrated.get(i), sampled.get(i), 0.1 * integrated.get(i) + 0.001 * POPULATION);
+        }
+    }
+
+    /**
+     * Create compartments of {@link #POPULATION} humans, of which {@link #SICK} start infectious.
+     *
+     * @return the compartments
+     */
+    private static Compartments compartments() {
+        return new Compartments(WORLD, BEHAVIOURS, PATHOGEN, POPULATION, SICK);
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.epi.model;
+
+import org.epi.model.event.Event;
+import org.epi.model.event.EventHistory;
+import org.epi.model.event.EventLog;
+import org.epi.model.human.Pathogen;
+import org.epi.model.world.World;
+
+import org.apache.commons.math3.random.Well19937c;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Tests of rewinding a simulator with a timeline.*/
+public class TimelineTest {
+
+    /** The number of seconds of each update.*/
+    private static final double STEP = 0.1;
+
+    /** The number of updates of each run.*/
+    private static final int UPDATES = 200;
+
+    /** The world the simulators are created from.*/
+    private static final World WORLD = new World(100, 5, 20, 0.4, 10);
+
+    /** The behaviour distribution the simulators are created with.*/
+    private static final BehaviourDistribution BEHAVIOURS = new BehaviourDistribution(50, 0, 50);
+
+    /** The pathogen the simulators are created with.*/
+    private static final Pathogen PATHOGEN = new Pathogen(10, 0.5, 0.1, 0.7, 20);
+
+    /**
+     * A simulator rewound halfway and updated again logs every event once, as if it had not been rewound.
+     */
+    @Test
+    public void rewoundSimulatorLogsEventsOnce() throws IOException {
+        int[] straight = count(false);
+        int[] rewound = count(true);
+
+        assertTrue(straight[Event.INFECTION.ordinal()] > 0);
+        assertArrayEquals(straight, rewound);
+    }
+
+    /**
+     * Run a simulator with an event log and a timeline that keeps every update, and count its logged events.
+     *
+     * @param isRewound whether the simulator is rewound halfway through the run and updated from there again
+     * @return the number of logged events, by event ordinal
+     * @throws IOException if the event log cannot be written or read
+     */
+    private static int[] count(boolean isRewound) throws IOException {
+        Simulator simulator = new Simulator(WORLD.reset(), BEHAVIOURS.copy(), PATHOGEN.copy(), new Well19937c(1),
+                null, true, true);
+        Path path = Files.createTempFile("events", ".log");
+
+        try {
+            try (EventLog eventLog = new EventLog(path, simulator.getWorld())) {
+                simulator.setEventLog(eventLog);
+                Timeline timeline = new Timeline(simulator);
+                timeline.setInterval(0);
+                simulator.setTimeline(timeline);
+
+                for (int i = 0; i < UPDATES; i++) {
+                    simulator.update(STEP);
+                }
+
+                if (isRewound) {
+                    timeline.seek(UPDATES / 2);
+
+                    for (int i = UPDATES / 2; i < UPDATES; i++) {
+                        simulator.update(STEP);
+                    }
+                }
+            }
+
+            EventHistory history = new EventHistory(path);
+            int[] counts = new int[Event.values().length];
+            for (Event event : Event.values()) {
+                counts[event.ordinal()] = history.count(event);
+            }
+            return counts;
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+}